@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import tileworld.BenchmarkWorlds;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Measures computing a cost field with delta-stepping on a number of threads, 
+ * against sequential Dijkstra (threads = 0).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class DeltaSteppingBenchmark {
+    
+    @Param({"512", "1024"})
+    public int size;
+    
+    @Param({"0", "1", "4", "16"})
+    public int threads;
+    
+    @Param({"68"})
+    public int delta;
+    
+    private ForkJoinPool pool;
+    private DeltaStepping deltaStepping;
+    
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(Math.max(1, threads));
+        deltaStepping = new DeltaStepping(BenchmarkWorlds.create(size, 0.2), pool, delta);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+    
+    @Benchmark
+    public int[] solve() {
+        return threads == 0 ? deltaStepping.solveSequential(0) : deltaStepping.solve(0);
+    }
+    
+}
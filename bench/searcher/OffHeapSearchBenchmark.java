@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import searcher.strategy.SearchStrategy;
+import tileworld.BenchmarkWorlds;
+import tileworld.TileWorld;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Measures a query of the off-heap A* against A* on the Node graph of the Solver 
+ * (offHeap = false), including building the graph.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class OffHeapSearchBenchmark {
+    
+    @Param({"512", "2048"})
+    public int size;
+    
+    @Param({"true", "false"})
+    public boolean offHeap;
+    
+    private TileWorld world;
+    private OffHeapSearch search;
+    
+    @Setup
+    public void setUp() {
+        world = BenchmarkWorlds.create(size, 0.2);
+        search = new OffHeapSearch(world);
+    }
+    
+    @Benchmark
+    public int solve() {
+        if(offHeap) {
+            return search.solve(world.findStartX(), world.findStartY(), world.findEndX(), world.findEndY());
+        }
+        return new Solver(world.getSnapshot().overlay(), SearchStrategy.A_STAR).solve().getBestPathCost();
+    }
+    
+}
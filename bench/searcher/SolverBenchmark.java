@@ -0,0 +1,65 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import searcher.strategy.Node;
+import searcher.strategy.SearchStrategy;
+import tileworld.BenchmarkWorlds;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Measures building the Node graph of a world.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SolverBenchmark {
+    
+    @Param({"32", "64", "128"})
+    public int size;
+    
+    @Param({"0.0", "0.2", "0.4"})
+    public double obstacleDensity;
+    
+    private Solver solver;
+    
+    @Setup
+    public void setUp() {
+        solver = new Solver(BenchmarkWorlds.create(size, obstacleDensity), SearchStrategy.A_STAR);
+    }
+    
+    @Benchmark
+    public Node[][] initialize() {
+        solver.initialize();
+        return solver.getGrid();
+    }
+    
+}
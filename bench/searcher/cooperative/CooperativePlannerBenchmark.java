@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.cooperative;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import tileworld.BenchmarkWorlds;
+import tileworld.ConnectedComponents;
+import tileworld.TileWorld;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Measures a time step of cooperative pathfinding: planning the agents within 
+ * the budget and moving them. Each iteration starts with fresh agents.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CooperativePlannerBenchmark {
+    
+    @Param({"256", "512"})
+    public int size;
+    
+    @Param({"100", "500"})
+    public int agents;
+    
+    @Param({"2000000"})
+    public long budget;
+    
+    private TileWorld world;
+    private CooperativePlanner planner;
+    
+    @Setup(Level.Trial)
+    public void setUpWorld() {
+        world = BenchmarkWorlds.create(size, 0.2);
+    }
+    
+    @Setup(Level.Iteration)
+    public void setUpAgents() {
+        ConnectedComponents components = world.getComponents();
+        Random random = new Random(42);
+        
+        planner = new CooperativePlanner(world, agents);
+        while(planner.getAgentCount() < agents) {
+            int start = random.nextInt(world.getSize());
+            int goal = random.nextInt(world.getSize());
+            
+            if(components.getComponent(start) != ConnectedComponents.NO_COMPONENT 
+                    && components.isConnected(start, goal) 
+                    && planner.getReservations().getOwner(start, planner.getTime()) == ReservationTable.NO_AGENT) {
+                planner.addAgent(start, goal);
+            }
+        }
+        // the first plans of all agents are not part of the steady state
+        planner.tick(Long.MAX_VALUE);
+    }
+    
+    @Benchmark
+    public int tick() {
+        return planner.tick(budget);
+    }
+    
+}
@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.realtime;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import tileworld.BenchmarkWorlds;
+import tileworld.TileWorld;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Measures a step of a real-time agent: the lookahead, the learning and the 
+ * move. The agent starts over when it reaches its goal, keeping what it learned.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RealTimeAgentBenchmark {
+    
+    @Param({"512"})
+    public int size;
+    
+    @Param({"1", "16", "64", "256"})
+    public int lookahead;
+    
+    private RealTimeAgent agent;
+    private int startX;
+    private int startY;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        TileWorld world = BenchmarkWorlds.create(size, 0.2);
+        startX = world.findStartX();
+        startY = world.findStartY();
+        agent = new RealTimeAgent(new LearnedHeuristics(world.getSnapshot()), lookahead);
+        agent.setGoal(world.findEndX(), world.findEndY());
+        agent.setPosition(startX, startY);
+    }
+    
+    @Benchmark
+    public int step() {
+        if(!agent.step()) {
+            agent.setPosition(startX, startY);
+        }
+        return agent.getPosition();
+    }
+    
+}
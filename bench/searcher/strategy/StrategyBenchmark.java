@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.strategy;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import searcher.AlgorithmResults;
+import searcher.Solver;
+import tileworld.BenchmarkWorlds;
+import tileworld.TileWorld;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Measures Strategy.solve() for every strategy. A search marks its Nodes as 
+ * visited and draws its path onto the world, so every invocation gets a fresh 
+ * copy of the world and a fresh Solver. Building those is not measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class StrategyBenchmark {
+    
+    @Param({"A_STAR", "DIJKSTRA", "GREEDY", "LAZY_THETA_STAR", "ARA_STAR", "FRINGE_SEARCH", "AUTO"})
+    public SearchStrategy strategy;
+    
+    @Param({"32", "64", "128"})
+    public int size;
+    
+    @Param({"0.0", "0.2", "0.4"})
+    public double obstacleDensity;
+    
+    private TileWorld world;
+    private Strategy solving;
+    
+    @Setup(Level.Trial)
+    public void createWorld() {
+        world = BenchmarkWorlds.create(size, obstacleDensity);
+    }
+    
+    @Setup(Level.Invocation)
+    public void createSolver() {
+        solving = new Solver(new TileWorld(world), strategy).getStrategy();
+    }
+    
+    @Benchmark
+    public AlgorithmResults solve() {
+        return solving.solve();
+    }
+    
+}
@@ -0,0 +1,50 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package tileworld;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Creates the worlds used by the benchmarks. The worlds are square RANDOM_TERRAIN
+ * worlds of the WorldGenerator, with a given fraction of NONWALKABLE tiles.
+ * START is placed in the top left corner and END in the bottom right corner.
+ */
+public final class BenchmarkWorlds {
+    
+    private static final long SEED = 42L;
+    
+    /**
+     * 
+     * @param size width and height of the world
+     * @param obstacleDensity fraction (0..1) of NONWALKABLE tiles
+     * @return the world, identical for identical arguments
+     */
+    public static TileWorld create(int size, double obstacleDensity) {
+        WorldGenerator generator = new WorldGenerator(WorldGenerator.Layout.RANDOM_TERRAIN, size, size, SEED);
+        generator.setObstacleDensity(obstacleDensity);
+        return generator.generate();
+    }
+    
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package tileworld;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Measures decoding a png into a TileWorld.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TileWorldBenchmark {
+    
+    @Param({"32", "64", "128", "256"})
+    public int size;
+    
+    @Param({"0.0", "0.2", "0.4"})
+    public double obstacleDensity;
+    
+    private File file;
+    
+    @Setup
+    public void setUp() throws IOException {
+        TileWorld world = BenchmarkWorlds.create(size, obstacleDensity);
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        
+        for(int y = 0; y < size; ++y) {
+            for(int x = 0; x < size; ++x) {
+                image.setRGB(x, y, world.getTileType(x, y).getRgbColor());
+            }
+        }
+        
+        file = File.createTempFile("benchmark", ".png");
+        ImageIO.write(image, "png", file);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+    
+    @Benchmark
+    public I_TileWorld load() {
+        return new TileWorld(file);
+    }
+    
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package utilities.kernels;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import tileworld.BenchmarkWorlds;
+import tileworld.TileType;
+import tileworld.TileWorld;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Measures the grid kernels with the Vector API (vector = true) against the 
+ * scalar kernels. Without jdk.incubator.vector both measure the scalar kernels.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class GridKernelsBenchmark {
+    
+    @Param({"256", "1024", "2048"})
+    public int size;
+    
+    @Param({"false", "true"})
+    public boolean vector;
+    
+    private I_GridKernels kernels;
+    private int[] tiles;
+    private int[] costs;
+    private boolean[] blocked;
+    private int[] field;
+    
+    @Setup
+    public void setUp() {
+        TileWorld world = BenchmarkWorlds.create(size, 0.2);
+        
+        kernels = vector && GridKernels.isVectorAvailable() ? GridKernels.get() : GridKernels.getScalar();
+        tiles = new int[size * size];
+        blocked = new boolean[size * size];
+        field = new int[size * size];
+        costs = new int[TileType.values().length];
+        
+        for(TileType type : TileType.values()) {
+            costs[type.ordinal()] = type.getCost();
+        }
+        for(int y = 0; y < size; ++y) {
+            for(int x = 0; x < size; ++x) {
+                tiles[y * size + x] = world.getTileType(x, y).ordinal();
+                blocked[y * size + x] = world.getTileType(x, y) == TileType.NONWALKABLE;
+            }
+        }
+    }
+    
+    @Benchmark
+    public int[] octileField() {
+        kernels.octileField(size, size, size - 1, size - 1, field);
+        return field;
+    }
+    
+    @Benchmark
+    public int[] euclideanField() {
+        kernels.euclideanField(size, size, size - 1, size - 1, field);
+        return field;
+    }
+    
+    @Benchmark
+    public int[] obstacleDistanceField() {
+        kernels.obstacleDistanceField(blocked, size, size, field);
+        return field;
+    }
+    
+    @Benchmark
+    public int[] costField() {
+        kernels.costField(tiles, costs, field);
+        return field;
+    }
+    
+}
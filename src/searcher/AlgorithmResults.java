@@ -1,7 +1,6 @@
 package searcher;
 
-import java.util.ArrayList;
-import searcher.strategy.Node;
+import searcher.strategy.SearchStrategy;
 
 /**
  * Class containing all results of the experiments of one algorithm (e.g., A*).
@@ -13,9 +12,38 @@ public class AlgorithmResults {
     private int nodesExpanded;
     private long time;
     /**
-     * Integer list containing the indices of the tiles in the best path.
+     * Operation counters of the search.
      */
-    private ArrayList<Node> solutionPath = new ArrayList<Node>();
+    private int nodesGenerated;
+    private int heapPushes;
+    private int heapPops;
+    private int decreaseKeys;
+    private int reopenings;
+    private int peakOpenSize;
+    private int closedSetSize;
+    /**
+     * Bytes allocated by the solving thread, -1 if not supported by the JVM.
+     */
+    private long allocatedBytes = -1;
+    /**
+     * Proven bound on bestPathCost / optimal cost: 1 if the path is optimal, 
+     * more if an anytime search ran out of budget.
+     */
+    private double suboptimalityBound = 1.0;
+    /**
+     * The strategy that searched, and whether SearchStrategy.AUTO chose it.
+     */
+    private SearchStrategy strategy;
+    private boolean autoSelected;
+    /**
+     * The one-dimensional indices of the tiles in the best path, from start to end.
+     * Unlike the Nodes of the search, they can be kept and sent around cheaply.
+     */
+    private int[] solutionPath = new int[0];
+    /**
+     * Width of the searched world, to convert the indices back to (x,y).
+     */
+    private int worldWidth;
 
     public AlgorithmResults() {
         this(0, 0);
@@ -48,12 +76,35 @@ public class AlgorithmResults {
         this.nodesExpanded = nodesExpanded;
     }
 
-    public ArrayList<Node> getSolutionPath() {
+    /**
+     * @return the one-dimensional indices of the tiles in the best path, from start to end
+     */
+    public int[] getSolutionPath() {
         return solutionPath;
     }
 
-    public void setSolutionPath(ArrayList<Node> solutionPath) {
+    /**
+     * Copies the solution path into a buffer, like Collection.toArray(T[]).
+     * Only the first getPathLength() elements are part of the path.
+     * 
+     * @param buffer reusable buffer
+     * @return buffer if it is large enough, a new array otherwise
+     */
+    public int[] getSolutionPath(int[] buffer) {
+        if(buffer == null || buffer.length < solutionPath.length) {
+            buffer = new int[solutionPath.length];
+        }
+        System.arraycopy(solutionPath, 0, buffer, 0, solutionPath.length);
+        return buffer;
+    }
+
+    /**
+     * @param solutionPath the one-dimensional indices of the tiles, from start to end
+     * @param worldWidth width of the searched world
+     */
+    public void setSolutionPath(int[] solutionPath, int worldWidth) {
         this.solutionPath = solutionPath;
+        this.worldWidth = worldWidth;
     }
     
     /**
@@ -65,8 +116,8 @@ public class AlgorithmResults {
         System.out.println("\n------");
         System.out.println("SOLUTION PATH:");
         System.out.println("------\n");
-        for(Node node : solutionPath) {
-            System.out.println(node);
+        for(int index : solutionPath) {
+            System.out.println("(" + index % worldWidth + ", " + index / worldWidth + ")");
         }
         System.out.println("------\n");
     }
@@ -84,4 +135,166 @@ public class AlgorithmResults {
     public void setTime(long time) {
         this.time = time;
     }
+
+    /**
+     * @return the nodesGenerated
+     */
+    public int getNodesGenerated() {
+        return nodesGenerated;
+    }
+
+    /**
+     * @param nodesGenerated the nodesGenerated to set
+     */
+    public void setNodesGenerated(int nodesGenerated) {
+        this.nodesGenerated = nodesGenerated;
+    }
+
+    /**
+     * @return the heapPushes
+     */
+    public int getHeapPushes() {
+        return heapPushes;
+    }
+
+    /**
+     * @param heapPushes the heapPushes to set
+     */
+    public void setHeapPushes(int heapPushes) {
+        this.heapPushes = heapPushes;
+    }
+
+    /**
+     * @return the heapPops
+     */
+    public int getHeapPops() {
+        return heapPops;
+    }
+
+    /**
+     * @param heapPops the heapPops to set
+     */
+    public void setHeapPops(int heapPops) {
+        this.heapPops = heapPops;
+    }
+
+    /**
+     * @return the decreaseKeys
+     */
+    public int getDecreaseKeys() {
+        return decreaseKeys;
+    }
+
+    /**
+     * @param decreaseKeys the decreaseKeys to set
+     */
+    public void setDecreaseKeys(int decreaseKeys) {
+        this.decreaseKeys = decreaseKeys;
+    }
+
+    /**
+     * @return the reopenings
+     */
+    public int getReopenings() {
+        return reopenings;
+    }
+
+    /**
+     * @param reopenings the reopenings to set
+     */
+    public void setReopenings(int reopenings) {
+        this.reopenings = reopenings;
+    }
+
+    /**
+     * @return the peakOpenSize
+     */
+    public int getPeakOpenSize() {
+        return peakOpenSize;
+    }
+
+    /**
+     * @param peakOpenSize the peakOpenSize to set
+     */
+    public void setPeakOpenSize(int peakOpenSize) {
+        this.peakOpenSize = peakOpenSize;
+    }
+
+    /**
+     * @return the closedSetSize
+     */
+    public int getClosedSetSize() {
+        return closedSetSize;
+    }
+
+    /**
+     * @param closedSetSize the closedSetSize to set
+     */
+    public void setClosedSetSize(int closedSetSize) {
+        this.closedSetSize = closedSetSize;
+    }
+
+    /**
+     * @return the number of cells in the solution path
+     */
+    public int getPathLength() {
+        return solutionPath.length;
+    }
+
+    /**
+     * @return the bytes allocated by the solving thread, -1 if unknown
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @param allocatedBytes the allocatedBytes to set
+     */
+    public void setAllocatedBytes(long allocatedBytes) {
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * @return the proven bound on the cost of the path divided by the optimal cost,
+     * Double.POSITIVE_INFINITY if the budget ran out before any path was found
+     */
+    public double getSuboptimalityBound() {
+        return suboptimalityBound;
+    }
+
+    /**
+     * @param suboptimalityBound the suboptimalityBound to set
+     */
+    public void setSuboptimalityBound(double suboptimalityBound) {
+        this.suboptimalityBound = suboptimalityBound;
+    }
+
+    /**
+     * @return the strategy that searched, never AUTO
+     */
+    public SearchStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @param strategy the strategy to set
+     */
+    public void setStrategy(SearchStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * @return true if SearchStrategy.AUTO chose the strategy
+     */
+    public boolean isAutoSelected() {
+        return autoSelected;
+    }
+
+    /**
+     * @param autoSelected the autoSelected to set
+     */
+    public void setAutoSelected(boolean autoSelected) {
+        this.autoSelected = autoSelected;
+    }
 }
@@ -0,0 +1,214 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import java.io.IOException;
+import java.io.Writer;
+import searcher.strategy.SearchStrategy;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Writes one structured record per (world, strategy) pair, either as CSV or
+ * as JSON Lines. The status of a record is FOUND or FAILED (no path) for a 
+ * search, ERROR for a world or search that failed with an error; the values an
+ * ERROR record does not have are empty (CSV) or null (JSON). All write methods are synchronized so that the workers of a
+ * batch run can share one writer.
+ */
+public class BatchResultWriter {
+    
+    public enum Format {
+        CSV,
+        JSON
+    }
+    
+    private static final String[] COLUMNS = { "world", "width", "height", "strategy", 
+        "nodesExpanded", "pathCost", "timeNanos", "pathLength", "allocatedBytes", "nodesGenerated", 
+        "heapPushes", "heapPops", "decreaseKeys", "reopenings", "peakOpenSize", "closedSetSize", 
+        "selectedStrategy", "status", "error" };
+    /**
+     * Status of a world or search that failed with an error
+     */
+    public static final String ERROR = "ERROR";
+    
+    private final Writer writer;
+    private final Format format;
+    
+    public BatchResultWriter(Writer writer, Format format) {
+        this.writer = writer;
+        this.format = format;
+    }
+    
+    /**
+     * 
+     * Write the header. Only CSV has a header, for JSON Lines this does nothing.
+     * 
+     * @throws IOException 
+     */
+    public synchronized void writeHeader() throws IOException {
+        if(format == Format.CSV) {
+            StringBuilder line = new StringBuilder();
+            
+            for(int i = 0; i < COLUMNS.length; ++i) {
+                if(i > 0) {
+                    line.append(',');
+                }
+                line.append(COLUMNS[i]);
+            }
+            writer.write(line.append('\n').toString());
+        }
+    }
+    
+    /**
+     * 
+     * Write the record of one search.
+     * 
+     * @param world name of the searched world
+     * @param width width of the world
+     * @param height height of the world
+     * @param strategy the strategy requested, AUTO or the strategy used
+     * @param results the results of the search
+     * @throws IOException 
+     */
+    public synchronized void writeRecord(String world, int width, int height, SearchStrategy strategy, 
+            AlgorithmResults results) throws IOException {
+        
+        Object[] values = { world, width, height, strategy.name(), results.getNodesExpanded(), 
+            results.getBestPathCost(), results.getTime(), results.getPathLength(), results.getAllocatedBytes(), 
+            results.getNodesGenerated(), results.getHeapPushes(), results.getHeapPops(), results.getDecreaseKeys(), 
+            results.getReopenings(), results.getPeakOpenSize(), results.getClosedSetSize(), 
+            results.getStrategy() == null ? strategy.name() : results.getStrategy().name(), 
+            results.getBestPathCost() < 0 ? SearchStatus.FAILED.name() : SearchStatus.FOUND.name(), null };
+        writeValues(values);
+    }
+    
+    /**
+     * 
+     * Write the record of a search that could not be run or failed with an error.
+     * 
+     * @param world name of the world
+     * @param width width of the world, 0 if it could not be read
+     * @param height height of the world, 0 if it could not be read
+     * @param strategy the strategy requested
+     * @param error description of the error
+     * @throws IOException 
+     */
+    public synchronized void writeError(String world, int width, int height, SearchStrategy strategy, 
+            String error) throws IOException {
+        
+        Object[] values = new Object[COLUMNS.length];
+        values[0] = world;
+        values[1] = width;
+        values[2] = height;
+        values[3] = strategy.name();
+        values[COLUMNS.length - 2] = ERROR;
+        values[COLUMNS.length - 1] = error;
+        writeValues(values);
+    }
+    
+    /**
+     * 
+     * Write one line with the values of all columns.
+     * 
+     * @param values the values, null if there is none
+     * @throws IOException 
+     */
+    private void writeValues(Object[] values) throws IOException {
+        StringBuilder line = new StringBuilder();
+        
+        if(format == Format.CSV) {
+            
+            for(int i = 0; i < values.length; ++i) {
+                if(i > 0) {
+                    line.append(',');
+                }
+                appendValue(line, values[i]);
+            }
+            
+        } else {
+            
+            line.append('{');
+            for(int i = 0; i < values.length; ++i) {
+                if(i > 0) {
+                    line.append(',');
+                }
+                line.append('"').append(COLUMNS[i]).append("\":");
+                appendValue(line, values[i]);
+            }
+            line.append('}');
+            
+        }
+        writer.write(line.append('\n').toString());
+    }
+    
+    /**
+     * 
+     * Flush the underlying writer
+     * 
+     * @throws IOException 
+     */
+    public synchronized void flush() throws IOException {
+        writer.flush();
+    }
+    
+    /**
+     * 
+     * Append a value to the line, quoting and escaping it if it is a String.
+     * No value is empty in CSV and null in JSON.
+     * 
+     * @param line the line
+     * @param value the value
+     */
+    private void appendValue(StringBuilder line, Object value) {
+        if(value == null) {
+            if(format == Format.JSON) {
+                line.append("null");
+            }
+            return;
+        }
+        if(!(value instanceof String)) {
+            line.append(value);
+            return;
+        }
+        
+        String text = (String) value;
+        line.append('"');
+        for(int i = 0; i < text.length(); ++i) {
+            char c = text.charAt(i);
+            
+            if(c == '"') {
+                line.append(format == Format.CSV ? "\"\"" : "\\\"");
+            } else if(c == '\\' && format == Format.JSON) {
+                line.append("\\\\");
+            } else if(c < ' ' && format == Format.JSON) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+    
+}
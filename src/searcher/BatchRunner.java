@@ -0,0 +1,363 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import searcher.strategy.SearchStrategy;
+import searcher.trace.SearchTraceWriter;
+import tileworld.I_TileWorld;
+import tileworld.TileWorld;
+import utilities.metrics.MetricsRegistry;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Searches all worlds in a directory (or matching a glob such as input/maze*.png)
+ * in parallel, and streams one record per (world, strategy) to a BatchResultWriter.
+ */
+public class BatchRunner {
+    
+    /**
+     * The strategies searched when no -strategies are given. IDA* and SMA* 
+     * trade time for a smaller open list and can take very long on large worlds, and AUTO
+     * repeats one of the others, so they have to be asked for.
+     */
+    public static final List<SearchStrategy> DEFAULT_STRATEGIES = Collections.unmodifiableList(Arrays.asList(
+            SearchStrategy.A_STAR, SearchStrategy.DIJKSTRA, SearchStrategy.GREEDY, 
+            SearchStrategy.LAZY_THETA_STAR, SearchStrategy.ARA_STAR, SearchStrategy.FRINGE_SEARCH));
+    
+    private final List<File> files;
+    private final List<SearchStrategy> strategies;
+    private final int workers;
+    private final BatchResultWriter resultWriter;
+    private File traceDirectory;
+    
+    public BatchRunner(List<File> files, List<SearchStrategy> strategies, int workers, 
+            BatchResultWriter resultWriter) {
+        this.files = files;
+        this.strategies = strategies;
+        this.workers = workers;
+        this.resultWriter = resultWriter;
+    }
+    
+    /**
+     * 
+     * Entry point of the batch mode. Expected arguments:
+     * <directory|glob> [-workers N] [-format csv|json] [-out file] [-metrics file] [-worldMetrics N] [-trace directory] [-strategies A_STAR,DIJKSTRA,...]
+     * The metrics file receives the latency percentiles and throughput of the run,
+     * per strategy and, with -worldMetrics, also per world for the last N worlds.
+     * The trace directory receives a search trace per world and strategy.
+     * Without -strategies the DEFAULT_STRATEGIES are searched.
+     * 
+     * @param args The command line options/arguments (without "batch").
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("A directory or glob is expected");
+            printUsage();
+            return;
+        }
+        
+        int workers = Runtime.getRuntime().availableProcessors();
+        BatchResultWriter.Format format = BatchResultWriter.Format.CSV;
+        String out = null;
+        String metricsOut = null;
+        String traceOut = null;
+        List<SearchStrategy> strategies = DEFAULT_STRATEGIES;
+        
+        try {
+            for (int i = 1; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                } else if ("-workers".equals(args[i])) {
+                    workers = Integer.parseInt(args[i + 1]);
+                } else if ("-format".equals(args[i])) {
+                    format = BatchResultWriter.Format.valueOf(args[i + 1].toUpperCase());
+                } else if ("-out".equals(args[i])) {
+                    out = args[i + 1];
+                } else if ("-metrics".equals(args[i])) {
+                    metricsOut = args[i + 1];
+                } else if ("-worldMetrics".equals(args[i])) {
+                    MetricsRegistry.getDefault().setMaxWorlds(Integer.parseInt(args[i + 1]));
+                } else if ("-trace".equals(args[i])) {
+                    traceOut = args[i + 1];
+                } else if ("-strategies".equals(args[i])) {
+                    strategies = new ArrayList<SearchStrategy>();
+                    for (String name : args[i + 1].split(",")) {
+                        strategies.add(SearchStrategy.valueOf(name.trim().toUpperCase()));
+                    }
+                } else {
+                    throw new IllegalArgumentException("Illegal argument: " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException exc) {
+            System.out.println(exc.getMessage());
+            printUsage();
+            return;
+        }
+        
+        List<File> files = findFiles(args[0]);
+        if (files.isEmpty()) {
+            System.out.println("No worlds found for: " + args[0]);
+            return;
+        }
+        
+        try {
+            Writer writer = out == null 
+                    ? new OutputStreamWriter(System.out) 
+                    : new OutputStreamWriter(new FileOutputStream(out), "UTF-8");
+            BatchResultWriter resultWriter = new BatchResultWriter(new BufferedWriter(writer), format);
+            
+            BatchRunner runner = new BatchRunner(files, strategies, Math.max(1, workers), resultWriter);
+            if (traceOut != null) {
+                File traceDirectory = new File(traceOut);
+                if (!traceDirectory.isDirectory() && !traceDirectory.mkdirs()) {
+                    throw new IOException("Trace directory cannot be created: " + traceOut);
+                }
+                runner.setTraceDirectory(traceDirectory);
+            }
+            runner.run();
+            
+            if (out != null) {
+                writer.close();
+            }
+            if (metricsOut != null) {
+                PrintStream metrics = new PrintStream(new FileOutputStream(metricsOut), false, "UTF-8");
+                MetricsRegistry.getDefault().printReport(metrics);
+                metrics.close();
+            }
+        } catch (IOException ioexp) {
+            System.err.println("Batch results cannot be written: " + ioexp.getMessage());
+        } catch (InterruptedException intexc) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Prints on screen how to run the batch mode
+     */
+    private static void printUsage() {
+        System.out.println("Usage:");
+        System.out.println("  java -jar Search.jar batch <directory|glob> [-workers N] [-format csv|json]"
+                + " [-out file] [-metrics file] [-worldMetrics N] [-trace directory] [-strategies A_STAR,DIJKSTRA,GREEDY]");
+        System.out.println("  -strategies defaults to " + DEFAULT_STRATEGIES.toString().replaceAll("[\\[\\] ]", "")
+                + "; IDA_STAR, SMA_STAR and AUTO are only searched when listed");
+        System.out.println("Examples:");
+        System.out.println("  java -jar Search.jar batch input");
+        System.out.println("  java -jar Search.jar batch input/i*.png -workers 4 -format json -out results.jsonl");
+    }
+    
+    /**
+     * @param traceDirectory the directory that receives a search trace per world 
+     * and strategy, null for none
+     */
+    public void setTraceDirectory(File traceDirectory) {
+        this.traceDirectory = traceDirectory;
+    }
+    
+    /**
+     * 
+     * Search all files and wait until every record has been written.
+     * 
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public void run() throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        
+        resultWriter.writeHeader();
+        for (final File file : files) {
+            
+            executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    search(file);
+                }
+            });
+            
+        }
+        
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        resultWriter.flush();
+    }
+    
+    /**
+     * 
+     * Search one file with every strategy. The file is decoded once, each strategy
+     * searches its own copy because a search draws its path onto the world.
+     * The times of the searches that found a path are recorded in the default 
+     * StrategySelector for AUTO. A world that cannot be decoded, or a search 
+     * that fails with an error, is written as an ERROR record per strategy, so
+     * every (world, strategy) pair has a record.
+     * 
+     * @param file the file to be searched
+     */
+    private void search(File file) {
+        try {
+            I_TileWorld original;
+            WorldProfile profile;
+            try {
+                original = new TileWorld(file);
+                if (original.getSize() == 0) {
+                    throw new IllegalArgumentException("World cannot be decoded");
+                }
+                profile = WorldProfile.of(original);
+            } catch (RuntimeException exc) {
+                for (SearchStrategy strategy : strategies) {
+                    resultWriter.writeError(file.getPath(), 0, 0, strategy, exc.toString());
+                }
+                resultWriter.flush();
+                return;
+            }
+            
+            for (SearchStrategy strategy : strategies) {
+                AlgorithmResults results;
+                try {
+                    results = search(file, original, strategy);
+                } catch (IOException | RuntimeException exc) {
+                    resultWriter.writeError(file.getPath(), original.getWidth(), original.getHeight(), 
+                            strategy, exc.toString());
+                    continue;
+                }
+                
+                if (!results.isAutoSelected() && results.getBestPathCost() >= 0) {
+                    // later AUTO searches of similar worlds pick the fastest strategy so far;
+                    // a search that found no path (or gave up) says nothing about its speed
+                    StrategySelector.getDefault().record(profile, strategy, results.getTime());
+                }
+                resultWriter.writeRecord(file.getPath(), original.getWidth(), original.getHeight(), 
+                        strategy, results);
+            }
+            resultWriter.flush();
+        } catch (IOException ioexp) {
+            System.err.println("Results of '" + file + "' cannot be written: " + ioexp.getMessage());
+        }
+    }
+    
+    /**
+     * 
+     * Search a copy of a world with one strategy, with a trace if requested.
+     * 
+     * @param file the file of the world
+     * @param original the world
+     * @param strategy the strategy
+     * @return the results
+     * @throws IOException if the trace cannot be written
+     */
+    private AlgorithmResults search(File file, I_TileWorld original, SearchStrategy strategy) throws IOException {
+        Solver solver = new Solver(new TileWorld(original), strategy);
+        SearchTraceWriter trace = null;
+        if (traceDirectory != null) {
+            String name = file.getName().replaceFirst("\\.png$", "") + "_" + strategy;
+            trace = SearchTraceWriter.open(new File(traceDirectory, name + ".trace"), 
+                    original.getWidth(), original.getHeight(), file.getName() + " " + strategy);
+            solver.setSearchListener(trace);
+        }
+        
+        try {
+            return solver.solve();
+        } finally {
+            if (trace != null) {
+                trace.close();
+            }
+        }
+    }
+    
+    /**
+     * 
+     * Find the worlds to be searched. A directory yields all png files in it,
+     * otherwise the last part of the path is used as glob (* and ?).
+     * 
+     * @param directoryOrGlob directory or glob
+     * @return the files, sorted by name
+     */
+    public static List<File> findFiles(String directoryOrGlob) {
+        File directory = new File(directoryOrGlob);
+        String glob = "*.png";
+        
+        if (!directory.isDirectory()) {
+            glob = directory.getName();
+            directory = directory.getAbsoluteFile().getParentFile();
+        }
+        
+        final Pattern pattern = Pattern.compile(globToRegex(glob));
+        File[] found = directory == null ? null : directory.listFiles(new FilenameFilter() {
+
+            @Override
+            public boolean accept(File dir, String name) {
+                return pattern.matcher(name).matches();
+            }
+        });
+        
+        List<File> files = new ArrayList<File>();
+        if (found != null) {
+            Arrays.sort(found);
+            for (File file : found) {
+                if (file.isFile()) {
+                    files.add(file);
+                }
+            }
+        }
+        return files;
+    }
+    
+    /**
+     * 
+     * @param glob glob containing * and ? wildcards
+     * @return the equivalent regular expression
+     */
+    private static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        
+        for (String part : glob.split("(?=[*?])|(?<=[*?])")) {
+            if ("*".equals(part)) {
+                regex.append(".*");
+            } else if ("?".equals(part)) {
+                regex.append('.');
+            } else if (part.length() > 0) {
+                regex.append(Pattern.quote(part));
+            }
+        }
+        return regex.toString();
+    }
+    
+}
@@ -0,0 +1,436 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import tileworld.I_Cost;
+import tileworld.I_TileWorld;
+import tileworld.TileType;
+import utilities.kernels.GridKernels;
+import utilities.kernels.I_GridKernels;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Computes the cost of the cheapest path from one tile to every tile of a tile 
+ * world (a cost field), with the parallel delta-stepping algorithm.
+ * 
+ * Tiles are kept in buckets of costs [i * delta, (i + 1) * delta). The lowest 
+ * bucket is emptied by relaxing the light edges (cost at most delta) of all its 
+ * tiles in parallel, which may put tiles back into the same bucket, until it stays
+ * empty; then the heavy edges of the tiles that were in it are relaxed in parallel. 
+ * Costs are lowered with compare-and-set, so the result does not depend on the 
+ * order of the relaxations and is identical to that of Dijkstra.
+ * 
+ * The graph is that of the Solver: straight and diagonal neighbors that are not 
+ * NONWALKABLE, at the (diagonal) cost of the neighbor. It is read from arrays 
+ * instead of Nodes, so it also works for worlds too large for a Node graph.
+ */
+public final class DeltaStepping implements I_Cost {
+    
+    public static final int DEFAULT_DELTA = 2 * TileType.MOUNTAIN_DIAGONAL_COST;
+    /**
+     * Tiles relaxed by one task; fewer tiles are relaxed by the calling thread
+     */
+    private static final int GRAIN = 512;
+    private static final int NOT_QUEUED = -1;
+    private static final int NOT_WALKABLE = -1;
+    /**
+     * The straight neighbors first, like the Nodes
+     */
+    private static final int[] DIRECTION_X = { 0, 1, 0, -1, 1, 1, -1, -1 };
+    private static final int[] DIRECTION_Y = { -1, 0, 1, 0, -1, 1, 1, -1 };
+    private static final int STRAIGHT_DIRECTIONS = 4;
+    /**
+     * The cost of entering a tile by TileType ordinal
+     */
+    private static final int[] STRAIGHT_COSTS = new int[TileType.values().length];
+    private static final int[] DIAGONAL_COSTS = new int[TileType.values().length];
+    
+    static {
+        for(TileType type : TileType.values()) {
+            boolean walkable = type != TileType.NONWALKABLE;
+            STRAIGHT_COSTS[type.ordinal()] = walkable ? type.getCost() : NOT_WALKABLE;
+            DIAGONAL_COSTS[type.ordinal()] = walkable ? type.getDiagonalCost() : NOT_WALKABLE;
+        }
+    }
+    
+    private final int width;
+    private final int height;
+    private final int[] straightCost;
+    private final int[] diagonalCost;
+    private final ForkJoinPool pool;
+    private final int delta;
+    
+    public DeltaStepping(I_TileWorld tileWorld) {
+        this(tileWorld, ForkJoinPool.commonPool(), DEFAULT_DELTA);
+    }
+    
+    /**
+     * 
+     * @param tileWorld the tile world, which is copied, so later edits are not seen
+     * @param pool the pool that relaxes the edges
+     * @param delta the width of a bucket
+     */
+    public DeltaStepping(I_TileWorld tileWorld, ForkJoinPool pool, int delta) {
+        this.width = tileWorld.getWidth();
+        this.height = tileWorld.getHeight();
+        this.straightCost = new int[width * height];
+        this.diagonalCost = new int[width * height];
+        this.pool = pool;
+        this.delta = Math.max(1, delta);
+        
+        int[] tiles = new int[width * height];
+        for(int y = 0; y < height; ++y) {
+            
+            for(int x = 0; x < width; ++x) {
+                tiles[y * width + x] = tileWorld.getTileType(x, y).ordinal();
+            }
+        }
+        
+        I_GridKernels kernels = GridKernels.get();
+        kernels.costField(tiles, STRAIGHT_COSTS, straightCost);
+        kernels.costField(tiles, DIAGONAL_COSTS, diagonalCost);
+    }
+    
+    /**
+     * 
+     * Compute the cost field in parallel.
+     * 
+     * @param sourceIndex one-dimensional index of the source tile
+     * @return the cost from the source of every tile by one-dimensional index, 
+     * INFINITY if it can not be reached
+     */
+    public int[] solve(int sourceIndex) {
+        int size = width * height;
+        AtomicIntegerArray costs = new AtomicIntegerArray(size);
+        for(int index = 0; index < size; ++index) {
+            costs.lazySet(index, INFINITY);
+        }
+        costs.set(sourceIndex, 0);
+        
+        // the bucket a tile is queued in, so that it is queued once per bucket
+        int[] queued = new int[size];
+        int[] settled = new int[size];
+        Arrays.fill(queued, NOT_QUEUED);
+        Arrays.fill(settled, NOT_QUEUED);
+        List<IntList> buckets = new ArrayList<IntList>();
+        enqueue(sourceIndex, costs, queued, buckets);
+        
+        for(int bucket = 0; bucket < buckets.size(); ++bucket) {
+            
+            IntList removed = new IntList();
+            while(buckets.get(bucket).size() > 0) {
+                
+                IntList frontier = new IntList();
+                IntList entries = buckets.get(bucket);
+                buckets.set(bucket, new IntList());
+                
+                for(int i = 0; i < entries.size(); ++i) {
+                    int index = entries.get(i);
+                    if(queued[index] != bucket) {
+                        // moved to a lower bucket, or already taken
+                        continue;
+                    }
+                    queued[index] = NOT_QUEUED;
+                    frontier.add(index);
+                    if(settled[index] != bucket) {
+                        settled[index] = bucket;
+                        removed.add(index);
+                    }
+                }
+                
+                IntList improved = relax(frontier, true, costs);
+                for(int i = 0; i < improved.size(); ++i) {
+                    enqueue(improved.get(i), costs, queued, buckets);
+                }
+            }
+            
+            IntList improved = relax(removed, false, costs);
+            for(int i = 0; i < improved.size(); ++i) {
+                enqueue(improved.get(i), costs, queued, buckets);
+            }
+        }
+        
+        int[] result = new int[size];
+        for(int index = 0; index < size; ++index) {
+            result[index] = costs.get(index);
+        }
+        return result;
+    }
+    
+    /**
+     * 
+     * Compute the cost field with Dijkstra, on the calling thread.
+     * 
+     * @param sourceIndex one-dimensional index of the source tile
+     * @return the cost from the source of every tile by one-dimensional index, 
+     * INFINITY if it can not be reached
+     */
+    public int[] solveSequential(int sourceIndex) {
+        int[] costs = new int[width * height];
+        Arrays.fill(costs, INFINITY);
+        costs[sourceIndex] = 0;
+        
+        // binary heap of cost << 32 | index; outdated entries are skipped
+        long[] heap = new long[64];
+        int heapSize = 0;
+        heap[heapSize++] = sourceIndex;
+        
+        while(heapSize > 0) {
+            long top = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize);
+            
+            int index = (int) top;
+            int cost = (int) (top >>> 32);
+            if(cost > costs[index]) {
+                continue;
+            }
+            
+            int x = index % width;
+            int y = index / width;
+            for(int direction = 0; direction < DIRECTION_X.length; ++direction) {
+                int other = neighbor(x, y, direction);
+                if(other < 0) {
+                    continue;
+                }
+                
+                int potentialCost = cost + edgeCost(other, direction);
+                if(potentialCost < costs[other]) {
+                    costs[other] = potentialCost;
+                    if(heapSize == heap.length) {
+                        heap = Arrays.copyOf(heap, heapSize * 2);
+                    }
+                    heap[heapSize] = ((long) potentialCost << 32) | other;
+                    siftUp(heap, heapSize++);
+                }
+            }
+        }
+        return costs;
+    }
+    
+    /**
+     * 
+     * Relax the light or the heavy edges of tiles, in parallel if there are enough.
+     * 
+     * @param tiles one-dimensional indices of the tiles
+     * @param light true for the edges of at most delta, false for the others
+     * @param costs the costs, lowered by compare-and-set
+     * @return the tiles whose cost was lowered, possibly more than once
+     */
+    private IntList relax(IntList tiles, boolean light, AtomicIntegerArray costs) {
+        RelaxTask task = new RelaxTask(tiles, 0, tiles.size(), light, costs);
+        return tiles.size() <= GRAIN ? task.compute() : pool.invoke(task);
+    }
+    
+    /**
+     * 
+     * Put a tile in the bucket of its cost, unless it is already there.
+     * 
+     * @param index one-dimensional index of the tile
+     * @param costs the costs
+     * @param queued the bucket of every queued tile
+     * @param buckets the buckets
+     */
+    private void enqueue(int index, AtomicIntegerArray costs, int[] queued, List<IntList> buckets) {
+        int bucket = costs.get(index) / delta;
+        if(queued[index] == bucket) {
+            return;
+        }
+        queued[index] = bucket;
+        
+        while(buckets.size() <= bucket) {
+            buckets.add(new IntList());
+        }
+        buckets.get(bucket).add(index);
+    }
+    
+    /**
+     * 
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @param direction index in DIRECTION_X and DIRECTION_Y
+     * @return the one-dimensional index of the walkable neighbor, -1 if there is none
+     */
+    private int neighbor(int x, int y, int direction) {
+        int otherX = x + DIRECTION_X[direction];
+        int otherY = y + DIRECTION_Y[direction];
+        if(otherX < 0 || otherY < 0 || otherX >= width || otherY >= height) {
+            return -1;
+        }
+        
+        int other = otherY * width + otherX;
+        return straightCost[other] == NOT_WALKABLE ? -1 : other;
+    }
+    
+    /**
+     * 
+     * @param other one-dimensional index of the neighbor
+     * @param direction index in DIRECTION_X and DIRECTION_Y
+     * @return the cost of moving to the neighbor
+     */
+    private int edgeCost(int other, int direction) {
+        return direction < STRAIGHT_DIRECTIONS ? straightCost[other] : diagonalCost[other];
+    }
+    
+    private static void siftUp(long[] heap, int position) {
+        long entry = heap[position];
+        while(position > 0) {
+            int parent = (position - 1) >>> 1;
+            if(heap[parent] <= entry) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = entry;
+    }
+    
+    private static void siftDown(long[] heap, int size) {
+        if(size == 0) {
+            return;
+        }
+        long entry = heap[0];
+        int position = 0;
+        while(true) {
+            int child = 2 * position + 1;
+            if(child >= size) {
+                break;
+            }
+            if(child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if(heap[child] >= entry) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = entry;
+    }
+    
+    /**
+     * Relaxes the edges of a range of tiles, splitting it over the pool.
+     */
+    private final class RelaxTask extends RecursiveTask<IntList> {
+        
+        private final IntList tiles;
+        private final int from;
+        private final int to;
+        private final boolean light;
+        private final AtomicIntegerArray costs;
+        
+        RelaxTask(IntList tiles, int from, int to, boolean light, AtomicIntegerArray costs) {
+            this.tiles = tiles;
+            this.from = from;
+            this.to = to;
+            this.light = light;
+            this.costs = costs;
+        }
+
+        @Override
+        protected IntList compute() {
+            if(to - from > GRAIN) {
+                int middle = (from + to) >>> 1;
+                RelaxTask left = new RelaxTask(tiles, from, middle, light, costs);
+                left.fork();
+                IntList improved = new RelaxTask(tiles, middle, to, light, costs).compute();
+                improved.addAll(left.join());
+                return improved;
+            }
+            
+            IntList improved = new IntList();
+            for(int i = from; i < to; ++i) {
+                
+                int index = tiles.get(i);
+                int cost = costs.get(index);
+                int x = index % width;
+                int y = index / width;
+                
+                for(int direction = 0; direction < DIRECTION_X.length; ++direction) {
+                    int other = neighbor(x, y, direction);
+                    if(other < 0) {
+                        continue;
+                    }
+                    
+                    int edgeCost = edgeCost(other, direction);
+                    if((edgeCost <= delta) != light) {
+                        continue;
+                    }
+                    
+                    int potentialCost = cost + edgeCost;
+                    int current = costs.get(other);
+                    while(potentialCost < current) {
+                        if(costs.compareAndSet(other, current, potentialCost)) {
+                            improved.add(other);
+                            break;
+                        }
+                        current = costs.get(other);
+                    }
+                }
+            }
+            return improved;
+        }
+    }
+    
+    /**
+     * Growable list of ints.
+     */
+    private static final class IntList {
+        
+        private int[] values = new int[16];
+        private int size;
+        
+        void add(int value) {
+            if(size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        void addAll(IntList other) {
+            if(size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(size + other.size, values.length * 2));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+        
+        int get(int index) {
+            return values[index];
+        }
+        
+        int size() {
+            return size;
+        }
+    }
+    
+}
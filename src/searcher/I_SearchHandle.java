@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * A search that runs in slices instead of in one call, so that a scheduler can 
+ * interleave many searches on one thread, e.g. a few per frame of a game loop. 
+ * Each step() resumes the search where the previous one stopped and returns once 
+ * it is done, or once it spent its expansions or reached its deadline.
+ * 
+ * The state of the search is kept by its Strategy between the slices. A Strategy 
+ * runs one search at a time: stepping a search after another one was started on 
+ * the same Strategy throws an IllegalStateException. Strategies that cannot 
+ * run in slices, such as IDA*, are rejected by Solver.start().
+ */
+public interface I_SearchHandle {
+    
+    /**
+     * No deadline or no maximum number of expanded Nodes
+     */
+    long NO_DEADLINE = Long.MAX_VALUE;
+    int NO_LIMIT = Integer.MAX_VALUE;
+    
+    /**
+     * Run a slice of the search.
+     * 
+     * @param maxExpansions maximum number of Nodes to expand in this slice
+     * @return the status after the slice
+     */
+    SearchStatus step(int maxExpansions);
+    
+    /**
+     * Run a slice of the search.
+     * 
+     * @param deadlineNanos value of System.nanoTime() at which to stop
+     * @return the status after the slice
+     */
+    SearchStatus stepUntil(long deadlineNanos);
+    
+    /**
+     * Run a slice of the search, within both limits.
+     * 
+     * @param deadlineNanos value of System.nanoTime() at which to stop, NO_DEADLINE for none
+     * @param maxExpansions maximum number of Nodes to expand in this slice, NO_LIMIT for none
+     * @return the status after the slice
+     */
+    SearchStatus step(long deadlineNanos, int maxExpansions);
+    
+    /**
+     * @return the status after the last slice
+     */
+    SearchStatus getStatus();
+    
+    /**
+     * @return the results, the same as those of Strategy.solve() with the time 
+     * spent in the slices; null while the search is RUNNING
+     */
+    AlgorithmResults getResults();
+    
+    /**
+     * @return the number of Nodes expanded so far
+     */
+    int getNodesExpanded();
+    
+    /**
+     * @return the time spent in the slices so far in nanoseconds
+     */
+    long getTime();
+    
+}
@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Listener for the progress of a search, for live visualization and tracing.
+ * 
+ * The methods are called by the search thread in its inner loop, so they must 
+ * return quickly, e.g. by putting the event in a SearchEventBuffer that another 
+ * thread drains. When no listener is set, a Strategy only pays for a null check.
+ */
+public interface I_SearchListener {
+    
+    /**
+     * Called when a search starts, before any other event of the search.
+     * 
+     * @param startX x-coordinate of the start tile
+     * @param startY y-coordinate of the start tile
+     * @param endX x-coordinate of the end tile
+     * @param endY y-coordinate of the end tile
+     */
+    void searchStarted(int startX, int startY, int endX, int endY);
+    
+    /**
+     * Called when a tile is put on the open list, or its cost is lowered.
+     * 
+     * @param x x-coordinate of the tile
+     * @param y y-coordinate of the tile
+     * @param cost the cost from the start
+     */
+    void nodeOpened(int x, int y, int cost);
+    
+    /**
+     * Called when a tile is expanded.
+     * 
+     * @param x x-coordinate of the tile
+     * @param y y-coordinate of the tile
+     * @param cost the cost from the start
+     */
+    void nodeClosed(int x, int y, int cost);
+    
+    /**
+     * Called when a search has found its path, which is not called when no path 
+     * was found.
+     * 
+     * @param path one-dimensional indices of the tiles, from start to end, which 
+     * must not be changed
+     * @param width the width of the tile world, to convert the indices
+     * @param cost the cost of the path
+     */
+    void pathFound(int[] path, int width, int cost);
+    
+}
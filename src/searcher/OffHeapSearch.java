@@ -0,0 +1,325 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import searcher.strategy.Node;
+import tileworld.I_Cost;
+import tileworld.I_TileWorld;
+import tileworld.TileSnapshot;
+import tileworld.TileType;
+import utilities.OffHeapArena;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * A* that keeps its search state off the heap, for worlds too large for a Node 
+ * graph or even for arrays: the state of a tile is found by a long index, so 
+ * worlds may have more than 2^31 tiles, and the garbage collector never traces 
+ * it, so pauses do not grow with the size of the world.
+ * 
+ * The state of a tile is one long in an OffHeapArena: the cost from the start in 
+ * the low 32 bits, then the direction from its predecessor, a closed flag and the 
+ * generation of the query that wrote it. Each query starts a new generation, so 
+ * the arenas are reused across queries, and across snapshots, without clearing 
+ * them. The open list is a binary heap of (priority, index) pairs in a second arena.
+ * 
+ * The graph is that of the Solver, searched with the octile heuristic of the 
+ * Strategies, on a TileSnapshot, so the tile world may be edited meanwhile.
+ */
+public final class OffHeapSearch implements I_Cost {
+    
+    private static final int NOT_WALKABLE = -1;
+    /**
+     * The cost of entering a tile by TileType ordinal
+     */
+    private static final int[] STRAIGHT_COSTS = new int[TileType.values().length];
+    private static final int[] DIAGONAL_COSTS = new int[TileType.values().length];
+    
+    static {
+        for(TileType type : TileType.values()) {
+            boolean walkable = type != TileType.NONWALKABLE && type.getCost() < INFINITY;
+            STRAIGHT_COSTS[type.ordinal()] = walkable ? type.getCost() : NOT_WALKABLE;
+            DIAGONAL_COSTS[type.ordinal()] = walkable ? type.getDiagonalCost() : NOT_WALKABLE;
+        }
+    }
+    
+    private static final long COST_MASK = 0xFFFFFFFFL;
+    private static final int DIRECTION_SHIFT = 32;
+    private static final long DIRECTION_MASK = 0x7L;
+    private static final long CLOSED = 1L << 35;
+    private static final int GENERATION_SHIFT = 40;
+    private static final int MAX_GENERATION = (1 << (Long.SIZE - GENERATION_SHIFT)) - 1;
+    /**
+     * Bytes of a heap entry: the priority, then the index
+     */
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+    
+    private final OffHeapArena tiles;
+    private final OffHeapArena open;
+    private TileSnapshot snapshot;
+    private int width;
+    private int height;
+    private int generation;
+    private long openSize;
+    
+    private long startIndex = -1;
+    private long endIndex = -1;
+    private boolean found;
+    private long nodesExpanded;
+    private long peakOpenSize;
+    
+    public OffHeapSearch(I_TileWorld tileWorld) {
+        this(tileWorld.getSnapshot(), new OffHeapArena(), new OffHeapArena());
+    }
+    
+    /**
+     * 
+     * @param snapshot the tiles to search
+     * @param tiles the arena for the state of the tiles, which is owned by this search
+     * @param open the arena for the open list, which is owned by this search
+     */
+    public OffHeapSearch(TileSnapshot snapshot, OffHeapArena tiles, OffHeapArena open) {
+        this.tiles = tiles;
+        this.open = open;
+        tiles.clear();
+        setSnapshot(snapshot);
+    }
+    
+    /**
+     * Searches another version of the tile world with the same arenas.
+     * 
+     * @param snapshot the tiles to search
+     */
+    public void setSnapshot(TileSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.width = snapshot.getWidth();
+        this.height = snapshot.getHeight();
+        this.found = false;
+        tiles.ensureCapacity((long) width * height * Long.BYTES);
+    }
+    
+    /**
+     * 
+     * Find the cheapest path between two tiles.
+     * 
+     * @param startX x-coordinate of the start tile
+     * @param startY y-coordinate of the start tile
+     * @param endX x-coordinate of the end tile
+     * @param endY y-coordinate of the end tile
+     * @return the cost of the path, INFINITY if there is none
+     */
+    public int solve(int startX, int startY, int endX, int endY) {
+        startGeneration();
+        startIndex = getIndex(startX, startY);
+        endIndex = getIndex(endX, endY);
+        found = false;
+        nodesExpanded = 0;
+        peakOpenSize = 0;
+        openSize = 0;
+        
+        long stamp = (long) generation << GENERATION_SHIFT;
+        tiles.putLong(startIndex * Long.BYTES, stamp);
+        push(getPriority(0, startX, startY, endX, endY), startIndex);
+        
+        while(openSize > 0) {
+            long priority = open.getLong(0);
+            long index = open.getLong(Long.BYTES);
+            pop();
+            
+            long state = tiles.getLong(index * Long.BYTES);
+            int cost = (int) (state & COST_MASK);
+            if((state & CLOSED) != 0 || cost != getCost(priority)) {
+                continue; // outdated entry
+            }
+            tiles.putLong(index * Long.BYTES, state | CLOSED);
+            ++nodesExpanded;
+            
+            if(index == endIndex) {
+                found = true;
+                return cost;
+            }
+            
+            int x = (int) (index % width);
+            int y = (int) (index / width);
+            for(int direction = 0; direction < Node.DIRECTIONS; ++direction) {
+                
+                int otherX = x + Node.getDirectionX(direction);
+                int otherY = y + Node.getDirectionY(direction);
+                if(otherX < 0 || otherX >= width || otherY < 0 || otherY >= height) {
+                    continue;
+                }
+                
+                int ordinal = snapshot.getTileType(otherX, otherY).ordinal();
+                int step = (1 << direction & Node.STRAIGHT_MASK) != 0 ? STRAIGHT_COSTS[ordinal] : DIAGONAL_COSTS[ordinal];
+                if(step == NOT_WALKABLE) {
+                    continue;
+                }
+                
+                int otherCost = cost + step;
+                long other = getIndex(otherX, otherY);
+                long otherState = tiles.getLong(other * Long.BYTES);
+                if((int) (otherState >>> GENERATION_SHIFT) == generation 
+                        && ((otherState & CLOSED) != 0 || (int) (otherState & COST_MASK) <= otherCost)) {
+                    continue;
+                }
+                
+                tiles.putLong(other * Long.BYTES, stamp | (long) direction << DIRECTION_SHIFT | otherCost);
+                push(getPriority(otherCost, otherX, otherY, endX, endY), other);
+            }
+        }
+        return INFINITY;
+    }
+    
+    /**
+     * 
+     * @return the path of the last solve() as one-dimensional (long) indices from 
+     * start to end, or an empty array if no path was found
+     */
+    public long[] getPath() {
+        if(!found) {
+            return new long[0];
+        }
+        
+        int pathLength = 1;
+        for(long index = endIndex; index != startIndex; index = getPredecessor(index)) {
+            pathLength++;
+        }
+        
+        long[] path = new long[pathLength];
+        long index = endIndex;
+        for(int position = pathLength - 1; position >= 0; --position) {
+            path[position] = index;
+            index = position > 0 ? getPredecessor(index) : index;
+        }
+        return path;
+    }
+    
+    /**
+     * @return the number of tiles expanded by the last solve()
+     */
+    public long getNodesExpanded() {
+        return nodesExpanded;
+    }
+    
+    /**
+     * @return the largest size of the open list during the last solve()
+     */
+    public long getPeakOpenSize() {
+        return peakOpenSize;
+    }
+    
+    /**
+     * 
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return the one-dimensional index of the tile, as a long
+     */
+    public long getIndex(int x, int y) {
+        return (long) y * width + x;
+    }
+    
+    /**
+     * Starts a new generation, clearing the tiles when the generations have 
+     * wrapped around.
+     */
+    private void startGeneration() {
+        if(generation == MAX_GENERATION) {
+            tiles.clear();
+            generation = 0;
+        }
+        generation++;
+    }
+    
+    private long getPredecessor(long index) {
+        int direction = (int) ((tiles.getLong(index * Long.BYTES) >>> DIRECTION_SHIFT) & DIRECTION_MASK);
+        int x = (int) (index % width) - Node.getDirectionX(direction);
+        int y = (int) (index / width) - Node.getDirectionY(direction);
+        return getIndex(x, y);
+    }
+    
+    /**
+     * 
+     * @return the priority in the open list: f in the high bits, ties broken in 
+     * favor of the highest cost from the start, which is in the low bits
+     */
+    private static long getPriority(int cost, int x, int y, int endX, int endY) {
+        int distanceX = Math.abs(endX - x);
+        int distanceY = Math.abs(endY - y);
+        int heuristic = ROAD_COST * Math.max(distanceX, distanceY) 
+                + (ROAD_DIAGONAL_COST - ROAD_COST) * Math.min(distanceX, distanceY);
+        return (long) (cost + heuristic) << Integer.SIZE | (~cost & COST_MASK);
+    }
+    
+    private static int getCost(long priority) {
+        return ~(int) priority;
+    }
+    
+    private void push(long priority, long index) {
+        open.ensureCapacity((openSize + 1) * ENTRY_BYTES);
+        
+        long child = openSize++;
+        while(child > 0) {
+            long parent = (child - 1) >>> 1;
+            long parentPriority = open.getLong(parent * ENTRY_BYTES);
+            if(parentPriority <= priority) {
+                break;
+            }
+            open.putLong(child * ENTRY_BYTES, parentPriority);
+            open.putLong(child * ENTRY_BYTES + Long.BYTES, open.getLong(parent * ENTRY_BYTES + Long.BYTES));
+            child = parent;
+        }
+        open.putLong(child * ENTRY_BYTES, priority);
+        open.putLong(child * ENTRY_BYTES + Long.BYTES, index);
+        peakOpenSize = Math.max(peakOpenSize, openSize);
+    }
+    
+    private void pop() {
+        --openSize;
+        long lastPriority = open.getLong(openSize * ENTRY_BYTES);
+        long lastIndex = open.getLong(openSize * ENTRY_BYTES + Long.BYTES);
+        
+        long parent = 0;
+        long child;
+        while((child = 2 * parent + 1) < openSize) {
+            long childPriority = open.getLong(child * ENTRY_BYTES);
+            if(child + 1 < openSize) {
+                long rightPriority = open.getLong((child + 1) * ENTRY_BYTES);
+                if(rightPriority < childPriority) {
+                    child++;
+                    childPriority = rightPriority;
+                }
+            }
+            if(lastPriority <= childPriority) {
+                break;
+            }
+            open.putLong(parent * ENTRY_BYTES, childPriority);
+            open.putLong(parent * ENTRY_BYTES + Long.BYTES, open.getLong(child * ENTRY_BYTES + Long.BYTES));
+            parent = child;
+        }
+        open.putLong(parent * ENTRY_BYTES, lastPriority);
+        open.putLong(parent * ENTRY_BYTES + Long.BYTES, lastIndex);
+    }
+    
+}
@@ -0,0 +1,430 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import searcher.strategy.SearchStrategy;
+import tileworld.GridLine;
+import tileworld.I_TileListener;
+import tileworld.I_TileWorld;
+import tileworld.TileType;
+import tileworld.TileWorld;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Thread-safe LRU cache of search results, keyed by tile world (identity and 
+ * version), strategy and the START and END tiles.
+ * 
+ * A miss searches a copy of the tile world, so the world itself is not drawn on 
+ * and can be queried again. The cache listens to edits of the tile worlds it 
+ * holds results for: an edit of a tile on a cached path removes that result, and
+ * any edit removes the cached "no path" results of that world. A path of an 
+ * any-angle search is indexed by every tile its segments cross, not only by its
+ * waypoints. Edits elsewhere that would allow a cheaper path are only picked up 
+ * after the world's version is incremented (or flush() is called); the results 
+ * of older versions are then removed.
+ * 
+ * The cache is bounded both by number of results and by an estimate of their size.
+ * Results are shared between callers and must not be modified.
+ */
+public class PathCache implements I_TileListener {
+    
+    /**
+     * Estimated size of a cached result without its path, in bytes
+     */
+    private static final long ENTRY_OVERHEAD = 256;
+    
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<Key, AlgorithmResults> entries = new LinkedHashMap<Key, AlgorithmResults>(16, 0.75f, true);
+    private final Map<I_TileWorld, WorldIndex> worlds = new IdentityHashMap<I_TileWorld, WorldIndex>();
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    
+    /**
+     * 
+     * @param maxEntries maximum number of cached results
+     * @param maxBytes maximum estimated size of the cached results
+     */
+    public PathCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+    
+    /**
+     * 
+     * Return the cached result of the search, or search and cache the result.
+     * 
+     * @param tileWorld the tile world
+     * @param strategy the strategy
+     * @return the result, possibly shared with other callers
+     */
+    public AlgorithmResults solve(I_TileWorld tileWorld, SearchStrategy strategy) {
+        Key key = new Key(tileWorld, tileWorld.getVersion(), strategy, 
+                tileWorld.findStartIndex(), tileWorld.findEndIndex());
+        
+        synchronized(this) {
+            AlgorithmResults cached = entries.get(key);
+            if(cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        
+        AlgorithmResults results = new Solver(new TileWorld(tileWorld), strategy).solve();
+        put(key, results);
+        return results;
+    }
+    
+    /**
+     * 
+     * Remove all results of a tile world.
+     * 
+     * @param tileWorld the tile world
+     */
+    public synchronized void flush(I_TileWorld tileWorld) {
+        WorldIndex index = worlds.get(tileWorld);
+        if(index == null) {
+            return;
+        }
+        
+        for(Iterator<Map.Entry<Key, AlgorithmResults>> it = entries.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Key, AlgorithmResults> entry = it.next();
+            if(entry.getKey().tileWorld == tileWorld) {
+                bytes -= sizeOf(entry.getValue());
+                invalidations++;
+                it.remove();
+            }
+        }
+        unregister(tileWorld);
+    }
+    
+    /**
+     * 
+     * Remove all results.
+     * 
+     */
+    public synchronized void clear() {
+        for(I_TileWorld tileWorld : worlds.keySet()) {
+            tileWorld.removeTileListener(this);
+        }
+        worlds.clear();
+        entries.clear();
+        bytes = 0;
+    }
+    
+    @Override
+    public synchronized void tileChanged(I_TileWorld tileWorld, int x, int y, TileType oldType, TileType newType) {
+        WorldIndex index = worlds.get(tileWorld);
+        if(index == null) {
+            return;
+        }
+        
+        Set<Key> outdated = new HashSet<Key>(index.withoutPath);
+        Set<Key> onPath = index.byTile.get(tileWorld.twoDimIndexToOneDimIndex(x, y));
+        if(onPath != null) {
+            outdated.addAll(onPath);
+        }
+        
+        for(Key key : outdated) {
+            remove(key);
+            invalidations++;
+        }
+    }
+    
+    /**
+     * 
+     * Cache a result and evict the least recently used results if needed.
+     * 
+     * @param key the key
+     * @param results the result
+     */
+    private synchronized void put(Key key, AlgorithmResults results) {
+        if(entries.containsKey(key) || key.version != key.tileWorld.getVersion()) {
+            return;
+        }
+        
+        WorldIndex index = worlds.get(key.tileWorld);
+        if(index != null && index.version != key.version) {
+            // the results of older versions can never be found again
+            flush(key.tileWorld);
+            index = null;
+        }
+        
+        entries.put(key, results);
+        bytes += sizeOf(results);
+        
+        if(index == null) {
+            index = new WorldIndex(key.version, key.tileWorld.getWidth());
+            worlds.put(key.tileWorld, index);
+            key.tileWorld.addTileListener(this);
+        }
+        index.add(key, results);
+        
+        Iterator<Key> eldest = entries.keySet().iterator();
+        while((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            Key evicted = eldest.next();
+            if(evicted.equals(key)) {
+                break;
+            }
+            eldest.remove();
+            unindex(evicted);
+            evictions++;
+        }
+    }
+    
+    /**
+     * 
+     * Remove a result from the cache and from the index.
+     * 
+     * @param key the key
+     */
+    private void remove(Key key) {
+        if(entries.remove(key) != null) {
+            unindex(key);
+        }
+    }
+    
+    /**
+     * 
+     * Remove a result, that is no longer in the entries, from the index.
+     * 
+     * @param key the key
+     */
+    private void unindex(Key key) {
+        WorldIndex index = worlds.get(key.tileWorld);
+        AlgorithmResults results = index.remove(key);
+        bytes -= sizeOf(results);
+        
+        if(index.isEmpty()) {
+            unregister(key.tileWorld);
+        }
+    }
+    
+    /**
+     * 
+     * Stop listening to a tile world.
+     * 
+     * @param tileWorld the tile world
+     */
+    private void unregister(I_TileWorld tileWorld) {
+        worlds.remove(tileWorld);
+        tileWorld.removeTileListener(this);
+    }
+    
+    /**
+     * 
+     * @param results the result
+     * @return the estimated size of the result in bytes
+     */
+    private static long sizeOf(AlgorithmResults results) {
+        return ENTRY_OVERHEAD + 4L * results.getPathLength();
+    }
+    
+    /**
+     * @return the number of cached results
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    /**
+     * @return the estimated size of the cached results in bytes
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+    
+    /**
+     * @return the number of results found in the cache
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    /**
+     * @return the number of results not found in the cache
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    /**
+     * @return the number of results removed to stay within the bounds
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    /**
+     * @return the number of results removed because their tile world was edited or flushed
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return "PathCache { entries = " + entries.size() + ", bytes = " + bytes + ", hits = " + hits 
+                + ", misses = " + misses + ", evictions = " + evictions + ", invalidations = " + invalidations + " }";
+    }
+    
+    /**
+     * Identifies a search: the tile world by identity and version, the strategy and both end points.
+     */
+    private static final class Key {
+        
+        private final I_TileWorld tileWorld;
+        private final long version;
+        private final SearchStrategy strategy;
+        private final int startIndex;
+        private final int endIndex;
+        
+        Key(I_TileWorld tileWorld, long version, SearchStrategy strategy, int startIndex, int endIndex) {
+            this.tileWorld = tileWorld;
+            this.version = version;
+            this.strategy = strategy;
+            this.startIndex = startIndex;
+            this.endIndex = endIndex;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if(!(object instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) object;
+            return tileWorld == other.tileWorld && version == other.version && strategy == other.strategy
+                    && startIndex == other.startIndex && endIndex == other.endIndex;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(tileWorld);
+            hash = 31 * hash + (int) (version ^ (version >>> 32));
+            hash = 31 * hash + strategy.hashCode();
+            hash = 31 * hash + startIndex;
+            return 31 * hash + endIndex;
+        }
+    }
+    
+    /**
+     * The cached results of one version of a tile world, by tile on their path.
+     */
+    private static final class WorldIndex {
+        
+        private final long version;
+        private final int width;
+        private final Map<Integer, Set<Key>> byTile = new HashMap<Integer, Set<Key>>();
+        private final Set<Key> withoutPath = new HashSet<Key>();
+        private final Map<Key, AlgorithmResults> results = new HashMap<Key, AlgorithmResults>();
+        private final Map<Key, int[]> tiles = new HashMap<Key, int[]>();
+        
+        WorldIndex(long version, int width) {
+            this.version = version;
+            this.width = width;
+        }
+        
+        void add(Key key, AlgorithmResults result) {
+            results.put(key, result);
+            if(result.getPathLength() == 0) {
+                withoutPath.add(key);
+            }
+            
+            int[] crossed = crossedTiles(result.getSolutionPath());
+            tiles.put(key, crossed);
+            for(int tile : crossed) {
+                Set<Key> keys = byTile.get(tile);
+                if(keys == null) {
+                    keys = new HashSet<Key>();
+                    byTile.put(tile, keys);
+                }
+                keys.add(key);
+            }
+        }
+        
+        AlgorithmResults remove(Key key) {
+            AlgorithmResults result = results.remove(key);
+            withoutPath.remove(key);
+            
+            for(int tile : tiles.remove(key)) {
+                Set<Key> keys = byTile.get(tile);
+                keys.remove(key);
+                if(keys.isEmpty()) {
+                    byTile.remove(tile);
+                }
+            }
+            return result;
+        }
+        
+        boolean isEmpty() {
+            return results.isEmpty();
+        }
+        
+        /**
+         * 
+         * Walk the segments between the tiles of a path, like LazyThetaStar draws
+         * them. Consecutive tiles of a grid path are neighbors, so their segments
+         * only cross the tiles themselves.
+         * 
+         * @param path the tiles of the path
+         * @return every tile the path crosses, in order
+         */
+        private int[] crossedTiles(int[] path) {
+            if(path.length == 0) {
+                return path;
+            }
+            
+            int[] crossed = new int[path.length];
+            int count = 0;
+            crossed[count++] = path[0];
+            for(int i = 1; i < path.length; ++i) {
+                GridLine line = new GridLine(path[i - 1] % width, path[i - 1] / width, 
+                        path[i] % width, path[i] / width);
+                
+                while(line.next()) {
+                    if(count == crossed.length) {
+                        crossed = Arrays.copyOf(crossed, 2 * count);
+                    }
+                    crossed[count++] = line.getY() * width + line.getX();
+                }
+            }
+            return Arrays.copyOf(crossed, count);
+        }
+    }
+    
+}
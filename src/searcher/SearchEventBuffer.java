@@ -0,0 +1,202 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * A listener that puts the events of a search in a ring buffer, so that another 
+ * thread, e.g. a SearchViewer, replays them later to its own listener with drain().
+ * 
+ * The buffer never blocks the search: an event that does not fit is dropped and 
+ * counted. The path is kept apart, so it is never dropped. An event takes two 
+ * longs: its type with the cost (or the end tile of a start event) and its tile.
+ * 
+ * One search thread at a time may put events in the buffer, and one thread may 
+ * drain it.
+ */
+public final class SearchEventBuffer implements I_SearchListener {
+    
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final int TYPE_SHIFT = 62;
+    private static final long STARTED = 0L;
+    private static final long OPENED = 1L;
+    private static final long CLOSED = 2L;
+    private static final long PAYLOAD_MASK = (1L << TYPE_SHIFT) - 1;
+    private static final int COORDINATE_SHIFT = 31;
+    private static final long COORDINATE_MASK = (1L << COORDINATE_SHIFT) - 1;
+    
+    private final long[] events;
+    private final int mask;
+    /**
+     * The next event to drain, written by the draining thread
+     */
+    private final AtomicLong head = new AtomicLong();
+    /**
+     * The next event to put, written by the search thread
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * The head as last seen by the search thread
+     */
+    private long cachedHead;
+    private volatile long dropped;
+    private final AtomicReference<Path> path = new AtomicReference<Path>();
+    
+    public SearchEventBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * 
+     * @param capacity the number of events, rounded up to a power of two
+     */
+    public SearchEventBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.events = new long[2 * size];
+        this.mask = size - 1;
+    }
+    
+    @Override
+    public void searchStarted(int startX, int startY, int endX, int endY) {
+        path.set(null);
+        put(STARTED << TYPE_SHIFT | pack(endX, endY), pack(startX, startY));
+    }
+
+    @Override
+    public void nodeOpened(int x, int y, int cost) {
+        put(OPENED << TYPE_SHIFT | cost, pack(x, y));
+    }
+
+    @Override
+    public void nodeClosed(int x, int y, int cost) {
+        put(CLOSED << TYPE_SHIFT | cost, pack(x, y));
+    }
+
+    @Override
+    public void pathFound(int[] path, int width, int cost) {
+        this.path.set(new Path(path, width, cost));
+    }
+    
+    /**
+     * 
+     * Replay the buffered events to a listener, oldest first, and then the path 
+     * once all events before it are replayed.
+     * 
+     * @param listener the listener
+     * @param maxEvents the largest number of events to replay
+     * @return the number of events replayed
+     */
+    public int drain(I_SearchListener listener, int maxEvents) {
+        // taken before the events, so that all events before the path are visible
+        Path found = path.getAndSet(null);
+        long first = head.get();
+        long last = tail.get();
+        long end = Math.min(last, first + maxEvents);
+        
+        for(long event = first; event < end; ++event) {
+            int slot = 2 * (int) (event & mask);
+            long typeAndPayload = events[slot];
+            long tile = events[slot + 1];
+            int x = (int) (tile & COORDINATE_MASK);
+            int y = (int) (tile >>> COORDINATE_SHIFT);
+            
+            long type = typeAndPayload >>> TYPE_SHIFT;
+            if(type == STARTED) {
+                listener.searchStarted(x, y, (int) (typeAndPayload & COORDINATE_MASK), 
+                        (int) ((typeAndPayload & PAYLOAD_MASK) >>> COORDINATE_SHIFT));
+            } else if(type == OPENED) {
+                listener.nodeOpened(x, y, (int) (typeAndPayload & PAYLOAD_MASK));
+            } else {
+                listener.nodeClosed(x, y, (int) (typeAndPayload & PAYLOAD_MASK));
+            }
+        }
+        head.lazySet(end);
+        
+        if(found != null) {
+            if(end == last) {
+                listener.pathFound(found.path, found.width, found.cost);
+            } else {
+                path.compareAndSet(null, found);
+            }
+        }
+        return (int) (end - first);
+    }
+    
+    /**
+     * @return the number of events that did not fit in the buffer
+     */
+    public long getDropped() {
+        return dropped;
+    }
+    
+    /**
+     * @return the number of events that fit in the buffer
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+    
+    private void put(long typeAndPayload, long tile) {
+        long event = tail.get();
+        if(event - cachedHead > mask) {
+            cachedHead = head.get();
+            if(event - cachedHead > mask) {
+                dropped++;
+                return;
+            }
+        }
+        
+        int slot = 2 * (int) (event & mask);
+        events[slot] = typeAndPayload;
+        events[slot + 1] = tile;
+        tail.lazySet(event + 1);
+    }
+    
+    private static long pack(int x, int y) {
+        return (long) y << COORDINATE_SHIFT | x;
+    }
+    
+    /**
+     * A path found by a search
+     */
+    private static final class Path {
+        
+        private final int[] path;
+        private final int width;
+        private final int cost;
+        
+        Path(int[] path, int width, int cost) {
+            this.path = path;
+            this.width = width;
+            this.cost = cost;
+        }
+        
+    }
+    
+}
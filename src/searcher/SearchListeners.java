@@ -0,0 +1,69 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Passes the events of a search on to several listeners, in order, e.g. to a 
+ * SearchEventBuffer for a viewer and to a trace writer at the same time.
+ */
+public final class SearchListeners implements I_SearchListener {
+    
+    private final I_SearchListener[] listeners;
+    
+    public SearchListeners(I_SearchListener... listeners) {
+        this.listeners = listeners.clone();
+    }
+
+    @Override
+    public void searchStarted(int startX, int startY, int endX, int endY) {
+        for(I_SearchListener listener : listeners) {
+            listener.searchStarted(startX, startY, endX, endY);
+        }
+    }
+
+    @Override
+    public void nodeOpened(int x, int y, int cost) {
+        for(I_SearchListener listener : listeners) {
+            listener.nodeOpened(x, y, cost);
+        }
+    }
+
+    @Override
+    public void nodeClosed(int x, int y, int cost) {
+        for(I_SearchListener listener : listeners) {
+            listener.nodeClosed(x, y, cost);
+        }
+    }
+
+    @Override
+    public void pathFound(int[] path, int width, int cost) {
+        for(I_SearchListener listener : listeners) {
+            listener.pathFound(path, width, cost);
+        }
+    }
+    
+}
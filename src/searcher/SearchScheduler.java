@@ -0,0 +1,130 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Interleaves many searches on one thread within a time budget per tick, e.g. a 
+ * frame of a game loop. The searches take slices of at most a quantum of 
+ * expansions in turn (round robin), and the next tick goes on with the search 
+ * after the last one that had a slice, so every search gets its share however 
+ * many there are and however small the budget is.
+ * 
+ * A tick overruns its deadline by at most one expansion, as each slice stops 
+ * at the deadline too.
+ * 
+ * A search keeps its state in the Nodes of its Solver and in its Strategy, 
+ * which runs one search at a time; starting another search of the same 
+ * Solver ends the one before. Searches that run at the same time therefore 
+ * need a Solver each, and every Solver builds a Node for every tile of its 
+ * world, so the memory grows with the number of searches times the size of 
+ * the world.
+ */
+public final class SearchScheduler {
+    
+    public static final int DEFAULT_QUANTUM = 256;
+    
+    private final int quantum;
+    private final ArrayDeque<I_SearchHandle> running = new ArrayDeque<I_SearchHandle>();
+    private long slices;
+    
+    public SearchScheduler() {
+        this(DEFAULT_QUANTUM);
+    }
+    
+    /**
+     * 
+     * @param quantum the most Nodes a search expands per slice
+     */
+    public SearchScheduler(int quantum) {
+        if(quantum < 1) {
+            throw new IllegalArgumentException("Quantum must be positive: " + quantum);
+        }
+        this.quantum = quantum;
+    }
+    
+    /**
+     * 
+     * @param search a search to run in the following ticks, at the back of the line
+     */
+    public void submit(I_SearchHandle search) {
+        running.addLast(search);
+    }
+    
+    /**
+     * 
+     * Run slices of the searches until the budget is spent or all are done.
+     * 
+     * @param budget the time for searching in nanoseconds
+     * @param done the searches that are done in this tick are added to it, may be null
+     * @return the number of searches that are done in this tick
+     */
+    public int tick(long budget, Collection<? super I_SearchHandle> done) {
+        long deadline = System.nanoTime() + budget;
+        int doneCount = 0;
+        
+        while(!running.isEmpty()) {
+            I_SearchHandle search = running.pollFirst();
+            SearchStatus status = search.step(deadline, quantum);
+            slices++;
+            
+            if(status == SearchStatus.RUNNING) {
+                running.addLast(search);
+            } else {
+                doneCount++;
+                if(done != null) {
+                    done.add(search);
+                }
+            }
+            if(System.nanoTime() - deadline >= 0) {
+                break;
+            }
+        }
+        return doneCount;
+    }
+    
+    /**
+     * @return the number of searches that are not done
+     */
+    public int getRunningCount() {
+        return running.size();
+    }
+    
+    /**
+     * @return the number of slices run so far
+     */
+    public long getSlices() {
+        return slices;
+    }
+    
+    public int getQuantum() {
+        return quantum;
+    }
+    
+}
@@ -0,0 +1,201 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import java.awt.Graphics;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.WindowConstants;
+import tileworld.I_TileWorld;
+import tileworld.TileWorldPanel;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Shows the searches of a Solver while they run: the open and the closed tiles 
+ * and the path found are drawn over the tile world.
+ * 
+ * The search thread only puts events in a SearchEventBuffer; a Swing timer drains 
+ * them once per frame into an overlay with one pixel per tile, so a frame costs 
+ * the events since the last frame plus a repaint, and the search never waits for 
+ * the screen. Events that do not fit in the buffer between two frames are not shown.
+ */
+public class SearchViewer extends TileWorldPanel {
+    
+    private static final int FRAME_MILLIS = 16;
+    private static final int OPEN_COLOR = 0x90FFA500;
+    private static final int CLOSED_COLOR = 0x906A5ACD;
+    private static final int PATH_COLOR = 0xFFFF00FF;
+    /**
+     * Extra space to fit the panel in a JFrame, like TileWorld.show()
+     */
+    private static final int X_BORDER = 16;
+    private static final int Y_BORDER = 38;
+    
+    private final SearchEventBuffer events;
+    private final Timer timer;
+    private final BufferedImage overlay;
+    /**
+     * The pixels of the overlay, drawn in directly
+     */
+    private final int[] overlayPixels;
+    private final int worldWidth;
+    private final Painter painter = new Painter();
+    
+    /**
+     * 
+     * @param tileWorld the tile world that is searched
+     * @param blockSize the initial size of a tile on the screen
+     * @param events the buffer that the searches put their events in
+     */
+    public SearchViewer(I_TileWorld tileWorld, int blockSize, SearchEventBuffer events) {
+        super(tileWorld, blockSize);
+        this.events = events;
+        this.worldWidth = Math.max(1, tileWorld.getWidth());
+        this.overlay = new BufferedImage(worldWidth, Math.max(1, tileWorld.getHeight()), BufferedImage.TYPE_INT_ARGB);
+        this.overlayPixels = ((DataBufferInt) overlay.getRaster().getDataBuffer()).getData();
+        this.timer = new Timer(FRAME_MILLIS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                update();
+            }
+        });
+    }
+    
+    /**
+     * 
+     * Show the searches of a Solver in a new window.
+     * 
+     * @param title the title of the window
+     * @param solver the solver, which gets a SearchEventBuffer as its listener
+     * @param blockSize the initial size of a tile on the screen
+     * @return the viewer
+     */
+    public static SearchViewer show(final String title, Solver solver, int blockSize) {
+        SearchEventBuffer events = new SearchEventBuffer();
+        final SearchViewer viewer = new SearchViewer(solver.getTileWorld(), blockSize, events);
+        solver.setSearchListener(events);
+        
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                JFrame frame = new JFrame();
+                frame.setTitle(title);
+                frame.add(viewer);
+                frame.setSize(viewer.getWidth() + X_BORDER, viewer.getHeight() + Y_BORDER);
+                frame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+                frame.setVisible(true);
+            }
+        });
+        return viewer;
+    }
+    
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        timer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        timer.stop();
+        super.removeNotify();
+    }
+    
+    /**
+     * 
+     * Draw the buffered events in the overlay and repaint if there were any.
+     * Called by the timer on the event dispatch thread.
+     * 
+     * @return the number of events drawn
+     */
+    public int update() {
+        int drawn = events.drain(painter, events.getCapacity());
+        if(drawn > 0 || painter.changed) {
+            painter.changed = false;
+            repaint();
+        }
+        return drawn;
+    }
+    
+    /**
+     * 
+     * @param x x-coordinate of a tile
+     * @param y y-coordinate of a tile
+     * @return the color of the tile in the overlay, ARGB
+     */
+    public int getOverlayColor(int x, int y) {
+        return overlayPixels[y * worldWidth + x];
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        drawTiles(g, overlay, false);
+    }
+    
+    /**
+     * Draws the events in the overlay pixels
+     */
+    private final class Painter implements I_SearchListener {
+        
+        private boolean changed;
+
+        @Override
+        public void searchStarted(int startX, int startY, int endX, int endY) {
+            Arrays.fill(overlayPixels, 0);
+            changed = true;
+        }
+
+        @Override
+        public void nodeOpened(int x, int y, int cost) {
+            int index = y * worldWidth + x;
+            if(overlayPixels[index] != CLOSED_COLOR) {
+                overlayPixels[index] = OPEN_COLOR;
+            }
+        }
+
+        @Override
+        public void nodeClosed(int x, int y, int cost) {
+            overlayPixels[y * worldWidth + x] = CLOSED_COLOR;
+        }
+
+        @Override
+        public void pathFound(int[] path, int width, int cost) {
+            for(int index : path) {
+                overlayPixels[(index / width) * worldWidth + index % width] = PATH_COLOR;
+            }
+            changed = true;
+        }
+        
+    }
+    
+}
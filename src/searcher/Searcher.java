@@ -4,6 +4,7 @@ import searcher.strategy.AStar;
 import searcher.strategy.Dijkstra;
 import searcher.strategy.Greedy;
 import searcher.strategy.SearchStrategy;
+import searcher.trace.TraceReplay;
 import tileworld.I_TileWorld;
 import tileworld.TileWorld;
 
@@ -33,6 +34,9 @@ public class Searcher {
      * For every tile world an output image is written: <filename>_a.png for A*,
      * <filename>_d.png for Dijkstra, and <filename>_g.png for Greedy Search.
      * The output text is written to System.out.
+     * If the first argument is "batch", all worlds in a directory (or matching
+     * a glob) are searched in parallel and written as CSV or JSON Lines records.
+     * See BatchRunner for its arguments.
      *
      * @param args The command line options/arguments.
      */
@@ -48,6 +52,22 @@ public class Searcher {
             return;
         }
 
+        // search a directory or glob of worlds in parallel
+        if ("batch".equals(args[0])) {
+            String[] batchArgs = new String[args.length - 1];
+            System.arraycopy(args, 1, batchArgs, 0, batchArgs.length);
+            BatchRunner.main(batchArgs);
+            return;
+        }
+
+        // replay a recorded search trace
+        if ("replay".equals(args[0])) {
+            String[] replayArgs = new String[args.length - 1];
+            System.arraycopy(args, 1, replayArgs, 0, replayArgs.length);
+            TraceReplay.main(replayArgs);
+            return;
+        }
+
         // check which file(s) have/has to be loaded
         if (args[0].startsWith("-")) {
             String nrInputFilesStr = args[0].substring(1);
@@ -61,6 +81,9 @@ public class Searcher {
         if (args.length == 2) {
             if ("show".equals(args[1])) {
                 showSolutions = true;
+            } else if ("watch".equals(args[1]) && !batch) {
+                watch(args[0]);
+                return;
             } else {
                 System.out.println("Illegal second argument: " + args[1]);
                 printExamples();
@@ -95,6 +118,9 @@ public class Searcher {
         System.out.println("  java -jar Search.jar -3 show");
         System.out.println("  java -jar Search.jar testfile");
         System.out.println("  java -jar Search.jar tilefile show");
+        System.out.println("  java -jar Search.jar tilefile watch");
+        System.out.println("  java -jar Search.jar batch input -workers 4 -format json");
+        System.out.println("  java -jar Search.jar replay traces/i1_A_STAR.trace -world input/i1.png -image i1_trace.png");
     }
 
     /**
@@ -147,6 +173,18 @@ public class Searcher {
         return experimentResults;
     }
 
+    /**
+     * Searches a file with A* while the search is shown on screen.
+     *
+     * @param filename The file (without extension) to be searched.
+     */
+    public static void watch(String filename) {
+        I_TileWorld world = new TileWorld(filename + ".png");
+        Solver solver = new Solver(world, SearchStrategy.A_STAR);
+        SearchViewer.show(filename + " A*", solver, 10);
+        printAlgorithmResult("A*", solver.solve());
+    }
+
     /**
      * Prints the results for all three algorithms on System.out.
      *
@@ -176,8 +214,18 @@ public class Searcher {
             System.out.println("No results found.");
             return;
         }
+        System.out.println("#strategy: " + info.getStrategy() + (info.isAutoSelected() ? " (auto)" : ""));
         System.out.println("#nodes: " + info.getNodesExpanded());
         System.out.println("#path cost: " + info.getBestPathCost());
         System.out.println("#time: " + info.getTime() + " nanoseconds");
+        System.out.println("#nodes generated: " + info.getNodesGenerated());
+        System.out.println("#heap pushes/pops: " + info.getHeapPushes() + "/" + info.getHeapPops());
+        System.out.println("#decrease-keys: " + info.getDecreaseKeys());
+        System.out.println("#reopenings: " + info.getReopenings());
+        System.out.println("#peak open list: " + info.getPeakOpenSize());
+        System.out.println("#closed set: " + info.getClosedSetSize());
+        System.out.println("#path length: " + info.getPathLength() + " cells");
+        System.out.println("#allocated: " + info.getAllocatedBytes() + " bytes");
+        System.out.println("#suboptimality bound: " + info.getSuboptimalityBound());
     }
 }
@@ -23,11 +23,15 @@
  */
 package searcher;
 
+import java.util.concurrent.atomic.LongAdder;
 import searcher.strategy.*;
 import tileworld.I_Cost;
 import tileworld.I_TileWorld;
 import tileworld.TileType;
-import utilities.NodeUtilities;
+import utilities.MemoryUtilities;
+import utilities.events.GraphBuildEvent;
+import utilities.metrics.LatencyHistogram;
+import utilities.metrics.MetricsRegistry;
 
 /**
  *
@@ -36,8 +40,22 @@ import utilities.NodeUtilities;
 public final class Solver implements I_Cost {
     
     private Strategy strategy;
+    private SearchStrategy selectedStrategy;
+    private boolean autoSelected;
     private Node[][] grid;
     private I_TileWorld tileWorld;
+    private I_SearchListener searchListener;
+    /**
+     * Metrics of the strategy on all worlds, looked up once so that recording 
+     * them does not allocate.
+     */
+    private LatencyHistogram strategyLatency;
+    private LongAdder notFound;
+    /**
+     * Latency of the strategy on this world, null unless metrics per world are 
+     * enabled, see MetricsRegistry.setMaxWorlds()
+     */
+    private LatencyHistogram worldLatency;
     
     public Solver(I_TileWorld tileWorld, SearchStrategy strategy) {
         this.setTileWorld(tileWorld);
@@ -51,22 +69,115 @@ public final class Solver implements I_Cost {
      * @return the result
      */
     public AlgorithmResults solve() { 
+        long allocatedStart = MemoryUtilities.getAllocatedBytes();
         long timeStart = System.nanoTime();
         
         AlgorithmResults results = strategy.solve();
         results.setTime(System.nanoTime() - timeStart);
+        record(results);
+        if(allocatedStart >= 0) {
+            results.setAllocatedBytes(MemoryUtilities.getAllocatedBytes() - allocatedStart);
+        }
         
         return results;
     }
     
+    /**
+     * Start a search that runs in slices, see I_SearchHandle. Its results are 
+     * recorded like those of solve() once it is done, with the time spent in 
+     * the slices.
+     * 
+     * @return the search
+     * @throws UnsupportedOperationException if the strategy, also one selected 
+     * by AUTO, cannot run in slices (see Strategy.isSliceable()); use solve()
+     */
+    public I_SearchHandle start() {
+        if(!strategy.isSliceable()) {
+            throw new UnsupportedOperationException(selectedStrategy + " cannot run in slices");
+        }
+        final I_SearchHandle search = strategy.start();
+        return new I_SearchHandle() {
+            
+            private boolean recorded;
+            
+            @Override
+            public SearchStatus step(int maxExpansions) {
+                return step(NO_DEADLINE, maxExpansions);
+            }
+            
+            @Override
+            public SearchStatus stepUntil(long deadlineNanos) {
+                return step(deadlineNanos, NO_LIMIT);
+            }
+            
+            @Override
+            public SearchStatus step(long deadlineNanos, int maxExpansions) {
+                search.step(deadlineNanos, maxExpansions);
+                return getStatus();
+            }
+            
+            @Override
+            public SearchStatus getStatus() {
+                SearchStatus status = search.getStatus();
+                if(status != SearchStatus.RUNNING && !recorded) {
+                    recorded = true;
+                    record(search.getResults());
+                }
+                return status;
+            }
+            
+            @Override
+            public AlgorithmResults getResults() {
+                return getStatus() == SearchStatus.RUNNING ? null : search.getResults();
+            }
+            
+            @Override
+            public int getNodesExpanded() {
+                return search.getNodesExpanded();
+            }
+            
+            @Override
+            public long getTime() {
+                return search.getTime();
+            }
+        };
+    }
+    
+    /**
+     * 
+     * Add the strategy to the results of a search and record them in the metrics
+     * 
+     * @param results the results, with their time
+     */
+    private void record(AlgorithmResults results) {
+        results.setStrategy(selectedStrategy);
+        results.setAutoSelected(autoSelected);
+        strategyLatency.record(results.getTime());
+        if(worldLatency != null) {
+            worldLatency.record(results.getTime());
+        }
+        if(results.getBestPathCost() < 0) {
+            notFound.increment();
+        }
+    }
+    
     /**
      * 
      * Initialize the Solver instance
      * 
      */
     public void initialize() {
+        GraphBuildEvent event = new GraphBuildEvent();
+        event.begin();
+        
         this.generateGrid();
         this.fillNodes();
+        
+        if(event.shouldCommit()) {
+            event.width = tileWorld.getWidth();
+            event.height = tileWorld.getHeight();
+            event.commit();
+        }
     }
     
     /**
@@ -96,31 +207,26 @@ public final class Solver implements I_Cost {
      * 
      */
     private void fillNodes() {
-        for(int currentY = 0; currentY < grid[1].length; ++currentY) { 
+        int width = grid.length;
+        int height = grid[0].length;
+        
+        for(int currentY = 0; currentY < height; ++currentY) { 
             
-            for(int currentX = 0; currentX < grid.length; ++currentX) { 
+            for(int currentX = 0; currentX < width; ++currentX) { 
                 
                 Node current = grid[currentX][currentY];
                 
-                for(int otherY = 0; otherY < grid[1].length; ++otherY) { 
-
-                    for(int otherX = 0; otherX < grid.length; ++otherX) { 
-
-                        Node other = grid[otherX][otherY];
-                        if(other.getTileType() == TileType.NONWALKABLE) {
-                            
-                            continue;
-                            
-                        } else if(NodeUtilities.isLocatedDiagonallyAdjacent(current, other)) {
-                            
-                            current.getDiagonalNeighbors().add(other);
-                            
-                        } else if(NodeUtilities.isLocatedStraightAdjacent(current, other)) {
-                            
-                            current.getStraigthNeighbors().add(other);
-                            
-                        }
-
+                for(int direction = 0; direction < Node.DIRECTIONS; ++direction) {
+                    
+                    int otherX = currentX + Node.getDirectionX(direction);
+                    int otherY = currentY + Node.getDirectionY(direction);
+                    if(otherX < 0 || otherX >= width || otherY < 0 || otherY >= height) {
+                        continue;
+                    }
+                    
+                    Node other = grid[otherX][otherY];
+                    if(other.getTileType() != TileType.NONWALKABLE) {
+                        current.setNeighbor(direction, other);
                     }
                 }
             }
@@ -135,9 +241,23 @@ public final class Solver implements I_Cost {
     }
 
     /**
-     * @param strategy the strategy to set
+     * @return the strategy that searches, never AUTO
+     */
+    public SearchStrategy getSelectedStrategy() {
+        return selectedStrategy;
+    }
+
+    /**
+     * @param strategy the strategy to set; AUTO chooses one from the WorldProfile
+     * of the tile world with the default StrategySelector
      */
     public void setStrategy(SearchStrategy strategy) {
+        autoSelected = strategy == SearchStrategy.AUTO;
+        if(autoSelected) {
+            strategy = StrategySelector.getDefault().select(WorldProfile.of(tileWorld));
+        }
+        selectedStrategy = strategy;
+        
         switch(strategy) {
             case A_STAR:
                 this.strategy = new AStar(this);
@@ -148,7 +268,45 @@ public final class Solver implements I_Cost {
             case GREEDY:
                 this.strategy = new Greedy(this);
                 break;
+            case LAZY_THETA_STAR:
+                this.strategy = new LazyThetaStar(this);
+                break;
+            case ARA_STAR:
+                this.strategy = new ARAStar(this);
+                break;
+            case IDA_STAR:
+                this.strategy = new IDAStar(this);
+                break;
+            case SMA_STAR:
+                this.strategy = new SMAStar(this);
+                break;
+            case FRINGE_SEARCH:
+                this.strategy = new FringeSearch(this);
+                break;
         }
+        this.strategy.setSearchListener(searchListener);
+        
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        String strategyName = this.strategy.getClass().getSimpleName();
+        strategyLatency = metrics.histogram(MetricsRegistry.name("solve", strategyName));
+        notFound = metrics.counter(MetricsRegistry.name("notFound", strategyName));
+        worldLatency = metrics.worldHistogram(MetricsRegistry.name("solve", strategyName), tileWorld.getName());
+    }
+
+    /**
+     * @return the listener of the searches, null if none
+     */
+    public I_SearchListener getSearchListener() {
+        return searchListener;
+    }
+
+    /**
+     * @param searchListener the listener of the following searches, also after 
+     * setStrategy(); null for none
+     */
+    public void setSearchListener(I_SearchListener searchListener) {
+        this.searchListener = searchListener;
+        this.strategy.setSearchListener(searchListener);
     }
 
     /**
@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import tileworld.ConnectedComponents;
+import tileworld.I_Cost;
+import tileworld.I_TileWorld;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * The statistics of a tile world that decide which strategy searches it fastest:
+ * its size, the fraction of obstacles, the variance of the terrain costs and the 
+ * number of connected components. Computed in one pass over the tiles.
+ */
+public final class WorldProfile implements I_Cost {
+    
+    /**
+     * The number of profile classes
+     */
+    public static final int PROFILE_CLASSES = 3 * 3 * 2 * 2;
+    /**
+     * Upper bounds (exclusive) of the small and medium size classes, in tiles
+     */
+    private static final int SMALL_SIZE = 128 * 128;
+    private static final int MEDIUM_SIZE = 512 * 512;
+    /**
+     * Upper bounds (exclusive) of the sparse and medium density classes
+     */
+    private static final double SPARSE_DENSITY = 0.1;
+    private static final double MEDIUM_DENSITY = 0.3;
+    /**
+     * Lowest cost variance of varied terrain: a few SAND tiles among ROAD are still uniform
+     */
+    private static final double VARIED_VARIANCE = 4.0;
+    
+    private final int width;
+    private final int height;
+    private final double obstacleDensity;
+    private final double costVariance;
+    private final int componentCount;
+    
+    public WorldProfile(int width, int height, double obstacleDensity, double costVariance, int componentCount) {
+        this.width = width;
+        this.height = height;
+        this.obstacleDensity = obstacleDensity;
+        this.costVariance = costVariance;
+        this.componentCount = componentCount;
+    }
+    
+    /**
+     * 
+     * @param tileWorld the tile world
+     * @return the profile of the tile world
+     */
+    public static WorldProfile of(I_TileWorld tileWorld) {
+        int obstacles = 0;
+        long costSum = 0;
+        long costSquareSum = 0;
+        
+        for(int y = 0; y < tileWorld.getHeight(); ++y) {
+            
+            for(int x = 0; x < tileWorld.getWidth(); ++x) {
+                int cost = tileWorld.getTileType(x, y).getCost();
+                
+                if(cost >= INFINITY) {
+                    obstacles++;
+                } else {
+                    costSum += cost;
+                    costSquareSum += cost * cost;
+                }
+            }
+        }
+        
+        int size = tileWorld.getWidth() * tileWorld.getHeight();
+        int walkable = size - obstacles;
+        double mean = walkable == 0 ? 0 : (double) costSum / walkable;
+        double variance = walkable == 0 ? 0 : (double) costSquareSum / walkable - mean * mean;
+        ConnectedComponents components = tileWorld.getComponents();
+        
+        return new WorldProfile(tileWorld.getWidth(), tileWorld.getHeight(), 
+                size == 0 ? 0 : (double) obstacles / size, Math.max(0, variance), 
+                components == null ? 0 : components.getComponentCount());
+    }
+    
+    /**
+     * 
+     * Worlds of the same class are expected to favor the same strategy. The class 
+     * combines the size (small, medium, large), the obstacle density (sparse, 
+     * medium, dense), uniform or varied terrain, and one or more components.
+     * 
+     * @return the profile class, 0 to PROFILE_CLASSES - 1
+     */
+    public int getProfileClass() {
+        int size = width * height;
+        int sizeClass = size < SMALL_SIZE ? 0 : size < MEDIUM_SIZE ? 1 : 2;
+        int densityClass = obstacleDensity < SPARSE_DENSITY ? 0 : obstacleDensity < MEDIUM_DENSITY ? 1 : 2;
+        int terrainClass = costVariance < VARIED_VARIANCE ? 0 : 1;
+        int componentClass = componentCount > 1 ? 1 : 0;
+        
+        return ((sizeClass * 3 + densityClass) * 2 + terrainClass) * 2 + componentClass;
+    }
+    
+    /**
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the fraction (0..1) of tiles that can not be walked
+     */
+    public double getObstacleDensity() {
+        return obstacleDensity;
+    }
+
+    /**
+     * @return the variance of the straight cost of the walkable tiles
+     */
+    public double getCostVariance() {
+        return costVariance;
+    }
+
+    /**
+     * @return the number of connected components of walkable tiles
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    @Override
+    public String toString() {
+        return "WorldProfile { " + width + "x" + height + ", obstacles = " + String.format("%.3f", obstacleDensity) 
+                + ", cost variance = " + String.format("%.1f", costVariance) 
+                + ", components = " + componentCount + " }";
+    }
+    
+}
@@ -0,0 +1,515 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.cooperative;
+
+import java.util.Arrays;
+import tileworld.I_Cost;
+import tileworld.I_TileWorld;
+import tileworld.TileType;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Windowed Hierarchical Cooperative A* (WHCA*): routes many agents through one 
+ * tile world without collisions. Each agent searches in space and time, one window 
+ * of time steps ahead, around the tiles the other agents reserved in the 
+ * ReservationTable, and reserves its own path. The heuristic is the true distance 
+ * to its goal, from the TrueDistanceCache.
+ * 
+ * Every time step all agents move one tile or wait. A move takes one time step 
+ * whatever the terrain; the terrain only decides its cost. Agents replan after 
+ * half a window as far as the time budget of the step allows, and an agent whose 
+ * path runs out is planned regardless of the budget.
+ * 
+ * Not thread-safe: one thread adds the agents and calls tick().
+ */
+public final class CooperativePlanner implements I_Cost {
+    
+    public static final int DEFAULT_WINDOW = 16;
+    
+    /**
+     * The straight directions first, like DeltaStepping
+     */
+    static final int[] DIRECTION_X = { 0, 1, 0, -1, 1, 1, -1, -1 };
+    static final int[] DIRECTION_Y = { -1, 0, 1, 0, -1, 1, 1, -1 };
+    static final int STRAIGHT_DIRECTIONS = 4;
+    static final int DIRECTIONS = 8;
+    /**
+     * The action after the moves: stay on the tile
+     */
+    private static final int WAIT = DIRECTIONS;
+    /**
+     * Cost of waiting a time step anywhere but on the goal
+     */
+    private static final int WAIT_COST = ROAD_COST;
+    private static final int NOT_WALKABLE = -1;
+    private static final int NO_SLOT = -1;
+    /**
+     * The slot of a state is kept in the low 24 bits of an open list key
+     */
+    private static final int MAX_SLOTS = 1 << 24;
+    /**
+     * Memory for the true distances of the goals, 5 bytes per tile per goal
+     */
+    private static final long DISTANCE_BUDGET = 64L << 20;
+    
+    private final int width;
+    private final int height;
+    private final int window;
+    private final int replanInterval;
+    private final int[] straightCost;
+    private final int[] diagonalCost;
+    private final ReservationTable reservations;
+    private final TrueDistanceCache distances;
+    
+    private int agentCount;
+    private final int[] positions;
+    private final int[] goals;
+    /**
+     * The tiles of each agent from its plan time to a window later
+     */
+    private final int[] plans;
+    private final long[] planTimes;
+    private final boolean[] urgent;
+    private int nextAgent;
+    private long now;
+    private long conflicts;
+    
+    /**
+     * The states (tile, depth) of the space-time search, in the order they were 
+     * reached, and an open-addressing index on them that is cleared by a new stamp.
+     */
+    private final LongHeap open = new LongHeap(1024);
+    private int[] slotTiles;
+    private int[] slotDepths;
+    private int[] slotCosts;
+    private int[] slotParents;
+    private int slotCount;
+    private int[] indexSlots;
+    private int[] indexStamps;
+    private int stamp;
+    
+    public CooperativePlanner(I_TileWorld tileWorld, int maxAgents) {
+        this(tileWorld, maxAgents, DEFAULT_WINDOW);
+    }
+    
+    /**
+     * 
+     * @param tileWorld the tile world, which is copied, so later edits are not seen
+     * @param maxAgents the number of agents that can be added
+     * @param window the number of time steps each agent plans ahead, 2 to 255
+     */
+    public CooperativePlanner(I_TileWorld tileWorld, int maxAgents, int window) {
+        if(window < 2 || window > 255) {
+            throw new IllegalArgumentException("Window must be 2 to 255, not " + window);
+        }
+        
+        this.width = tileWorld.getWidth();
+        this.height = tileWorld.getHeight();
+        this.window = window;
+        this.replanInterval = window / 2;
+        this.straightCost = new int[width * height];
+        this.diagonalCost = new int[width * height];
+        
+        for(int y = 0; y < height; ++y) {
+            
+            for(int x = 0; x < width; ++x) {
+                TileType type = tileWorld.getTileType(x, y);
+                boolean walkable = type.getCost() < INFINITY;
+                straightCost[y * width + x] = walkable ? type.getCost() : NOT_WALKABLE;
+                diagonalCost[y * width + x] = walkable ? type.getDiagonalCost() : NOT_WALKABLE;
+            }
+        }
+        
+        this.reservations = new ReservationTable(window, maxAgents, width * height);
+        this.distances = new TrueDistanceCache(width, height, straightCost, diagonalCost, 
+                (int) Math.max(1, Math.min(maxAgents, DISTANCE_BUDGET / (5L * width * height))));
+        this.positions = new int[maxAgents];
+        this.goals = new int[maxAgents];
+        this.plans = new int[maxAgents * (window + 1)];
+        this.planTimes = new long[maxAgents];
+        this.urgent = new boolean[maxAgents];
+        
+        this.slotTiles = new int[1024];
+        this.slotDepths = new int[1024];
+        this.slotCosts = new int[1024];
+        this.slotParents = new int[1024];
+        this.indexSlots = new int[2048];
+        this.indexStamps = new int[2048];
+    }
+    
+    /**
+     * 
+     * Add an agent at the current time step.
+     * 
+     * @param start one-dimensional index of the tile of the agent
+     * @param goal one-dimensional index of the goal of the agent
+     * @return the agent
+     * @throws IllegalArgumentException if a tile is not walkable or start is occupied
+     * @throws IllegalStateException if maxAgents agents were added
+     */
+    public int addAgent(int start, int goal) {
+        if(agentCount == positions.length) {
+            throw new IllegalStateException("No more than " + positions.length + " agents");
+        }
+        checkWalkable(start);
+        checkWalkable(goal);
+        
+        int agent = agentCount;
+        if(!reservations.reserve(start, now, agent)) {
+            throw new IllegalArgumentException("Tile " + start + " is occupied");
+        }
+        
+        agentCount++;
+        positions[agent] = start;
+        goals[agent] = goal;
+        distances.addGoal(goal);
+        planTimes[agent] = now;
+        Arrays.fill(plans, agent * (window + 1), (agent + 1) * (window + 1), start);
+        urgent[agent] = true;
+        return agent;
+    }
+    
+    /**
+     * 
+     * @param agent the agent
+     * @param goal one-dimensional index of the new goal, planned for in the next tick
+     */
+    public void setGoal(int agent, int goal) {
+        checkWalkable(goal);
+        distances.removeGoal(goals[agent]);
+        distances.addGoal(goal);
+        goals[agent] = goal;
+        urgent[agent] = true;
+    }
+    
+    private void checkWalkable(int tile) {
+        if(tile < 0 || tile >= straightCost.length || straightCost[tile] == NOT_WALKABLE) {
+            throw new IllegalArgumentException("Tile " + tile + " is not walkable");
+        }
+    }
+    
+    /**
+     * 
+     * Plan the agents that need it within the budget, then move every agent one time step.
+     * 
+     * @param budget the time for planning in nanoseconds
+     * @return the number of agents planned
+     */
+    public int tick(long budget) {
+        long deadline = System.nanoTime() + budget;
+        int planned = 0;
+        
+        for(int agent = 0; agent < agentCount; ++agent) {
+            if(urgent[agent] || planTimes[agent] + window <= now) {
+                plan(agent);
+                planned++;
+            }
+        }
+        
+        for(int i = 0; i < agentCount && System.nanoTime() < deadline; ++i) {
+            int agent = nextAgent;
+            nextAgent = (nextAgent + 1) % agentCount;
+            
+            if(now - planTimes[agent] >= replanInterval) {
+                plan(agent);
+                planned++;
+            }
+        }
+        
+        now++;
+        reservations.advance(now);
+        for(int agent = 0; agent < agentCount; ++agent) {
+            positions[agent] = plans[agent * (window + 1) + (int) (now - planTimes[agent])];
+        }
+        return planned;
+    }
+    
+    /**
+     * 
+     * Replace the reservations of an agent by those of a new path, one window ahead.
+     * 
+     * @param agent the agent
+     */
+    private void plan(int agent) {
+        int base = agent * (window + 1);
+        for(long time = now + 1; time <= planTimes[agent] + window; ++time) {
+            reservations.release(plans[base + (int) (time - planTimes[agent])], time, agent);
+        }
+        
+        int slot = search(agent);
+        if(slot == NO_SLOT) {
+            // boxed in for the whole window: wait, and count the collisions if the others do not make way
+            Arrays.fill(plans, base, base + window + 1, positions[agent]);
+        } else {
+            for(; slot != NO_SLOT; slot = slotParents[slot]) {
+                plans[base + slotDepths[slot]] = slotTiles[slot];
+            }
+        }
+        
+        planTimes[agent] = now;
+        urgent[agent] = false;
+        for(int depth = 1; depth <= window; ++depth) {
+            if(!reservations.reserve(plans[base + depth], now + depth, agent)) {
+                conflicts++;
+            }
+        }
+    }
+    
+    /**
+     * 
+     * Space-time A* from the tile of the agent to the end of the window.
+     * 
+     * @param agent the agent
+     * @return the slot of the state at the end of the window, NO_SLOT if none is reachable
+     */
+    private int search(int agent) {
+        TrueDistanceCache.GoalDistances goal = distances.get(goals[agent]);
+        int start = positions[agent];
+        
+        if(++stamp == 0) {
+            Arrays.fill(indexStamps, 0);
+            stamp = 1;
+        }
+        slotCount = 0;
+        open.clear();
+        
+        int startSlot = findSlot(start, 0);
+        slotCosts[startSlot] = 0;
+        open.push(key(goal.getDistance(start), 0, startSlot));
+        
+        while(!open.isEmpty()) {
+            long top = open.pop();
+            int slot = (int) (top & (MAX_SLOTS - 1));
+            int tile = slotTiles[slot];
+            int depth = slotDepths[slot];
+            
+            if((int) (top >>> 32) != slotCosts[slot] + goal.getDistance(tile)) {
+                continue; // reached at a lower cost later
+            }
+            if(depth == window) {
+                return slot;
+            }
+            
+            long time = now + depth;
+            int x = tile % width;
+            int y = tile / width;
+            for(int action = 0; action <= WAIT; ++action) {
+                
+                int other = tile;
+                int cost = tile == goals[agent] ? 0 : WAIT_COST;
+                if(action != WAIT) {
+                    int otherX = x + DIRECTION_X[action];
+                    int otherY = y + DIRECTION_Y[action];
+                    if(otherX < 0 || otherX >= width || otherY < 0 || otherY >= height) {
+                        continue;
+                    }
+                    
+                    other = otherY * width + otherX;
+                    cost = action < STRAIGHT_DIRECTIONS ? straightCost[other] : diagonalCost[other];
+                    if(cost == NOT_WALKABLE) {
+                        continue;
+                    }
+                }
+                
+                if(!isFree(agent, tile, other, time)) {
+                    continue;
+                }
+                
+                int otherCost = slotCosts[slot] + cost;
+                int otherSlot = findSlot(other, depth + 1);
+                if(slotCosts[otherSlot] <= otherCost) {
+                    continue;
+                }
+                
+                slotCosts[otherSlot] = otherCost;
+                slotParents[otherSlot] = slot;
+                open.push(key(otherCost + goal.getDistance(other), depth + 1, otherSlot));
+            }
+        }
+        return NO_SLOT;
+    }
+    
+    /**
+     * 
+     * @param agent the agent
+     * @param from the tile at time
+     * @param to the tile at time + 1
+     * @param time the time step
+     * @return true if no other agent is on to at time + 1, or moves from to onto from
+     */
+    private boolean isFree(int agent, int from, int to, long time) {
+        int owner = reservations.getOwner(to, time + 1);
+        if(owner != ReservationTable.NO_AGENT && owner != agent) {
+            return false;
+        }
+        if(from == to) {
+            return true;
+        }
+        
+        owner = reservations.getOwner(to, time);
+        return owner == ReservationTable.NO_AGENT || owner == agent 
+                || reservations.getOwner(from, time + 1) != owner;
+    }
+    
+    /**
+     * 
+     * @param estimate cost + heuristic
+     * @param depth the time step in the window
+     * @param slot the slot of the state
+     * @return the key on the open list: lowest estimate first, then the deepest
+     */
+    private long key(int estimate, int depth, int slot) {
+        return (long) estimate << 32 | (long) (window - depth) << 24 | slot;
+    }
+    
+    /**
+     * 
+     * @param tile one-dimensional index of the tile
+     * @param depth the time step in the window
+     * @return the slot of the state, a new one at cost INFINITY if it was not reached before
+     */
+    private int findSlot(int tile, int depth) {
+        int mask = indexSlots.length - 1;
+        int index = hash(tile, depth) & mask;
+        
+        while(indexStamps[index] == stamp) {
+            int slot = indexSlots[index];
+            if(slotTiles[slot] == tile && slotDepths[slot] == depth) {
+                return slot;
+            }
+            index = (index + 1) & mask;
+        }
+        
+        if(slotCount == slotTiles.length) {
+            growSlots();
+            return findSlot(tile, depth);
+        }
+        
+        int slot = slotCount++;
+        slotTiles[slot] = tile;
+        slotDepths[slot] = depth;
+        slotCosts[slot] = INFINITY;
+        slotParents[slot] = NO_SLOT;
+        indexStamps[index] = stamp;
+        indexSlots[index] = slot;
+        return slot;
+    }
+    
+    private static int hash(int tile, int depth) {
+        int hash = tile * 0x9E3779B9 + depth * 0x85EBCA6B;
+        return hash ^ (hash >>> 16);
+    }
+    
+    /**
+     * 
+     * Double the slots and rebuild the index, keeping the slot of every state.
+     * 
+     */
+    private void growSlots() {
+        int capacity = slotTiles.length * 2;
+        if(capacity > MAX_SLOTS) {
+            throw new IllegalStateException("Space-time search exceeds " + MAX_SLOTS + " states");
+        }
+        
+        slotTiles = Arrays.copyOf(slotTiles, capacity);
+        slotDepths = Arrays.copyOf(slotDepths, capacity);
+        slotCosts = Arrays.copyOf(slotCosts, capacity);
+        slotParents = Arrays.copyOf(slotParents, capacity);
+        indexSlots = new int[capacity * 2];
+        indexStamps = new int[capacity * 2];
+        
+        int mask = indexSlots.length - 1;
+        for(int slot = 0; slot < slotCount; ++slot) {
+            int index = hash(slotTiles[slot], slotDepths[slot]) & mask;
+            while(indexStamps[index] == stamp) {
+                index = (index + 1) & mask;
+            }
+            indexStamps[index] = stamp;
+            indexSlots[index] = slot;
+        }
+    }
+    
+    /**
+     * @param agent the agent
+     * @return one-dimensional index of the tile of the agent
+     */
+    public int getPosition(int agent) {
+        return positions[agent];
+    }
+    
+    /**
+     * @param agent the agent
+     * @return one-dimensional index of the goal of the agent
+     */
+    public int getGoal(int agent) {
+        return goals[agent];
+    }
+    
+    /**
+     * @param agent the agent
+     * @return true if the agent is on its goal
+     */
+    public boolean isAtGoal(int agent) {
+        return positions[agent] == goals[agent];
+    }
+    
+    /**
+     * @return the number of agents
+     */
+    public int getAgentCount() {
+        return agentCount;
+    }
+    
+    /**
+     * @return the current time step
+     */
+    public long getTime() {
+        return now;
+    }
+    
+    /**
+     * @return the number of time steps each agent plans ahead
+     */
+    public int getWindow() {
+        return window;
+    }
+    
+    /**
+     * @return the number of tiles an agent had to take although another agent 
+     * reserved them, because it was boxed in
+     */
+    public long getConflicts() {
+        return conflicts;
+    }
+    
+    /**
+     * @return the reservations of the agents
+     */
+    public ReservationTable getReservations() {
+        return reservations;
+    }
+    
+}
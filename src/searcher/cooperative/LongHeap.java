@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.cooperative;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Binary min-heap of longs, for searches that pack the priority in the high 
+ * bits and the state in the low bits. Grows, but never allocates once warm.
+ */
+final class LongHeap {
+    
+    private long[] heap;
+    private int size;
+    
+    LongHeap(int capacity) {
+        this.heap = new long[Math.max(16, capacity)];
+    }
+    
+    void push(long value) {
+        if(size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        
+        int child = size++;
+        while(child > 0) {
+            int parent = (child - 1) >>> 1;
+            if(heap[parent] <= value) {
+                break;
+            }
+            heap[child] = heap[parent];
+            child = parent;
+        }
+        heap[child] = value;
+    }
+    
+    long pop() {
+        long top = heap[0];
+        long last = heap[--size];
+        
+        int parent = 0;
+        int child;
+        while((child = 2 * parent + 1) < size) {
+            if(child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if(last <= heap[child]) {
+                break;
+            }
+            heap[parent] = heap[child];
+            parent = child;
+        }
+        heap[parent] = last;
+        return top;
+    }
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+    
+    void clear() {
+        size = 0;
+    }
+    
+}
@@ -0,0 +1,221 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.cooperative;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Space-time reservations of the tiles: which agent occupies a tile at a time step.
+ * Only the time steps of one window ahead are kept, in a ring of open-addressing 
+ * tables, one per time step, of packed (tile + 1, agent + 1) longs. Reserving and 
+ * releasing are lock-free compare-and-set operations, so planners on several 
+ * threads can share a table; advance() must not run concurrently with them.
+ */
+public final class ReservationTable {
+    
+    /**
+     * The owner of a tile that is not reserved
+     */
+    public static final int NO_AGENT = -1;
+    
+    private final int window;
+    private final int mask;
+    private final AtomicLongArray[] steps;
+    private final long[] stepTimes;
+    
+    /**
+     * 
+     * @param window number of time steps ahead that can be reserved
+     * @param maxAgents the number of agents, that reserve one tile per time step each
+     */
+    public ReservationTable(int window, int maxAgents) {
+        this(window, maxAgents, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * 
+     * A time step is in the window for window + 1 time steps, in which each agent 
+     * may reserve a tile for it once per time step. Released reservations stay as 
+     * tombstones until the time step is reused, so a time step holds up to 
+     * (window + 1) * maxAgents tiles, and no more than there are tiles.
+     * 
+     * @param window number of time steps ahead that can be reserved
+     * @param maxAgents the number of agents, that reserve one tile per time step each
+     * @param tiles the number of tiles
+     */
+    public ReservationTable(int window, int maxAgents, int tiles) {
+        long keys = Math.min((long) (window + 1) * maxAgents, tiles);
+        int capacity = Integer.highestOneBit((int) Math.min(1 << 30, Math.max(16, 2 * keys)) - 1) << 1;
+        
+        this.window = window;
+        this.mask = capacity - 1;
+        this.steps = new AtomicLongArray[window + 1];
+        this.stepTimes = new long[window + 1];
+        
+        for(int step = 0; step <= window; ++step) {
+            steps[step] = new AtomicLongArray(capacity);
+            stepTimes[step] = step;
+        }
+    }
+    
+    /**
+     * 
+     * @param tile one-dimensional index of the tile
+     * @return the first slot of the tile
+     */
+    private int hash(int tile) {
+        int hash = tile * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+    
+    /**
+     * 
+     * @param time the time step
+     * @return the table of the time step, null if it is not in the window
+     */
+    private AtomicLongArray getStep(long time) {
+        int step = (int) Math.floorMod(time, (long) steps.length);
+        return stepTimes[step] == time ? steps[step] : null;
+    }
+    
+    /**
+     * 
+     * Reserve a tile at a time step.
+     * 
+     * @param tile one-dimensional index of the tile
+     * @param time the time step, in the window
+     * @param agent the agent
+     * @return true if the tile is reserved by agent, false if another agent reserved it first
+     * @throws IllegalArgumentException if time is not in the window
+     */
+    public boolean reserve(int tile, long time, int agent) {
+        AtomicLongArray step = getStep(time);
+        if(step == null) {
+            throw new IllegalArgumentException("Time " + time + " is not in the window");
+        }
+        
+        long key = (long) (tile + 1) << 32;
+        long reservation = key | (agent + 1);
+        
+        for(int probes = 0, slot = hash(tile); probes <= mask; ++probes, slot = (slot + 1) & mask) {
+            long current = step.get(slot);
+            
+            if(current == 0 || current == key) {
+                // a free slot or the tombstone of the tile
+                if(step.compareAndSet(slot, current, reservation)) {
+                    return true;
+                }
+                current = step.get(slot);
+            }
+            if((current & 0xFFFFFFFF00000000L) == key) {
+                return current == reservation;
+            }
+        }
+        throw new IllegalStateException("Reservation table full at time " + time);
+    }
+    
+    /**
+     * 
+     * Release the reservation of a tile at a time step, if agent holds it.
+     * 
+     * @param tile one-dimensional index of the tile
+     * @param time the time step
+     * @param agent the agent
+     */
+    public void release(int tile, long time, int agent) {
+        AtomicLongArray step = getStep(time);
+        if(step == null) {
+            return;
+        }
+        
+        long key = (long) (tile + 1) << 32;
+        for(int probes = 0, slot = hash(tile); probes <= mask; ++probes, slot = (slot + 1) & mask) {
+            long current = step.get(slot);
+            
+            if(current == 0) {
+                return;
+            } else if((current & 0xFFFFFFFF00000000L) == key) {
+                step.compareAndSet(slot, key | (agent + 1), key);
+                return;
+            }
+        }
+    }
+    
+    /**
+     * 
+     * @param tile one-dimensional index of the tile
+     * @param time the time step
+     * @return the agent that reserved the tile, NO_AGENT if none or if time is not in the window
+     */
+    public int getOwner(int tile, long time) {
+        AtomicLongArray step = getStep(time);
+        if(step == null) {
+            return NO_AGENT;
+        }
+        
+        long key = (long) (tile + 1) << 32;
+        for(int probes = 0, slot = hash(tile); probes <= mask; ++probes, slot = (slot + 1) & mask) {
+            long current = step.get(slot);
+            
+            if(current == 0) {
+                return NO_AGENT;
+            } else if((current & 0xFFFFFFFF00000000L) == key) {
+                return (int) current - 1;
+            }
+        }
+        return NO_AGENT;
+    }
+    
+    /**
+     * 
+     * Move the window to start at now, dropping the reservations of earlier time steps.
+     * 
+     * @param now the current time step
+     */
+    public void advance(long now) {
+        for(int step = 0; step < steps.length; ++step) {
+            
+            if(stepTimes[step] < now) {
+                AtomicLongArray reservations = steps[step];
+                for(int slot = 0; slot <= mask; ++slot) {
+                    reservations.set(slot, 0);
+                }
+                
+                // the first time step at or after now that maps to this table
+                stepTimes[step] = now + Math.floorMod(step - now, (long) steps.length);
+            }
+        }
+    }
+    
+    /**
+     * @return the number of time steps ahead that can be reserved
+     */
+    public int getWindow() {
+        return window;
+    }
+    
+}
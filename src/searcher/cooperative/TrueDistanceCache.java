@@ -0,0 +1,215 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.cooperative;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import tileworld.I_Cost;
+import utilities.NodeUtilities;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * The true distances to the goals of the agents, ignoring other agents: the 
+ * abstract level of hierarchical cooperative A*. Each goal runs a Reverse 
+ * Resumable A*: a Dijkstra search backwards from the goal that is resumed only 
+ * until the asked tile is settled.
+ * 
+ * The searches of goals no agent heads for any more make room for new goals. 
+ * If there is no room, a goal gets the octile distance instead, which is never 
+ * more than the true distance; dropping searches in use would restart them over 
+ * and over.
+ */
+final class TrueDistanceCache implements I_Cost {
+    
+    private final int width;
+    private final int height;
+    private final int[] straightCost;
+    private final int[] diagonalCost;
+    private final int maxGoals;
+    private final Map<Integer, GoalDistances> goals = new HashMap<Integer, GoalDistances>();
+    private int searchCount;
+    
+    /**
+     * 
+     * @param width width of the world
+     * @param height height of the world
+     * @param straightCost cost of entering a tile straight, negative if not walkable
+     * @param diagonalCost cost of entering a tile diagonally
+     * @param maxGoals the number of goals whose searches are kept
+     */
+    TrueDistanceCache(int width, int height, int[] straightCost, int[] diagonalCost, int maxGoals) {
+        this.width = width;
+        this.height = height;
+        this.straightCost = straightCost;
+        this.diagonalCost = diagonalCost;
+        this.maxGoals = maxGoals;
+    }
+    
+    /**
+     * 
+     * An agent heads for goal.
+     * 
+     * @param goal one-dimensional index of the goal
+     */
+    void addGoal(int goal) {
+        GoalDistances distances = goals.get(goal);
+        if(distances == null) {
+            distances = new GoalDistances(goal);
+            goals.put(goal, distances);
+        }
+        distances.agents++;
+    }
+    
+    /**
+     * 
+     * An agent no longer heads for goal.
+     * 
+     * @param goal one-dimensional index of the goal
+     */
+    void removeGoal(int goal) {
+        GoalDistances distances = goals.get(goal);
+        if(distances != null) {
+            distances.agents--;
+        }
+    }
+    
+    /**
+     * 
+     * @param goal one-dimensional index of a goal added with addGoal()
+     * @return the distances to goal
+     */
+    GoalDistances get(int goal) {
+        GoalDistances distances = goals.get(goal);
+        if(distances.distances == null && !distances.octile) {
+            if(searchCount >= maxGoals) {
+                dropUnused();
+            }
+            if(searchCount < maxGoals) {
+                distances.start();
+                searchCount++;
+            } else {
+                distances.octile = true;
+            }
+        }
+        return distances;
+    }
+    
+    /**
+     * 
+     * Drop the goals no agent heads for, with their searches.
+     * 
+     */
+    private void dropUnused() {
+        for(Iterator<GoalDistances> it = goals.values().iterator(); it.hasNext();) {
+            GoalDistances distances = it.next();
+            
+            if(distances.agents <= 0) {
+                if(distances.distances != null) {
+                    searchCount--;
+                }
+                it.remove();
+            } else if(distances.octile) {
+                // may get a search now that there is room
+                distances.octile = false;
+            }
+        }
+    }
+    
+    /**
+     * The distances to one goal: a resumable search backwards from the goal, or 
+     * the octile distance.
+     */
+    final class GoalDistances {
+        
+        private final int goal;
+        private int agents;
+        private boolean octile;
+        private int[] distances;
+        private boolean[] settled;
+        private LongHeap open;
+        
+        GoalDistances(int goal) {
+            this.goal = goal;
+        }
+        
+        private void start() {
+            distances = new int[width * height];
+            settled = new boolean[width * height];
+            open = new LongHeap(256);
+            Arrays.fill(distances, INFINITY);
+            distances[goal] = 0;
+            open.push(goal);
+        }
+        
+        /**
+         * 
+         * @param tile one-dimensional index of a tile
+         * @return the cost of the cheapest path from tile to the goal, INFINITY if there is none
+         */
+        int getDistance(int tile) {
+            if(distances == null) {
+                return NodeUtilities.calculateCustomHeuristic(tile % width, tile / width, goal % width, goal / width);
+            }
+            
+            while(!settled[tile] && !open.isEmpty()) {
+                int current = (int) open.pop();
+                
+                if(settled[current]) {
+                    continue;
+                }
+                settled[current] = true;
+                
+                int x = current % width;
+                int y = current / width;
+                for(int direction = 0; direction < CooperativePlanner.DIRECTIONS; ++direction) {
+                    
+                    int otherX = x - CooperativePlanner.DIRECTION_X[direction];
+                    int otherY = y - CooperativePlanner.DIRECTION_Y[direction];
+                    if(otherX < 0 || otherX >= width || otherY < 0 || otherY >= height) {
+                        continue;
+                    }
+                    
+                    // the move from other into current
+                    int other = otherY * width + otherX;
+                    if(settled[other] || straightCost[other] < 0) {
+                        continue;
+                    }
+                    
+                    int distance = distances[current] + (direction < CooperativePlanner.STRAIGHT_DIRECTIONS 
+                            ? straightCost[current] : diagonalCost[current]);
+                    if(distance < distances[other]) {
+                        distances[other] = distance;
+                        open.push((long) distance << 32 | other);
+                    }
+                }
+            }
+            return distances[tile];
+        }
+    }
+    
+}
@@ -0,0 +1,203 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.realtime;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import tileworld.I_Cost;
+import tileworld.TileSnapshot;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * The heuristic values the RealTimeAgents learned, one table per goal, shared by 
+ * all agents heading for that goal on one TileSnapshot. A value starts as the 
+ * octile distance to the goal and is only ever raised, so agents may update a 
+ * table concurrently without locks: a raise that loses a race to a higher value 
+ * is simply dropped.
+ * 
+ * The learned values are the costs of the snapshot; make new LearnedHeuristics 
+ * for a new version of the tile world, as tiles that got cheaper would make the 
+ * old values overestimate.
+ */
+public final class LearnedHeuristics implements I_Cost {
+    
+    /**
+     * A table is kept in pages of 32x32 tiles, made when a value of one of its 
+     * tiles is learned, as agents learn only around the paths they walk.
+     */
+    private static final int PAGE_SHIFT = 5;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    
+    private final TileSnapshot snapshot;
+    private final ConcurrentMap<Integer, Table> tables = new ConcurrentHashMap<Integer, Table>();
+    
+    /**
+     * 
+     * @param snapshot the tiles the values are learned on
+     */
+    public LearnedHeuristics(TileSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+    
+    public TileSnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * 
+     * @param goal one-dimensional index of the goal
+     * @return the table of the goal, made on first use
+     */
+    public Table getTable(int goal) {
+        Table table = tables.get(goal);
+        if(table == null) {
+            Table newTable = new Table(goal);
+            table = tables.putIfAbsent(goal, newTable);
+            if(table == null) {
+                table = newTable;
+            }
+        }
+        return table;
+    }
+    
+    /**
+     * 
+     * @return the number of goals with a table
+     */
+    public int getGoalCount() {
+        return tables.size();
+    }
+    
+    /**
+     * Forgets everything learned. Agents that still hold a table keep learning 
+     * in it, but no other agent will see that.
+     */
+    public void clear() {
+        tables.clear();
+    }
+    
+    /**
+     * The learned heuristic values for one goal.
+     */
+    public final class Table {
+        
+        private final int goal;
+        private final int goalX;
+        private final int goalY;
+        private final int pagesX;
+        private final AtomicReferenceArray<AtomicIntegerArray> pages;
+        
+        private Table(int goal) {
+            int width = snapshot.getWidth();
+            this.goal = goal;
+            this.goalX = goal % width;
+            this.goalY = goal / width;
+            this.pagesX = (width + PAGE_MASK) >>> PAGE_SHIFT;
+            this.pages = new AtomicReferenceArray<AtomicIntegerArray>(
+                    pagesX * ((snapshot.getHeight() + PAGE_MASK) >>> PAGE_SHIFT));
+        }
+        
+        public int getGoal() {
+            return goal;
+        }
+        
+        /**
+         * 
+         * @param index one-dimensional index of a tile
+         * @return the estimated cost from the tile to the goal, INFINITY if the 
+         * goal was found to be unreachable from it
+         */
+        public int get(int index) {
+            int width = snapshot.getWidth();
+            int x = index % width;
+            int y = index / width;
+            AtomicIntegerArray page = pages.get(getPage(x, y));
+            if(page != null) {
+                int learned = page.get(getOffset(x, y));
+                if(learned != 0) {
+                    return learned;
+                }
+            }
+            return getOctileDistance(x, y);
+        }
+        
+        /**
+         * 
+         * @param index one-dimensional index of a tile
+         * @return whether a value of the tile was learned
+         */
+        public boolean isLearned(int index) {
+            int width = snapshot.getWidth();
+            AtomicIntegerArray page = pages.get(getPage(index % width, index / width));
+            return page != null && page.get(getOffset(index % width, index / width)) != 0;
+        }
+        
+        /**
+         * Raises the value of a tile, if it is lower.
+         * 
+         * @param index one-dimensional index of a tile
+         * @param value the new estimate, at most INFINITY
+         */
+        public void raise(int index, int value) {
+            int width = snapshot.getWidth();
+            int x = index % width;
+            int y = index / width;
+            if(value <= getOctileDistance(x, y)) {
+                return;
+            }
+            int pageIndex = getPage(x, y);
+            AtomicIntegerArray page = pages.get(pageIndex);
+            if(page == null) {
+                pages.compareAndSet(pageIndex, null, new AtomicIntegerArray(PAGE_SIZE * PAGE_SIZE));
+                page = pages.get(pageIndex);
+            }
+            int offset = getOffset(x, y);
+            int learned = page.get(offset);
+            while(learned < value && !page.compareAndSet(offset, learned, value)) {
+                learned = page.get(offset);
+            }
+        }
+        
+        private int getPage(int x, int y) {
+            return (y >>> PAGE_SHIFT) * pagesX + (x >>> PAGE_SHIFT);
+        }
+        
+        private int getOffset(int x, int y) {
+            return (y & PAGE_MASK) << PAGE_SHIFT | (x & PAGE_MASK);
+        }
+        
+        private int getOctileDistance(int x, int y) {
+            int distanceX = Math.abs(x - goalX);
+            int distanceY = Math.abs(y - goalY);
+            return ROAD_COST * Math.max(distanceX, distanceY) 
+                    + (ROAD_DIAGONAL_COST - ROAD_COST) * Math.min(distanceX, distanceY);
+        }
+    }
+    
+}
@@ -0,0 +1,522 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.realtime;
+
+import java.util.Arrays;
+import searcher.strategy.Node;
+import tileworld.I_Cost;
+import tileworld.TileSnapshot;
+import tileworld.TileType;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * An agent that walks to its goal with Local Search Space LRTA* (Koenig and 
+ * Sun), one tile per step, so a game loop can spend a fixed budget on it per 
+ * frame instead of waiting for a full solve.
+ * 
+ * Each step runs an A* of at most lookahead expansions from the position of the 
+ * agent. The tiles it expanded learn, by a Dijkstra from its open list backwards, 
+ * the cheapest cost over the open list plus the estimate there. Then the agent 
+ * commits to the first move towards the most promising tile of the open list, 
+ * or towards the goal if the A* reached it. A lookahead of 1 is plain LRTA*.
+ * 
+ * The learned values go to the LearnedHeuristics table of the goal, so every 
+ * agent heading for the same goal profits from them, and an agent repeating a 
+ * walk learns the cheapest path. An agent is used by one thread at a time; 
+ * agents sharing a table may run on different threads.
+ * 
+ * The graph is that of the Solver on the TileSnapshot of the LearnedHeuristics.
+ */
+public final class RealTimeAgent implements I_Cost {
+    
+    private static final int NOT_WALKABLE = -1;
+    /**
+     * The cost of entering a tile by TileType ordinal
+     */
+    private static final int[] STRAIGHT_COSTS = new int[TileType.values().length];
+    private static final int[] DIAGONAL_COSTS = new int[TileType.values().length];
+    
+    static {
+        for(TileType type : TileType.values()) {
+            boolean walkable = type != TileType.NONWALKABLE && type.getCost() < INFINITY;
+            STRAIGHT_COSTS[type.ordinal()] = walkable ? type.getCost() : NOT_WALKABLE;
+            DIAGONAL_COSTS[type.ordinal()] = walkable ? type.getDiagonalCost() : NOT_WALKABLE;
+        }
+    }
+    
+    private static final int NONE = -1;
+    
+    private final int lookahead;
+    private LearnedHeuristics heuristics;
+    private LearnedHeuristics.Table table;
+    private TileSnapshot snapshot;
+    private int width;
+    private int height;
+    private int position = NONE;
+    private int goal = NONE;
+    private long pathCost;
+    private int steps;
+    private int expansions;
+    
+    /*
+     * The local search space of a step, by slot: a slot is given to each tile 
+     * the A* generates, the start being slot 0. A step generates at most eight 
+     * tiles per expansion, so the arrays never grow.
+     */
+    private final int[] slotTile;
+    private final int[] slotCost;
+    private final int[] slotEstimate;
+    private final int[] slotLearned;
+    private final int[] slotKey;
+    private final int[] slotParent;
+    private final boolean[] slotClosed;
+    private int slotCount;
+    
+    /*
+     * The moves of the A* backwards, by the slot entered: the first edge of a 
+     * slot and, by edge, the slot moved from, its cost and the next edge.
+     */
+    private final int[] slotEdge;
+    private final int[] edgeFrom;
+    private final int[] edgeCost;
+    private final int[] edgeNext;
+    private int edgeCount;
+    
+    /*
+     * Tile to slot, by open addressing; a key is valid if its stamp is that of 
+     * the current step, so the table is never cleared.
+     */
+    private final int[] keyTile;
+    private final int[] keySlot;
+    private final int[] keyStamp;
+    private final int keyMask;
+    private int stamp;
+    
+    /*
+     * A binary heap of slots with their positions, so a slot is decreased in 
+     * place. It orders by the key of a slot, cost plus estimate during the A* 
+     * and the learned value during the learning, then by the highest cost.
+     */
+    private final int[] heap;
+    private final int[] heapPosition;
+    private int heapSize;
+    
+    /**
+     * 
+     * @param heuristics the shared tables, whose snapshot the agent walks on
+     * @param lookahead the most tiles expanded per step
+     */
+    public RealTimeAgent(LearnedHeuristics heuristics, int lookahead) {
+        if(lookahead < 1 || lookahead > (Integer.MAX_VALUE >> 5)) {
+            throw new IllegalArgumentException("Lookahead out of range: " + lookahead);
+        }
+        this.lookahead = lookahead;
+        
+        int slots = lookahead * Node.DIRECTIONS + 1;
+        slotTile = new int[slots];
+        slotCost = new int[slots];
+        slotEstimate = new int[slots];
+        slotLearned = new int[slots];
+        slotKey = new int[slots];
+        slotParent = new int[slots];
+        slotClosed = new boolean[slots];
+        slotEdge = new int[slots];
+        edgeFrom = new int[lookahead * Node.DIRECTIONS];
+        edgeCost = new int[lookahead * Node.DIRECTIONS];
+        edgeNext = new int[lookahead * Node.DIRECTIONS];
+        heap = new int[slots];
+        heapPosition = new int[slots];
+        
+        int keys = Integer.highestOneBit(slots) << 2;
+        keyTile = new int[keys];
+        keySlot = new int[keys];
+        keyStamp = new int[keys];
+        keyMask = keys - 1;
+        
+        setHeuristics(heuristics);
+    }
+    
+    /**
+     * Walks on another version of the tile world, keeping the position and goal.
+     * 
+     * @param heuristics the shared tables, whose snapshot the agent walks on
+     */
+    public void setHeuristics(LearnedHeuristics heuristics) {
+        this.heuristics = heuristics;
+        this.snapshot = heuristics.getSnapshot();
+        this.width = snapshot.getWidth();
+        this.height = snapshot.getHeight();
+        this.table = goal == NONE ? null : heuristics.getTable(goal);
+    }
+    
+    /**
+     * Places the agent, starting a new walk.
+     * 
+     * @param x x-coordinate of the tile
+     * @param y y-coordinate of the tile
+     */
+    public void setPosition(int x, int y) {
+        position = y * width + x;
+        pathCost = 0;
+        steps = 0;
+    }
+    
+    /**
+     * 
+     * @param x x-coordinate of the goal
+     * @param y y-coordinate of the goal
+     */
+    public void setGoal(int x, int y) {
+        goal = y * width + x;
+        table = heuristics.getTable(goal);
+    }
+    
+    /**
+     * 
+     * Looks ahead and moves one tile towards the goal.
+     * 
+     * @return whether the agent moved; it does not if it is at its goal, or if 
+     * the goal cannot be reached from its position. That is known once a 
+     * lookahead covers all tiles the agent can reach; until then the agent 
+     * wanders, raising their values.
+     */
+    public boolean step() {
+        expansions = 0;
+        if(position == NONE || goal == NONE || position == goal) {
+            return false;
+        }
+        
+        int target = lookAhead();
+        learn();
+        if(target == NONE) {
+            target = selectFrontier();
+            if(target == NONE) {
+                return false; // every tile around learned that the goal is unreachable
+            }
+        }
+        
+        int next = target;
+        while(slotParent[next] != 0) {
+            next = slotParent[next];
+        }
+        position = slotTile[next];
+        pathCost += slotCost[next];
+        ++steps;
+        return true;
+    }
+    
+    /**
+     * A* from the position until the goal is selected or the lookahead is spent.
+     * 
+     * @return the slot of the goal, NONE if it was not selected
+     */
+    private int lookAhead() {
+        startStep();
+        int start = addSlot(position);
+        slotCost[start] = 0;
+        slotKey[start] = slotEstimate[start];
+        pushOrDecrease(start);
+        
+        while(heapSize > 0) {
+            int slot = heap[0];
+            if(slotTile[slot] == goal) {
+                return slot;
+            }
+            if(expansions == lookahead) {
+                return NONE;
+            }
+            pop();
+            slotClosed[slot] = true;
+            ++expansions;
+            
+            int tile = slotTile[slot];
+            int x = tile % width;
+            int y = tile / width;
+            for(int direction = 0; direction < Node.DIRECTIONS; ++direction) {
+                
+                int otherX = x + Node.getDirectionX(direction);
+                int otherY = y + Node.getDirectionY(direction);
+                if(otherX < 0 || otherX >= width || otherY < 0 || otherY >= height) {
+                    continue;
+                }
+                int step = getStepCost(direction, otherX, otherY);
+                if(step == NOT_WALKABLE) {
+                    continue;
+                }
+                
+                int other = findSlot(otherY * width + otherX);
+                if(other == NONE) {
+                    other = addSlot(otherY * width + otherX);
+                }
+                addEdge(slot, other, step);
+                if(slotCost[other] <= slotCost[slot] + step) {
+                    continue;
+                }
+                // a value learned meanwhile by another agent may reopen a tile
+                slotClosed[other] = false;
+                slotCost[other] = slotCost[slot] + step;
+                slotParent[other] = slot;
+                slotKey[other] = slotCost[other] + slotEstimate[other];
+                pushOrDecrease(other);
+            }
+        }
+        return NONE;
+    }
+    
+    /**
+     * Dijkstra backwards from the open tiles over the moves of the A*: a closed 
+     * tile learns the cheapest move to a tile plus the value of that tile.
+     */
+    private void learn() {
+        heapSize = 0;
+        int closed = 0;
+        for(int slot = 0; slot < slotCount; ++slot) {
+            if(slotClosed[slot]) {
+                slotLearned[slot] = INFINITY;
+                heapPosition[slot] = NONE;
+                ++closed;
+            } else {
+                slotLearned[slot] = slotEstimate[slot];
+                heapPosition[slot] = heapSize;
+                heap[heapSize++] = slot;
+            }
+            slotKey[slot] = slotLearned[slot];
+        }
+        for(int index = (heapSize >>> 1) - 1; index >= 0; --index) {
+            siftDown(index, heap[index]);
+        }
+        
+        // done when all closed tiles are settled, the other open tiles do not matter
+        while(heapSize > 0 && closed > 0) {
+            int slot = pop();
+            int value = slotLearned[slot];
+            if(value >= INFINITY) {
+                break;
+            }
+            if(slotClosed[slot]) {
+                --closed;
+            }
+            // only closed slots were expanded, so every edge comes from one
+            for(int edge = slotEdge[slot]; edge != NONE; edge = edgeNext[edge]) {
+                int other = edgeFrom[edge];
+                int otherValue = value + edgeCost[edge];
+                if(otherValue < slotLearned[other]) {
+                    slotLearned[other] = otherValue;
+                    slotKey[other] = otherValue;
+                    pushOrDecrease(other);
+                }
+            }
+        }
+        
+        for(int slot = 0; slot < slotCount; ++slot) {
+            if(slotClosed[slot]) {
+                table.raise(slotTile[slot], slotLearned[slot]);
+            }
+        }
+    }
+    
+    /**
+     * 
+     * @return the open slot with the lowest cost plus estimate, NONE if none 
+     * can reach the goal
+     */
+    private int selectFrontier() {
+        int best = NONE;
+        long bestValue = INFINITY;
+        for(int slot = 1; slot < slotCount; ++slot) {
+            if(!slotClosed[slot] && slotEstimate[slot] < INFINITY) {
+                long value = (long) slotCost[slot] + slotEstimate[slot];
+                if(value < bestValue || (value == bestValue && best != NONE && slotCost[slot] > slotCost[best])) {
+                    best = slot;
+                    bestValue = value;
+                }
+            }
+        }
+        return best;
+    }
+    
+    private int getStepCost(int direction, int x, int y) {
+        int ordinal = snapshot.getTileType(x, y).ordinal();
+        return (1 << direction & Node.STRAIGHT_MASK) != 0 ? STRAIGHT_COSTS[ordinal] : DIAGONAL_COSTS[ordinal];
+    }
+    
+    private void startStep() {
+        if(++stamp == 0) {
+            Arrays.fill(keyStamp, 0);
+            stamp = 1;
+        }
+        slotCount = 0;
+        edgeCount = 0;
+        heapSize = 0;
+    }
+    
+    private int addSlot(int tile) {
+        int slot = slotCount++;
+        slotTile[slot] = tile;
+        slotCost[slot] = INFINITY;
+        slotEstimate[slot] = table.get(tile);
+        slotParent[slot] = 0;
+        slotClosed[slot] = false;
+        slotEdge[slot] = NONE;
+        heapPosition[slot] = NONE;
+        
+        int key = hash(tile);
+        while(keyStamp[key] == stamp) {
+            key = (key + 1) & keyMask;
+        }
+        keyStamp[key] = stamp;
+        keyTile[key] = tile;
+        keySlot[key] = slot;
+        return slot;
+    }
+    
+    private void addEdge(int from, int to, int cost) {
+        int edge = edgeCount++;
+        edgeFrom[edge] = from;
+        edgeCost[edge] = cost;
+        edgeNext[edge] = slotEdge[to];
+        slotEdge[to] = edge;
+    }
+    
+    private int findSlot(int tile) {
+        for(int key = hash(tile); keyStamp[key] == stamp; key = (key + 1) & keyMask) {
+            if(keyTile[key] == tile) {
+                return keySlot[key];
+            }
+        }
+        return NONE;
+    }
+    
+    private int hash(int tile) {
+        int hash = tile * 0x9E3779B9;
+        return (hash ^ hash >>> 16) & keyMask;
+    }
+    
+    private boolean isBefore(int slot, int other) {
+        return slotKey[slot] < slotKey[other] 
+                || (slotKey[slot] == slotKey[other] && slotCost[slot] > slotCost[other]);
+    }
+    
+    private void pushOrDecrease(int slot) {
+        int index = heapPosition[slot];
+        if(index == NONE) {
+            index = heapSize++;
+        }
+        while(index > 0) {
+            int parent = (index - 1) >>> 1;
+            if(!isBefore(slot, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heapPosition[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = slot;
+        heapPosition[slot] = index;
+    }
+    
+    private int pop() {
+        int top = heap[0];
+        heapPosition[top] = NONE;
+        int last = heap[--heapSize];
+        if(heapSize > 0) {
+            siftDown(0, last);
+        }
+        return top;
+    }
+    
+    private void siftDown(int index, int slot) {
+        while(true) {
+            int child = 2 * index + 1;
+            if(child >= heapSize) {
+                break;
+            }
+            if(child + 1 < heapSize && isBefore(heap[child + 1], heap[child])) {
+                ++child;
+            }
+            if(!isBefore(heap[child], slot)) {
+                break;
+            }
+            heap[index] = heap[child];
+            heapPosition[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = slot;
+        heapPosition[slot] = index;
+    }
+    
+    public int getX() {
+        return position % width;
+    }
+    
+    public int getY() {
+        return position / width;
+    }
+    
+    /**
+     * @return one-dimensional index of the position
+     */
+    public int getPosition() {
+        return position;
+    }
+    
+    /**
+     * @return one-dimensional index of the goal
+     */
+    public int getGoal() {
+        return goal;
+    }
+    
+    public boolean isAtGoal() {
+        return position != NONE && position == goal;
+    }
+    
+    public int getLookahead() {
+        return lookahead;
+    }
+    
+    /**
+     * @return the cost of the moves since the agent was placed
+     */
+    public long getPathCost() {
+        return pathCost;
+    }
+    
+    /**
+     * @return the number of moves since the agent was placed
+     */
+    public int getSteps() {
+        return steps;
+    }
+    
+    /**
+     * @return the number of tiles expanded by the last step
+     */
+    public int getExpansions() {
+        return expansions;
+    }
+    
+}
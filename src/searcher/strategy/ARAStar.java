@@ -0,0 +1,402 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.strategy;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import searcher.AlgorithmResults;
+import searcher.I_SearchHandle;
+import searcher.Solver;
+import utilities.events.SearchEvent;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Implementation of the Anytime Repairing A* (ARA*) pathfinding algorithm.
+ * 
+ * The open list is ordered by tentative cost + epsilon * heuristic. The first 
+ * search uses a large epsilon and finds a path quickly, which costs at most epsilon
+ * times the optimal cost. Epsilon is then decreased and the search continues from 
+ * where it was: only Nodes whose cost improved since they were expanded (the 
+ * inconsistent Nodes) are put back on the open list. This repeats until epsilon 
+ * is 1, which gives the optimal path, or until the deadline or the maximum number 
+ * of expanded Nodes is reached. The best path found so far is returned, with its 
+ * proven suboptimality bound.
+ */
+public class ARAStar extends Strategy {
+    
+    public static final double DEFAULT_INITIAL_EPSILON = 2.5;
+    public static final double DEFAULT_EPSILON_STEP = 0.5;
+    /**
+     * No deadline or no maximum number of expanded Nodes
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+    public static final int NO_LIMIT = Integer.MAX_VALUE;
+    
+    private double epsilon;
+    private double initialEpsilon = DEFAULT_INITIAL_EPSILON;
+    private double epsilonStep = DEFAULT_EPSILON_STEP;
+    private long deadline = NO_DEADLINE;
+    private int maxExpansions = NO_LIMIT;
+    /**
+     * Nodes expanded in an earlier iteration whose cost has improved since
+     */
+    private final List<Node> inconsistentNodes = new ArrayList<Node>();
+    /**
+     * The tiles (one-dimensional index) of the inconsistent Nodes
+     */
+    private final BitSet inconsistentTiles = new BitSet();
+    /**
+     * Nodes expanded in the current iteration, to reset their visited flag
+     */
+    private final List<Node> closedNodes = new ArrayList<Node>();
+    /**
+     * The best path found so far
+     */
+    private int[] bestPath;
+    private int bestCost;
+    private double bestBound;
+    
+    public ARAStar(Solver solver) {
+        super(solver);
+    }
+    
+    /**
+     * 
+     * Start a search in slices within the deadline and the maximum number of 
+     * expanded Nodes set on this strategy. Reaching either ends the search with
+     * the best path found so far, the budgets of the slices only pause it.
+     */
+    @Override
+    public I_SearchHandle start() {
+        return startSearch(new AnytimeSearch(deadline, maxExpansions));
+    }
+    
+    /**
+     * 
+     * Solve the problem within the deadline and the maximum number of expanded 
+     * Nodes set on this strategy.
+     * 
+     * @return the best path found, with its suboptimality bound
+     */
+    @Override
+    public AlgorithmResults solve() {
+        return solve(deadline, maxExpansions);
+    }
+    
+    /**
+     * 
+     * Solve the problem within a budget.
+     * 
+     * @param deadlineNanos value of System.nanoTime() at which to stop, NO_DEADLINE for none
+     * @param maxExpansions maximum number of Nodes to expand, NO_LIMIT for none
+     * @return the best path found, with its suboptimality bound
+     */
+    public AlgorithmResults solve(long deadlineNanos, int maxExpansions) {
+        I_SearchHandle search = startSearch(new AnytimeSearch(deadlineNanos, maxExpansions));
+        search.step(I_SearchHandle.NO_DEADLINE, I_SearchHandle.NO_LIMIT);
+        return search.getResults();
+    }
+    
+    /**
+     * ARA* in slices. The deadline and the maximum number of expanded Nodes of 
+     * the whole search end it with the best path so far; a slice that reaches 
+     * its own budget stops before the next expansion, which the next slice does.
+     */
+    private final class AnytimeSearch extends Search {
+        
+        private final long deadlineNanos;
+        private final int maxExpansions;
+        private Node end;
+        private final SearchEvent event = new SearchEvent();
+        
+        AnytimeSearch(long deadlineNanos, int maxExpansions) {
+            this.deadlineNanos = deadlineNanos;
+            this.maxExpansions = maxExpansions;
+        }
+        
+        @Override
+        void begin() {
+            PriorityQueue<Node> unsettledNodes = getUnsettledNodes();
+            Node start = getStartNode();
+            end = getEndNode();
+            
+            resetCounters();
+            if(!isReachable(start, end)) {
+                finish(unreachableResults());
+                return;
+            }
+            setup(start, end);
+            notifySearchStarted(start, end);
+            unsettledNodes.clear();
+            inconsistentNodes.clear();
+            inconsistentTiles.clear();
+            closedNodes.clear();
+            bestPath = null;
+            bestCost = -1;
+            bestBound = Double.POSITIVE_INFINITY;
+            
+            event.begin();
+            
+            epsilon = initialEpsilon;
+            unsettledNodes.add(start);
+            heapPushes++;
+            peakOpenSize = 1;
+        }
+        
+        @Override
+        AlgorithmResults resume(long sliceDeadlineNanos, int sliceExpansions) {
+            PriorityQueue<Node> unsettledNodes = getUnsettledNodes();
+            int expanded = 0;
+            
+            while(true) {
+                
+                while(!unsettledNodes.isEmpty() && end.getTentativeCost() > calculateKey(unsettledNodes.peek())) {
+                    
+                    if(nodesExpanded >= maxExpansions 
+                            || (deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos >= 0)) {
+                        return finishSearch();
+                    }
+                    if(expanded >= sliceExpansions 
+                            || (sliceDeadlineNanos != NO_DEADLINE && System.nanoTime() - sliceDeadlineNanos >= 0)) {
+                        return null;
+                    }
+                    
+                    Node current = unsettledNodes.poll();
+                    heapPops++;
+                    expand(current);
+                    nodesExpanded++;
+                    expanded++;
+                }
+                publish(end);
+                
+                if(bestPath == null || bestBound <= 1.0 || epsilon <= 1.0) {
+                    return finishSearch();
+                }
+                
+                // continue with a lower epsilon, from the inconsistent and the open Nodes
+                epsilon = Math.max(1.0, epsilon - epsilonStep);
+                List<Node> openNodes = new ArrayList<Node>(unsettledNodes);
+                openNodes.addAll(inconsistentNodes);
+                reopenings += inconsistentNodes.size();
+                inconsistentNodes.clear();
+                inconsistentTiles.clear();
+                unsettledNodes.clear();
+                unsettledNodes.addAll(openNodes);
+                heapPushes += openNodes.size();
+                
+                for(Node node : closedNodes) {
+                    node.setVisited(false);
+                }
+                closedNodes.clear();
+            }
+        }
+        
+        /**
+         * 
+         * @return the result with the best path found so far
+         */
+        private AlgorithmResults finishSearch() {
+            commitSearchEvent(event, bestCost, nodesExpanded);
+            return processResults(nodesExpanded);
+        }
+    }
+    
+    /**
+     * 
+     * Expand a Node: a neighbor with a lower cost through it is put on the open 
+     * list, or on the inconsistent list if it was expanded in this iteration.
+     * 
+     * @param current the Node
+     */
+    private void expand(Node current) {
+        PriorityQueue<Node> unsettledNodes = getUnsettledNodes();
+        current.setVisited(true);
+        closedNodes.add(current);
+        notifyClosed(current);
+        
+        for(int mask = current.getNeighborMask(); mask != 0; mask &= mask - 1) {
+            
+            int direction = Integer.numberOfTrailingZeros(mask);
+            Node other = current.getNeighbor(direction);
+            nodesGenerated++;
+            int potentialCost = current.getTentativeCost() + current.getCostTo(direction);
+            
+            if(potentialCost < other.getTentativeCost()) {
+                
+                boolean open = unsettledNodes.remove(other);
+                if(open) {
+                    decreaseKeys++;
+                }
+                other.setTentativeCost(potentialCost);
+                other.setPredecessor(current);
+                notifyOpened(other);
+                
+                if(!other.isVisited()) {
+                    unsettledNodes.add(other);
+                    heapPushes++;
+                } else {
+                    int tile = getTileWorld().twoDimIndexToOneDimIndex(other.getX(), other.getY());
+                    if(!inconsistentTiles.get(tile)) {
+                        inconsistentTiles.set(tile);
+                        inconsistentNodes.add(other);
+                    }
+                }
+            }
+        }
+        
+        if(unsettledNodes.size() > peakOpenSize) {
+            peakOpenSize = unsettledNodes.size();
+        }
+    }
+    
+    /**
+     * 
+     * Keep the path to end, if any, as the best path found so far, with the bound
+     * proven by the lowest cost + heuristic of the open and inconsistent Nodes.
+     * 
+     * @param end the end/destination Node
+     */
+    private void publish(Node end) {
+        if(end.getTentativeCost() >= INFINITY) {
+            return;
+        }
+        
+        int pathLength = 0;
+        int cost = 0;
+        for(Node node = end; node.getPredecessor() != null; node = node.getPredecessor()) {
+            cost += node.getPredecessor().calculateCostTo(node);
+            pathLength++;
+        }
+        
+        int[] path = new int[pathLength + 1];
+        int position = path.length;
+        for(Node node = end; node != null; node = node.getPredecessor()) {
+            path[--position] = getTileWorld().twoDimIndexToOneDimIndex(node.getX(), node.getY());
+        }
+        
+        int lowerBound = cost;
+        for(Node node : getUnsettledNodes()) {
+            lowerBound = Math.min(lowerBound, node.getHeuristicPlusTentative());
+        }
+        for(Node node : inconsistentNodes) {
+            lowerBound = Math.min(lowerBound, node.getHeuristicPlusTentative());
+        }
+        
+        bestPath = path;
+        bestCost = cost;
+        bestBound = lowerBound <= 0 ? epsilon : Math.min(epsilon, (double) cost / lowerBound);
+    }
+    
+    /**
+     * 
+     * Processes the best path found: print it onto the image and set the result.
+     * 
+     * @param nodesExpanded number of nodes expanded
+     * @return the result
+     */
+    private AlgorithmResults processResults(int nodesExpanded) {
+        AlgorithmResults results = new AlgorithmResults(bestCost, nodesExpanded);
+        collectCounters(results, closedNodes.size());
+        results.setSuboptimalityBound(bestBound);
+        
+        if(bestPath == null) {
+            return results;
+        }
+        
+        Node[][] grid = getGrid();
+        int width = getTileWorld().getWidth();
+        for(int index : bestPath) {
+            grid[index % width][index / width].drawAsVisited();
+        }
+        results.setSolutionPath(bestPath, width);
+        notifyPathFound(bestPath, bestCost);
+        return results;
+    }
+    
+    /**
+     * 
+     * @param node Node
+     * @return the key of the Node in the open list
+     */
+    private double calculateKey(Node node) {
+        return node.getTentativeCost() + epsilon * node.getHeuristicCost();
+    }
+    
+    /**
+     * @param deadlineNanos value of System.nanoTime() at which solve() and start() stop, NO_DEADLINE for none
+     */
+    public void setDeadline(long deadlineNanos) {
+        this.deadline = deadlineNanos;
+    }
+    
+    /**
+     * @param maxExpansions maximum number of Nodes solve() and start() expand, NO_LIMIT for none
+     */
+    public void setMaxExpansions(int maxExpansions) {
+        this.maxExpansions = maxExpansions;
+    }
+    
+    /**
+     * @param initialEpsilon the epsilon of the first search, at least 1
+     */
+    public void setInitialEpsilon(double initialEpsilon) {
+        this.initialEpsilon = Math.max(1.0, initialEpsilon);
+    }
+    
+    /**
+     * @param epsilonStep the decrease of epsilon after every search
+     */
+    public void setEpsilonStep(double epsilonStep) {
+        this.epsilonStep = epsilonStep;
+    }
+    
+    @Override
+    protected final Comparator<Node> getComparator() {
+        return new Comparator<Node>() {
+
+            @Override
+            public int compare(Node current, Node other) {
+                
+                if (calculateKey(current) > calculateKey(other)) {
+                    
+                    return 1;
+                  
+                } else if (calculateKey(current) < calculateKey(other)) {
+                    
+                    return -1;
+                    
+                }  else {
+
+                    return -1;
+                }
+            }
+        };
+    }
+    
+}
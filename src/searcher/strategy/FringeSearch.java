@@ -0,0 +1,341 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.strategy;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import searcher.AlgorithmResults;
+import searcher.I_SearchHandle;
+import searcher.Solver;
+import tileworld.TileType;
+import utilities.NodeUtilities;
+import utilities.events.SearchEvent;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Implementation of the Fringe Search pathfinding algorithm.
+ * 
+ * Like IDA*, every iteration only expands Nodes whose cost + heuristic is within a
+ * threshold, and the next threshold is the lowest value that exceeded it. Unlike
+ * IDA*, the fringe between iterations is kept, so nothing is searched twice.
+ * The fringe is one doubly linked list: the part after the current Node is 
+ * expanded now, the part before it later, in the next iteration. A successor is 
+ * inserted right after the current Node, so it is visited in this iteration.
+ * There is no priority queue; the state lives in arrays by one-dimensional index.
+ */
+public class FringeSearch extends Strategy {
+    
+    private static final int NONE = -1;
+    /**
+     * The straight neighbors first, like the Nodes
+     */
+    private static final int[] DIRECTION_X = { 0, 1, 0, -1, 1, 1, -1, -1 };
+    private static final int[] DIRECTION_Y = { -1, 0, 1, 0, -1, 1, 1, -1 };
+    private static final int STRAIGHT_DIRECTIONS = 4;
+    
+    private final int width;
+    private final int height;
+    private final int[] straightCost;
+    private final int[] diagonalCost;
+    private final boolean[] walkable;
+    private final int[] costs;
+    private final int[] predecessors;
+    private final int[] next;
+    private final int[] previous;
+    private final boolean[] inFringe;
+    
+    public FringeSearch(Solver solver) {
+        super(solver);
+        
+        Node[][] grid = getGrid();
+        this.width = grid.length;
+        this.height = grid[0].length;
+        int size = width * height;
+        this.straightCost = new int[size];
+        this.diagonalCost = new int[size];
+        this.walkable = new boolean[size];
+        this.costs = new int[size];
+        this.predecessors = new int[size];
+        this.next = new int[size];
+        this.previous = new int[size];
+        this.inFringe = new boolean[size];
+        
+        for(int currentY = 0; currentY < height; ++currentY) {
+            
+            for(int currentX = 0; currentX < width; ++currentX) {
+                TileType type = grid[currentX][currentY].getTileType();
+                int index = currentY * width + currentX;
+                straightCost[index] = type.getCost();
+                diagonalCost[index] = type.getDiagonalCost();
+                walkable[index] = type != TileType.NONWALKABLE;
+            }
+        }
+    }
+    
+    @Override
+    public I_SearchHandle start() {
+        return startSearch(new FringeSlices());
+    }
+    
+    /**
+     * Fringe Search in slices: a slice stops before the Node it would expand 
+     * next, and the next slice continues the iteration with that Node.
+     */
+    private final class FringeSlices extends Search {
+        
+        private Node startNode;
+        private Node endNode;
+        private int end;
+        private int endX;
+        private int endY;
+        private int head;
+        private int current;
+        private int threshold;
+        private int nextThreshold;
+        private int fringeSize;
+        private final SearchEvent event = new SearchEvent();
+        
+        @Override
+        void begin() {
+            startNode = getStartNode();
+            endNode = getEndNode();
+            int start = startNode.getY() * width + startNode.getX();
+            end = endNode.getY() * width + endNode.getX();
+            endX = endNode.getX();
+            endY = endNode.getY();
+            
+            resetCounters();
+            if(!isReachable(startNode, endNode)) {
+                finish(unreachableResults());
+                return;
+            }
+            
+            event.begin();
+            
+            Arrays.fill(costs, INFINITY);
+            Arrays.fill(inFringe, false);
+            costs[start] = 0;
+            predecessors[start] = NONE;
+            next[start] = NONE;
+            previous[start] = NONE;
+            inFringe[start] = true;
+            head = start;
+            current = start;
+            fringeSize = 1;
+            peakOpenSize = 1;
+            
+            threshold = NodeUtilities.calculateCustomHeuristic(start % width, start / width, endX, endY);
+            nextThreshold = INFINITY;
+            notifySearchStarted(startNode, endNode);
+        }
+        
+        @Override
+        AlgorithmResults resume(long deadlineNanos, int maxExpansions) {
+            int sliceExpansions = 0;
+            
+            while(head != NONE) {
+                
+                while(current != NONE) {
+                    
+                    int x = current % width;
+                    int y = current / width;
+                    int estimate = costs[current] + NodeUtilities.calculateCustomHeuristic(x, y, endX, endY);
+                    
+                    if(estimate > threshold) {
+                        // later
+                        nextThreshold = Math.min(nextThreshold, estimate);
+                        current = next[current];
+                        continue;
+                    }
+                    if(current == end) {
+                        return processPath();
+                    }
+                    if(sliceExpansions >= maxExpansions 
+                            || (deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos >= 0)) {
+                        return null;
+                    }
+                    notifyClosed(x, y, costs[current]);
+                    
+                    // now
+                    expand(current, x, y);
+                    
+                    int successor = next[current];
+                    head = unlink(current, head);
+                    fringeSize--;
+                    current = successor;
+                    nodesExpanded++;
+                    sliceExpansions++;
+                    
+                    if(fringeSize > peakOpenSize) {
+                        peakOpenSize = fringeSize;
+                    }
+                }
+                
+                threshold = nextThreshold;
+                nextThreshold = INFINITY;
+                current = head;
+            }
+            
+            commitSearchEvent(event, -1, nodesExpanded);
+            AlgorithmResults results = new AlgorithmResults(-1, nodesExpanded);
+            collectCounters(results, nodesExpanded);
+            return results;
+        }
+        
+        /**
+         * 
+         * Put the cheaper neighbors of a Node into the fringe, right after it.
+         * 
+         * @param current index of the Node
+         * @param x The x-coordinate of the Node.
+         * @param y The y-coordinate of the Node.
+         */
+        private void expand(int current, int x, int y) {
+            for(int direction = 0; direction < DIRECTION_X.length; ++direction) {
+                
+                int otherX = x + DIRECTION_X[direction];
+                int otherY = y + DIRECTION_Y[direction];
+                if(otherX < 0 || otherY < 0 || otherX >= width || otherY >= height) {
+                    continue;
+                }
+                
+                int other = otherY * width + otherX;
+                if(!walkable[other]) {
+                    continue;
+                }
+                
+                nodesGenerated++;
+                int potentialCost = costs[current] 
+                        + (direction < STRAIGHT_DIRECTIONS ? straightCost[other] : diagonalCost[other]);
+                if(potentialCost >= costs[other]) {
+                    continue;
+                }
+                
+                if(inFringe[other]) {
+                    decreaseKeys++;
+                    head = unlink(other, head);
+                    fringeSize--;
+                } else if(costs[other] < INFINITY) {
+                    reopenings++;
+                }
+                costs[other] = potentialCost;
+                predecessors[other] = current;
+                insertAfter(current, other);
+                fringeSize++;
+                notifyOpened(otherX, otherY, potentialCost);
+            }
+        }
+        
+        /**
+         * 
+         * Copy the path to the end Node into the grid and set the result.
+         * 
+         * @return the result
+         */
+        private AlgorithmResults processPath() {
+            commitSearchEvent(event, costs[end], nodesExpanded);
+            
+            Node[][] grid = getGrid();
+            for(int index = end; index != NONE; index = predecessors[index]) {
+                Node node = grid[index % width][index / width];
+                node.setTentativeCost(costs[index]);
+                node.setPredecessor(predecessors[index] == NONE ? null 
+                        : grid[predecessors[index] % width][predecessors[index] / width]);
+            }
+            return processResults(endNode, nodesExpanded);
+        }
+    }
+    
+    /**
+     * 
+     * Insert a Node into the fringe, right after another Node.
+     * 
+     * @param current index of the Node in the fringe
+     * @param other index of the Node to insert
+     */
+    private void insertAfter(int current, int other) {
+        int successor = next[current];
+        next[other] = successor;
+        previous[other] = current;
+        next[current] = other;
+        if(successor != NONE) {
+            previous[successor] = other;
+        }
+        inFringe[other] = true;
+    }
+    
+    /**
+     * 
+     * Remove a Node from the fringe.
+     * 
+     * @param index index of the Node
+     * @param head index of the first Node of the fringe
+     * @return the index of the first Node of the fringe after the removal
+     */
+    private int unlink(int index, int head) {
+        int predecessor = previous[index];
+        int successor = next[index];
+        if(successor != NONE) {
+            previous[successor] = predecessor;
+        }
+        inFringe[index] = false;
+        
+        if(predecessor == NONE) {
+            return successor;
+        }
+        next[predecessor] = successor;
+        return head;
+    }
+    
+    @Override
+    protected int getOpenListCapacity() {
+        return 1;
+    }
+    
+    @Override
+    protected final Comparator<Node> getComparator() {
+        return new Comparator<Node>() {
+
+            @Override
+            public int compare(Node current, Node other) {
+                
+                if (current.getHeuristicPlusTentative() > other.getHeuristicPlusTentative()) {
+                    
+                    return 1;
+                  
+                } else if (current.getHeuristicPlusTentative() < other.getHeuristicPlusTentative()) {
+                    
+                    return -1;
+                    
+                }  else {
+
+                    return -1;
+                }
+            }
+        };
+    }
+    
+}
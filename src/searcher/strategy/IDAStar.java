@@ -0,0 +1,281 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.strategy;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import searcher.AlgorithmResults;
+import searcher.Solver;
+import utilities.events.SearchEvent;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Implementation of the Iterative Deepening A* (IDA*) pathfinding algorithm.
+ * 
+ * A depth-first search that stops at Nodes whose cost + heuristic exceeds a 
+ * threshold, repeated with the lowest exceeding value as the next threshold.
+ * Instead of an open list it only keeps the current path. A transposition table
+ * of fixed size remembers the lowest cost at which a Node was reached in the 
+ * current iteration, so that the other ways to reach it are not searched again;
+ * when the table is full an entry is replaced, which only costs time.
+ * The memory of the search is the path plus the table; the Solver still builds 
+ * a Node for every tile of the world, which the table does not bound.
+ */
+public class IDAStar extends Strategy {
+    
+    public static final long DEFAULT_MEMORY_BUDGET = 1 << 20;
+    /**
+     * Bytes per entry of the transposition table: the index of the Node and its cost
+     */
+    private static final int ENTRY_BYTES = 8;
+    private static final int EMPTY = -1;
+    private static final int BUCKET_SIZE = 4;
+    
+    private int[] tableKeys;
+    private int[] tableCosts;
+    private int tableMask;
+    /**
+     * The current path: the Nodes, their cost and the index of their next neighbor
+     */
+    private Node[] pathNodes = new Node[64];
+    private int[] pathCosts = new int[64];
+    private int[] nextNeighbors = new int[64];
+    
+    public IDAStar(Solver solver) {
+        super(solver);
+        setMemoryBudget(DEFAULT_MEMORY_BUDGET);
+    }
+    
+    /**
+     * 
+     * Size the transposition table to a number of bytes.
+     * 
+     * @param bytes the bytes of the transposition table, not counting the Nodes of the Solver
+     */
+    public final void setMemoryBudget(long bytes) {
+        int entries = Integer.highestOneBit((int) Math.min(1 << 30, Math.max(16, bytes / ENTRY_BYTES)));
+        tableKeys = new int[entries];
+        tableCosts = new int[entries];
+        tableMask = entries - 1;
+    }
+    
+    /**
+     * 
+     * IDA* is not sliced, only solve() runs it.
+     */
+    @Override
+    public boolean isSliceable() {
+        return false;
+    }
+    
+    @Override
+    public AlgorithmResults solve() {
+        Node start = getStartNode();
+        Node end = getEndNode();
+        int width = getTileWorld().getWidth();
+        int nodesExpanded = 0;
+        Node found = null;
+        
+        resetCounters();
+        if(!isReachable(start, end)) {
+            return unreachableResults();
+        }
+        setup(start, end);
+        notifySearchStarted(start, end);
+        
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        
+        int threshold = start.getHeuristicCost();
+        while(found == null && threshold < INFINITY) {
+            
+            int nextThreshold = INFINITY;
+            Arrays.fill(tableKeys, EMPTY);
+            int depth = 0;
+            pathNodes[0] = start;
+            pathCosts[0] = 0;
+            nextNeighbors[0] = 0;
+            
+            while(depth >= 0) {
+                
+                Node current = pathNodes[depth];
+                int cost = pathCosts[depth];
+                
+                if(nextNeighbors[depth] == 0) {
+                    // first visit
+                    int estimate = cost + current.getHeuristicCost();
+                    if(estimate > threshold) {
+                        nextThreshold = Math.min(nextThreshold, estimate);
+                        depth--;
+                        continue;
+                    }
+                    if(current.equals(end)) {
+                        current.setTentativeCost(cost);
+                        found = current;
+                        break;
+                    }
+                    
+                    int index = current.getY() * width + current.getX();
+                    if(!store(index, cost)) {
+                        depth--;
+                        continue;
+                    }
+                    nodesExpanded++;
+                    notifyClosed(current.getX(), current.getY(), cost);
+                }
+                
+                int mask = current.getNeighborMask() & -(1 << nextNeighbors[depth]);
+                if(mask == 0) {
+                    depth--;
+                    continue;
+                }
+                int direction = Integer.numberOfTrailingZeros(mask);
+                nextNeighbors[depth] = direction + 1;
+                nodesGenerated++;
+                
+                Node other = current.getNeighbor(direction);
+                push(++depth, other, cost + current.getCostTo(direction));
+                notifyOpened(other.getX(), other.getY(), pathCosts[depth]);
+            }
+            
+            threshold = nextThreshold;
+        }
+        
+        commitSearchEvent(event, found == null ? -1 : found.getTentativeCost(), nodesExpanded);
+        if(found == null) {
+            AlgorithmResults results = new AlgorithmResults(-1, nodesExpanded);
+            collectCounters(results, nodesExpanded);
+            return results;
+        }
+        
+        // the current path is the solution
+        start.setPredecessor(null);
+        for(int depth = 1; pathNodes[depth - 1] != found; ++depth) {
+            pathNodes[depth].setPredecessor(pathNodes[depth - 1]);
+            pathNodes[depth].setTentativeCost(pathCosts[depth]);
+        }
+        return processResults(found, nodesExpanded);
+    }
+    
+    /**
+     * 
+     * Store the cost at which a Node is reached in the transposition table. 
+     * The table is divided in buckets of BUCKET_SIZE slots; if the Node is not in 
+     * its bucket, it takes an empty slot or else the slot with the highest cost,
+     * as the search below that Node was the smallest.
+     * 
+     * @param index one-dimensional index of the Node
+     * @param cost the cost at which the Node is reached
+     * @return false if the Node was reached at the same or a lower cost before
+     */
+    private boolean store(int index, int cost) {
+        int bucket = hash(index) & tableMask & -BUCKET_SIZE;
+        int replace = bucket;
+        
+        for(int slot = bucket; slot < bucket + BUCKET_SIZE; ++slot) {
+            if(tableKeys[slot] == index) {
+                if(tableCosts[slot] <= cost) {
+                    return false;
+                }
+                replace = slot;
+                break;
+            }
+            if(tableKeys[slot] == EMPTY) {
+                replace = slot;
+                break;
+            }
+            if(tableCosts[slot] > tableCosts[replace]) {
+                replace = slot;
+            }
+        }
+        
+        tableKeys[replace] = index;
+        tableCosts[replace] = cost;
+        return true;
+    }
+    
+    /**
+     * 
+     * Put a Node on the current path, growing the arrays if needed.
+     * 
+     * @param depth the depth of the Node
+     * @param node the Node
+     * @param cost the cost of the Node
+     */
+    private void push(int depth, Node node, int cost) {
+        if(depth == pathNodes.length) {
+            pathNodes = Arrays.copyOf(pathNodes, depth * 2);
+            pathCosts = Arrays.copyOf(pathCosts, depth * 2);
+            nextNeighbors = Arrays.copyOf(nextNeighbors, depth * 2);
+        }
+        pathNodes[depth] = node;
+        pathCosts[depth] = cost;
+        nextNeighbors[depth] = 0;
+        
+        if(depth + 1 > peakOpenSize) {
+            peakOpenSize = depth + 1;
+        }
+    }
+    
+    /**
+     * 
+     * @param index one-dimensional index of a Node
+     * @return the mixed bits of the index, so that neighbors spread over the table
+     */
+    private static int hash(int index) {
+        int hash = index * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+    
+    @Override
+    protected int getOpenListCapacity() {
+        return 1;
+    }
+    
+    @Override
+    protected final Comparator<Node> getComparator() {
+        return new Comparator<Node>() {
+
+            @Override
+            public int compare(Node current, Node other) {
+                
+                if (current.getHeuristicPlusTentative() > other.getHeuristicPlusTentative()) {
+                    
+                    return 1;
+                  
+                } else if (current.getHeuristicPlusTentative() < other.getHeuristicPlusTentative()) {
+                    
+                    return -1;
+                    
+                }  else {
+
+                    return -1;
+                }
+            }
+        };
+    }
+    
+}
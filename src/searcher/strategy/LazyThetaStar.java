@@ -0,0 +1,309 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.strategy;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import searcher.AlgorithmResults;
+import searcher.I_SearchHandle;
+import searcher.Solver;
+import tileworld.GridLine;
+import tileworld.TileType;
+import tileworld.WalkabilityBitboard;
+import utilities.NodeUtilities;
+import utilities.events.SearchEvent;
+import utilities.kernels.GridKernels;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Implementation of the Lazy Theta* any-angle pathfinding algorithm.
+ * 
+ * A successor gets the predecessor of the expanded Node as its predecessor, 
+ * assuming the straight line between them is walkable. Whether it really is, is 
+ * only checked when the successor itself is expanded; if not, the best expanded
+ * neighbor becomes its predecessor. As the assumed cost is the lowest possible,
+ * a Node whose real cost turns out higher is put back on the open list first.
+ * The solution path only contains the waypoints where the direction changes.
+ * 
+ * A straight line costs, for every tile it crosses, the distance travelled in that
+ * tile times the (straight) cost of the tile. Two neighbors on road are therefore
+ * 10 or 14 apart, like in the other strategies, but the cost of a path is not 
+ * comparable with the cost of a path of the 8-directional strategies.
+ */
+public class LazyThetaStar extends Strategy {
+    
+    private final WalkabilityBitboard bitboard;
+    private final int[] unitCost;
+    private final int width;
+    
+    public LazyThetaStar(Solver solver) {
+        super(solver);
+        
+        Node[][] grid = getGrid();
+        this.bitboard = new WalkabilityBitboard(getTileWorld());
+        this.width = grid.length;
+        this.unitCost = new int[grid.length * grid[0].length];
+        
+        for(int currentY = 0; currentY < grid[0].length; ++currentY) {
+            
+            for(int currentX = 0; currentX < grid.length; ++currentX) {
+                unitCost[currentY * width + currentX] = grid[currentX][currentY].getTileType().getCost();
+            }
+        }
+    }
+    
+    @Override
+    public I_SearchHandle start() {
+        return startSearch(new LazySlices());
+    }
+    
+    /**
+     * Lazy Theta* in slices: a slice stops before it takes the next Node from 
+     * the open list, so a Node put back after its line of sight check is 
+     * taken again by the same or the next slice.
+     */
+    private final class LazySlices extends Search {
+        
+        private Node start;
+        private Node end;
+        private final SearchEvent event = new SearchEvent();
+        
+        @Override
+        void begin() {
+            start = getStartNode();
+            end = getEndNode();
+            
+            resetCounters();
+            if(!isReachable(start, end)) {
+                finish(unreachableResults());
+                return;
+            }
+            setup(start, end);
+            notifySearchStarted(start, end);
+            
+            event.begin();
+            
+            PriorityQueue<Node> unsettledNodes = getUnsettledNodes();
+            unsettledNodes.clear();
+            unsettledNodes.add(start);
+            heapPushes++;
+            peakOpenSize = 1;
+        }
+        
+        @Override
+        AlgorithmResults resume(long deadlineNanos, int maxExpansions) {
+            PriorityQueue<Node> unsettledNodes = getUnsettledNodes();
+            int sliceExpansions = 0;
+            
+            while(!unsettledNodes.isEmpty()) {
+                
+                if(sliceExpansions >= maxExpansions 
+                        || (deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos >= 0)) {
+                    return null;
+                }
+                
+                Node current = unsettledNodes.poll();
+                heapPops++;
+                
+                int estimatedCost = current.getTentativeCost();
+                setVertex(current);
+                if(current.getTentativeCost() > estimatedCost) {
+                    // the real cost is higher than the estimate, so it may no longer be the best Node
+                    unsettledNodes.add(current);
+                    heapPushes++;
+                    continue;
+                }
+                
+                if(current.equals(end)) {
+                    commitSearchEvent(event, current.getTentativeCost(), nodesExpanded);
+                    AlgorithmResults results = processResults(current, nodesExpanded);
+                    drawSegments(results.getSolutionPath());
+                    return results;
+                }
+                
+                current.setVisited(true);
+                nodesExpanded++;
+                sliceExpansions++;
+                notifyClosed(current);
+                Node parent = current.getPredecessor() == null ? current : current.getPredecessor();
+                
+                for(int mask = current.getNeighborMask(); mask != 0; mask &= mask - 1) {
+                    
+                    Node other = current.getNeighbor(Integer.numberOfTrailingZeros(mask));
+                    if(other.isVisited()) {
+                        continue;
+                    }
+                    
+                    nodesGenerated++;
+                    // lazy: assume line of sight, at the lowest possible cost
+                    int potentialCost = parent.getTentativeCost() + estimateCost(parent, other);
+                    
+                    if(potentialCost < other.getTentativeCost()) {
+                        
+                        if(unsettledNodes.remove(other)) {
+                            decreaseKeys++;
+                        }
+                        other.setTentativeCost(potentialCost);
+                        other.setPredecessor(parent);
+                        notifyOpened(other);
+                        unsettledNodes.add(other);
+                        heapPushes++;
+                        
+                    }
+                }
+                
+                if(unsettledNodes.size() > peakOpenSize) {
+                    peakOpenSize = unsettledNodes.size();
+                }
+            }
+            
+            commitSearchEvent(event, -1, nodesExpanded);
+            AlgorithmResults results = new AlgorithmResults(-1, nodesExpanded);
+            collectCounters(results, nodesExpanded);
+            return results;
+        }
+    }
+    
+    /**
+     * 
+     * Check the assumed line of sight from the predecessor and set the real cost.
+     * If an expanded neighbor offers a cheaper (or the only) way, it becomes the predecessor.
+     * 
+     * @param current the Node about to be expanded
+     */
+    private void setVertex(Node current) {
+        Node parent = current.getPredecessor();
+        if(parent == null) {
+            return;
+        }
+        
+        int segmentCost = calculateSegmentCost(parent, current);
+        int bestCost = segmentCost == INFINITY ? INFINITY : parent.getTentativeCost() + segmentCost;
+        Node bestParent = parent;
+        
+        for(int mask = current.getNeighborMask(); mask != 0; mask &= mask - 1) {
+            
+            Node neighbor = current.getNeighbor(Integer.numberOfTrailingZeros(mask));
+            if(neighbor.isVisited()) {
+                int cost = neighbor.getTentativeCost() + calculateSegmentCost(neighbor, current);
+                
+                if(cost < bestCost) {
+                    bestCost = cost;
+                    bestParent = neighbor;
+                }
+            }
+        }
+        
+        current.setTentativeCost(bestCost);
+        current.setPredecessor(bestParent);
+    }
+    
+    /**
+     * 
+     * @param from Node
+     * @param to Node
+     * @return the lowest possible cost of the straight line between both Nodes
+     */
+    private int estimateCost(Node from, Node to) {
+        return NodeUtilities.calculateEuclideanHeuristic(from, to);
+    }
+    
+    /**
+     * 
+     * @param from Node
+     * @param to Node
+     * @return the cost of the straight line between both Nodes, INFINITY if it is blocked
+     */
+    private int calculateSegmentCost(Node from, Node to) {
+        if(!bitboard.hasLineOfSight(from.getX(), from.getY(), to.getX(), to.getY())) {
+            return INFINITY;
+        }
+        
+        GridLine line = new GridLine(from.getX(), from.getY(), to.getX(), to.getY());
+        int index = from.getY() * width + from.getX();
+        long entered = 0;
+        long weightedCost = 0;
+        
+        while(line.next()) {
+            weightedCost += (line.getEntry() - entered) * unitCost[index];
+            entered = line.getEntry();
+            index = line.getY() * width + line.getX();
+        }
+        weightedCost += (line.getDenominator() - entered) * unitCost[index];
+        
+        double distanceX = to.getX() - from.getX();
+        double distanceY = to.getY() - from.getY();
+        double length = Math.sqrt(distanceX * distanceX + distanceY * distanceY);
+        
+        return (int) Math.round(weightedCost * length / line.getDenominator());
+    }
+    
+    /**
+     * 
+     * Draw the tiles between the waypoints onto the tile world.
+     * 
+     * @param waypoints one-dimensional indices of the waypoints
+     */
+    private void drawSegments(int[] waypoints) {
+        for(int i = 1; i < waypoints.length; ++i) {
+            GridLine line = new GridLine(waypoints[i - 1] % width, waypoints[i - 1] / width, 
+                    waypoints[i] % width, waypoints[i] / width);
+            
+            while(line.next()) {
+                getTileWorld().setTileType(line.getX(), line.getY(), TileType.PATH);
+            }
+        }
+    }
+    
+    @Override
+    protected void calculateHeuristicField(Node end, int[] field) {
+        GridKernels.get().euclideanField(getGrid().length, getGrid()[0].length, end.getX(), end.getY(), field);
+    }
+    
+    @Override
+    protected final Comparator<Node> getComparator() {
+        return new Comparator<Node>() {
+
+            @Override
+            public int compare(Node current, Node other) {
+                
+                if (current.getHeuristicPlusTentative() > other.getHeuristicPlusTentative()) {
+                    
+                    return 1;
+                  
+                } else if (current.getHeuristicPlusTentative() < other.getHeuristicPlusTentative()) {
+                    
+                    return -1;
+                    
+                }  else {
+
+                    return -1;
+                }
+            }
+        };
+    }
+    
+}
@@ -24,7 +24,6 @@
 package searcher.strategy;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import tileworld.I_Cost;
 import tileworld.I_TileWorld;
@@ -38,6 +37,39 @@ import tileworld.TileType;
  */
 public class Node implements I_Cost {
     
+    /**
+     * The number of neighbor directions
+     */
+    public static final int DIRECTIONS = 8;
+    /**
+     * The bits of the straight and of the diagonal directions in a neighbor mask
+     */
+    public static final int STRAIGHT_MASK = 0x0F;
+    public static final int DIAGONAL_MASK = 0xF0;
+    /**
+     * The straight directions first, then the diagonal directions, each in 
+     * row-major order: N, W, E, S, NW, NE, SW, SE
+     */
+    private static final int[] DIRECTION_X = { 0, -1, 1, 0, -1, 1, -1, 1 };
+    private static final int[] DIRECTION_Y = { -1, 0, 0, 1, -1, -1, 1, 1 };
+    /**
+     * The direction by (dy + 1) * 3 + (dx + 1), -1 for no direction
+     */
+    private static final int[] OFFSET_DIRECTIONS = { 4, 0, 5, 1, -1, 2, 6, 3, 7 };
+    /**
+     * The cost of entering a tile by TileType ordinal * DIRECTIONS + direction
+     */
+    private static final int[] DIRECTION_COSTS = new int[TileType.values().length * DIRECTIONS];
+    
+    static {
+        for(TileType type : TileType.values()) {
+            for(int direction = 0; direction < DIRECTIONS; ++direction) {
+                DIRECTION_COSTS[type.ordinal() * DIRECTIONS + direction] = 
+                        (1 << direction & STRAIGHT_MASK) != 0 ? type.getCost() : type.getDiagonalCost();
+            }
+        }
+    }
+    
     private int tentativeCost;
     private int heuristicCost;
     private boolean visited;
@@ -45,13 +77,14 @@ public class Node implements I_Cost {
     private int y;
     private I_TileWorld tileWorld;
     private TileType tileType;
-    private ArrayList<Node> straightNeighbors, diagonalNeighbors;
+    private final Node[] neighbors;
+    private int neighborMask;
     private Node predecessor;
     
     private Node() {
         this.visited = false;
-        this.straightNeighbors = new ArrayList<Node>();
-        this.diagonalNeighbors = new ArrayList<Node>();
+        this.neighbors = new Node[DIRECTIONS];
+        this.neighborMask = 0;
         this.predecessor = null;
     }
     
@@ -67,13 +100,49 @@ public class Node implements I_Cost {
         this.heuristicCost = heuristicCost; 
     }
     
+    /**
+     * 
+     * @param direction the direction, 0 to DIRECTIONS - 1
+     * @return the x-offset of the direction
+     */
+    public static int getDirectionX(int direction) {
+        return DIRECTION_X[direction];
+    }
+    
+    /**
+     * 
+     * @param direction the direction, 0 to DIRECTIONS - 1
+     * @return the y-offset of the direction
+     */
+    public static int getDirectionY(int direction) {
+        return DIRECTION_Y[direction];
+    }
+    
+    /**
+     * 
+     * @param other Node
+     * @return the direction of other, -1 if other is not adjacent
+     */
+    private int getDirectionOf(Node other) {
+        int distanceX = other.x - x;
+        int distanceY = other.y - y;
+        
+        if(distanceX < -1 || distanceX > 1 || distanceY < -1 || distanceY > 1) {
+            return -1;
+        }
+        
+        int direction = OFFSET_DIRECTIONS[(distanceY + 1) * 3 + distanceX + 1];
+        return direction >= 0 && neighbors[direction] == other ? direction : -1;
+    }
+    
     /**
      * 
      * @param other Node
      * @return true if straight adjacent to other, false otherwise
      */
     public boolean isStraightAdjacentTo(Node other) {
-        return straightNeighbors.contains(other);
+        int direction = getDirectionOf(other);
+        return direction >= 0 && (1 << direction & STRAIGHT_MASK) != 0;
     }
     
     /**
@@ -82,7 +151,8 @@ public class Node implements I_Cost {
      * @return true if diagonally adjacent to other, false otherwise
      */
     public boolean isDiagonallyAdjacentTo(Node other) {
-        return diagonalNeighbors.contains(other);
+        int direction = getDirectionOf(other);
+        return direction >= 0 && (1 << direction & DIAGONAL_MASK) != 0;
     }
     
     /**
@@ -91,19 +161,55 @@ public class Node implements I_Cost {
      * @return cost of traveling to other
      */
     public int calculateCostTo(Node other) {
-        if(this.isDiagonallyAdjacentTo(other)) {
-            
-            return other.getTileType().getDiagonalCost();
-            
-        } else if(this.isStraightAdjacentTo(other)) {
-            
-            return other.getTileType().getCost();
-            
+        int direction = getDirectionOf(other);
+        
+        return direction < 0 ? INFINITY : getCostTo(direction);
+    }
+    
+    /**
+     * 
+     * @param direction the direction of a neighbor in the neighbor mask
+     * @return cost of traveling to the neighbor
+     */
+    public int getCostTo(int direction) {
+        return DIRECTION_COSTS[neighbors[direction].tileType.ordinal() * DIRECTIONS + direction];
+    }
+    
+    /**
+     * 
+     * A bit per direction with a walkable neighbor, so that an expansion loops 
+     * over the set bits without allocating:
+     * for(int mask = getNeighborMask(); mask != 0; mask &= mask - 1)
+     * with direction Integer.numberOfTrailingZeros(mask).
+     * 
+     * @return the neighbor mask
+     */
+    public int getNeighborMask() {
+        return neighborMask;
+    }
+    
+    /**
+     * 
+     * @param direction the direction, 0 to DIRECTIONS - 1
+     * @return the neighbor, null if there is no walkable neighbor in that direction
+     */
+    public Node getNeighbor(int direction) {
+        return neighbors[direction];
+    }
+    
+    /**
+     * 
+     * @param direction the direction, 0 to DIRECTIONS - 1
+     * @param neighbor the walkable neighbor, null for none
+     */
+    public void setNeighbor(int direction, Node neighbor) {
+        neighbors[direction] = neighbor;
+        
+        if(neighbor == null) {
+            neighborMask &= ~(1 << direction);
         } else {
-            
-            return INFINITY;
-            
-        }       
+            neighborMask |= 1 << direction;
+        }
     }
 
     @Override
@@ -219,56 +325,52 @@ public class Node implements I_Cost {
     }
 
     /**
-     * @return the straithNeighbors
+     * @return the straight neighbors, in a new List
      */
     public List<Node> getStraigthNeighbors() {
-        return straightNeighbors;
-    }
-
-    /**
-     * @param straigthNeighbors the straithNeighbors to set
-     */
-    public void setStraigthNeighbors(ArrayList<Node>straigthNeighbors) {
-        this.straightNeighbors = straigthNeighbors;
+        return getNeighbors(neighborMask & STRAIGHT_MASK, false);
     }
 
     /**
-     * @return the diagonalNeighbors
+     * @return the diagonal neighbors, in a new List
      */
     public List<Node> getDiagonalNeighbors() {
-        return diagonalNeighbors;
-    }
-
-    /**
-     * @param diagonalNeighbors the diagonalNeighbors to set
-     */
-    public void setDiagonalNeighbors(ArrayList<Node> diagonalNeighbors) {
-        this.diagonalNeighbors = diagonalNeighbors;
+        return getNeighbors(neighborMask & DIAGONAL_MASK, false);
     }
     
     /**
      * 
      * @return neighbors, both visited and unvisited, 
-     * straight adjacent and diagonally adjacent
+     * straight adjacent and diagonally adjacent, in a new List
      */
     public List<Node> getNeighbors() {
-        List<Node> nodes = new ArrayList<Node>(straightNeighbors);
-        nodes.addAll(diagonalNeighbors);
-        return nodes;
+        return getNeighbors(neighborMask, false);
     }
     
     /**
      * 
-     * @return neighbors unvisited, both straight adjacent and diagonally adjacent
+     * @return neighbors unvisited, both straight adjacent and diagonally adjacent, 
+     * in a new List
      */
     public List<Node> getUnvisitedNeighbors() {
-        List<Node> nodes = this.getNeighbors();
-
-        for(Iterator it = nodes.iterator(); it.hasNext();) {
-            Node node = (Node) it.next();
+        return getNeighbors(neighborMask, true);
+    }
+    
+    /**
+     * 
+     * @param mask the directions
+     * @param unvisitedOnly true to leave out visited neighbors
+     * @return the neighbors in the directions
+     */
+    private List<Node> getNeighbors(int mask, boolean unvisitedOnly) {
+        List<Node> nodes = new ArrayList<Node>(Integer.bitCount(mask));
+        
+        for(; mask != 0; mask &= mask - 1) {
+            Node node = neighbors[Integer.numberOfTrailingZeros(mask)];
             
-            if(node.isVisited())
-                it.remove();
+            if(!unvisitedOnly || !node.isVisited()) {
+                nodes.add(node);
+            }
         }
         return nodes;
     }
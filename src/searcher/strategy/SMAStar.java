@@ -0,0 +1,394 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.strategy;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+import searcher.AlgorithmResults;
+import searcher.Solver;
+import utilities.events.SearchEvent;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Implementation of the Simplified Memory-bounded A* (SMA*) pathfinding algorithm.
+ * 
+ * Like A*, but the search tree holds at most a fixed number of entries. When it is
+ * full, the leaf with the highest cost + heuristic is forgotten and its value is 
+ * kept in its parent, which is put back on the open list to generate it again 
+ * once that value is the lowest. A Node reached again at no lower cost than an 
+ * entry in the tree, or at a higher cost than it was added before, is not added.
+ * The path is optimal if it fits in the tree; if no path fits, none is found.
+ * Only the tree and its cost table are bounded: the Solver still builds a Node 
+ * for every tile of the world, whatever the size of the tree.
+ */
+public class SMAStar extends Strategy {
+    
+    public static final long DEFAULT_MEMORY_BUDGET = 8 << 20;
+    /**
+     * Estimated bytes per entry, including its place in the open list, the index and the table
+     */
+    public static final int ENTRY_BYTES = 128;
+    private static final int EMPTY = -1;
+    
+    private int maxEntries;
+    private final TreeSet<Entry> openEntries = new TreeSet<Entry>(new Comparator<Entry>() {
+
+        @Override
+        public int compare(Entry current, Entry other) {
+            if(current.getKey() != other.getKey()) {
+                return current.getKey() < other.getKey() ? -1 : 1;
+            }
+            if(current.depth != other.depth) {
+                // deepest first, so the shallowest is forgotten first
+                return current.depth > other.depth ? -1 : 1;
+            }
+            return Long.compare(current.id, other.id);
+        }
+    });
+    /**
+     * The lowest cost at which a Node was added, by hash of its one-dimensional index;
+     * when two Nodes share a slot the newest wins, which only costs time
+     */
+    private int[] tableKeys;
+    private int[] tableCosts;
+    private int tableMask;
+    /**
+     * The entry of every Node in the tree, by one-dimensional index
+     */
+    private final Map<Integer, Entry> entriesByNode = new HashMap<Integer, Entry>();
+    private int entryCount;
+    private long nextId;
+    private int width;
+    
+    public SMAStar(Solver solver) {
+        super(solver);
+        setMemoryBudget(DEFAULT_MEMORY_BUDGET);
+    }
+    
+    /**
+     * @param bytes the bytes of the search tree, not counting the Nodes of the Solver
+     */
+    public final void setMemoryBudget(long bytes) {
+        setMaxEntries((int) Math.min(Integer.MAX_VALUE, bytes / ENTRY_BYTES));
+    }
+    
+    /**
+     * @param maxEntries the maximum number of entries in the search tree, at least 2
+     */
+    public final void setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(2, maxEntries);
+        int tableSize = Integer.highestOneBit((int) Math.min(1 << 30, 4L * this.maxEntries - 1));
+        tableKeys = new int[tableSize];
+        tableCosts = new int[tableSize];
+        tableMask = tableSize - 1;
+    }
+    
+    /**
+     * 
+     * SMA* is not sliced, only solve() runs it.
+     */
+    @Override
+    public boolean isSliceable() {
+        return false;
+    }
+    
+    @Override
+    public AlgorithmResults solve() {
+        Node start = getStartNode();
+        Node end = getEndNode();
+        int nodesExpanded = 0;
+        Entry found = null;
+        
+        resetCounters();
+        if(!isReachable(start, end)) {
+            return unreachableResults();
+        }
+        setup(start, end);
+        notifySearchStarted(start, end);
+        
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        
+        width = getTileWorld().getWidth();
+        openEntries.clear();
+        entriesByNode.clear();
+        entryCount = 0;
+        Arrays.fill(tableKeys, EMPTY);
+        addEntry(null, start, 0, start.getHeuristicCost());
+        
+        while(!openEntries.isEmpty()) {
+            
+            Entry current = openEntries.pollFirst();
+            heapPops++;
+            
+            if(current.node.equals(end) && !current.expanded) {
+                found = current;
+                break;
+            }
+            if(current.getKey() >= INFINITY) {
+                break;
+            }
+            
+            if(current.expanded) {
+                reopenings++;
+            }
+            // a forgotten child was worth at least the key of its parent
+            int floor = current.getKey();
+            current.expanded = true;
+            current.forgotten = INFINITY;
+            notifyClosed(current.node.getX(), current.node.getY(), current.cost);
+            expand(current, floor);
+            nodesExpanded++;
+            
+            if(current.children == 0 && current.forgotten >= INFINITY) {
+                // dead end, also when no child fits in the tree
+                removeEntry(current, INFINITY, null);
+            } else if(current.forgotten < INFINITY) {
+                addOpen(current);
+            }
+        }
+        
+        int cost = found == null ? -1 : found.cost;
+        commitSearchEvent(event, cost, nodesExpanded);
+        if(found == null) {
+            AlgorithmResults results = new AlgorithmResults(-1, nodesExpanded);
+            collectCounters(results, entryCount);
+            return results;
+        }
+        
+        for(Entry entry = found; entry != null; entry = entry.parent) {
+            entry.node.setTentativeCost(entry.cost);
+            entry.node.setPredecessor(entry.parent == null ? null : entry.parent.node);
+        }
+        AlgorithmResults results = processResults(found.node, nodesExpanded);
+        results.setClosedSetSize(entryCount);
+        return results;
+    }
+    
+    /**
+     * 
+     * Add the children of an entry that are not in the tree at the same or a lower 
+     * cost, forgetting other leaves when the tree is full.
+     * 
+     * @param current the entry being expanded
+     * @param floor the lowest key of a child
+     */
+    private void expand(Entry current, int floor) {
+        for(int mask = current.node.getNeighborMask(); mask != 0; mask &= mask - 1) {
+            
+            int direction = Integer.numberOfTrailingZeros(mask);
+            Node other = current.node.getNeighbor(direction);
+            nodesGenerated++;
+            int cost = current.cost + current.node.getCostTo(direction);
+            
+            int index = other.getY() * width + other.getX();
+            Entry existing = entriesByNode.get(index);
+            if(existing != null && existing.cost <= cost) {
+                continue;
+            }
+            
+            // a Node added at a lower cost before is still in the tree or in a forgotten value
+            int slot = hash(index) & tableMask;
+            if(tableKeys[slot] == index && tableCosts[slot] < cost) {
+                continue;
+            }
+            tableKeys[slot] = index;
+            tableCosts[slot] = cost;
+            
+            if(entryCount >= maxEntries && !forgetWorstLeaf(current)) {
+                // only the path to current is in the tree, so no child fits
+                continue;
+            }
+            addEntry(current, other, cost, Math.max(floor, cost + other.getHeuristicCost()));
+            notifyOpened(other.getX(), other.getY(), cost);
+        }
+    }
+    
+    /**
+     * 
+     * @param index one-dimensional index of a Node
+     * @return the mixed bits of the index, so that neighbors spread over the table
+     */
+    private static int hash(int index) {
+        int hash = index * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+    
+    /**
+     * 
+     * @param parent the parent entry, null for the start
+     * @param node the Node
+     * @param cost the cost of the path to the Node
+     * @param estimate the cost + heuristic, at least that of the parent
+     */
+    private void addEntry(Entry parent, Node node, int cost, int estimate) {
+        Entry entry = new Entry(parent, node, cost, estimate, parent == null ? 0 : parent.depth + 1, nextId++);
+        entriesByNode.put(node.getY() * width + node.getX(), entry);
+        entryCount++;
+        if(parent != null) {
+            parent.children++;
+        }
+        addOpen(entry);
+    }
+    
+    /**
+     * 
+     * Forget the leaf with the highest key, the shallowest if there are more.
+     * 
+     * @param current the entry being expanded, which is not forgotten
+     * @return false if there is no leaf to forget
+     */
+    private boolean forgetWorstLeaf(Entry current) {
+        for(Iterator<Entry> it = openEntries.descendingIterator(); it.hasNext();) {
+            Entry entry = it.next();
+            
+            if(entry.children == 0 && entry != current) {
+                it.remove();
+                removeEntry(entry, entry.getKey(), current);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 
+     * Remove a leaf from the tree and keep its value in its parent. A parent left 
+     * without children and without value is a dead end and is removed as well.
+     * 
+     * @param entry the leaf, not on the open list
+     * @param value the lowest cost + heuristic of a path through the leaf
+     * @param current the entry being expanded, which is not on the open list
+     */
+    private void removeEntry(Entry entry, int value, Entry current) {
+        int index = entry.node.getY() * width + entry.node.getX();
+        if(entriesByNode.get(index) == entry) {
+            entriesByNode.remove(index);
+        }
+        entryCount--;
+        
+        Entry parent = entry.parent;
+        if(parent == null) {
+            return;
+        }
+        parent.children--;
+        
+        if(parent == current) {
+            parent.forgotten = Math.min(parent.forgotten, value);
+            return;
+        }
+        
+        boolean open = parent.forgotten < INFINITY && openEntries.remove(parent);
+        parent.forgotten = Math.min(parent.forgotten, value);
+        if(parent.forgotten < INFINITY) {
+            addOpen(parent);
+        } else if(parent.children == 0 && !open) {
+            removeEntry(parent, INFINITY, current);
+        }
+    }
+    
+    /**
+     * 
+     * @param entry the entry to put on the open list
+     */
+    private void addOpen(Entry entry) {
+        openEntries.add(entry);
+        heapPushes++;
+        
+        if(openEntries.size() > peakOpenSize) {
+            peakOpenSize = openEntries.size();
+        }
+    }
+    
+    @Override
+    protected int getOpenListCapacity() {
+        return 1;
+    }
+    
+    @Override
+    protected final Comparator<Node> getComparator() {
+        return new Comparator<Node>() {
+
+            @Override
+            public int compare(Node current, Node other) {
+                
+                if (current.getHeuristicPlusTentative() > other.getHeuristicPlusTentative()) {
+                    
+                    return 1;
+                  
+                } else if (current.getHeuristicPlusTentative() < other.getHeuristicPlusTentative()) {
+                    
+                    return -1;
+                    
+                }  else {
+
+                    return -1;
+                }
+            }
+        };
+    }
+    
+    /**
+     * An entry of the search tree: a Node reached by a path from the start.
+     */
+    private static final class Entry {
+        
+        private final Entry parent;
+        private final Node node;
+        private final int cost;
+        private final int estimate;
+        private final int depth;
+        private final long id;
+        private int children;
+        /**
+         * The lowest value of the forgotten children, INFINITY if none
+         */
+        private int forgotten = INFINITY;
+        private boolean expanded;
+        
+        Entry(Entry parent, Node node, int cost, int estimate, int depth, long id) {
+            this.parent = parent;
+            this.node = node;
+            this.cost = cost;
+            this.estimate = estimate;
+            this.depth = depth;
+            this.id = id;
+        }
+        
+        /**
+         * @return the key on the open list: the cost + heuristic, or the value of the
+         * forgotten children once expanded
+         */
+        int getKey() {
+            return expanded ? forgotten : estimate;
+        }
+    }
+    
+}
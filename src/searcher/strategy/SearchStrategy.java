@@ -32,5 +32,15 @@ package searcher.strategy;
 public enum SearchStrategy {
     A_STAR,
     DIJKSTRA,
-    GREEDY
+    GREEDY,
+    LAZY_THETA_STAR,
+    ARA_STAR,
+    IDA_STAR,
+    SMA_STAR,
+    FRINGE_SEARCH,
+    /**
+     * AUTO lets the Solver choose an optimal strategy from the statistics of 
+     * the world, see StrategySelector
+     */
+    AUTO
 }
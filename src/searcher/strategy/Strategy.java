@@ -23,15 +23,20 @@
  */
 package searcher.strategy;
 
-import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.List;
 import java.util.PriorityQueue;
 import searcher.AlgorithmResults;
+import searcher.I_SearchHandle;
+import searcher.I_SearchListener;
+import searcher.SearchStatus;
 import searcher.Solver;
+import tileworld.ConnectedComponents;
 import tileworld.I_Cost;
 import tileworld.I_TileWorld;
-import utilities.NodeUtilities;
+import utilities.kernels.GridKernels;
+import utilities.events.PathExtractionEvent;
+import utilities.events.SearchEvent;
+import utilities.events.SetupEvent;
 
 /**
  *
@@ -41,12 +46,37 @@ public abstract class Strategy implements I_Cost {
     
     private I_TileWorld tileWorld;
     private Node[][] grid;
+    private int[] heuristicField;
     private PriorityQueue<Node> unsettledNodes;
+    private I_SearchListener searchListener;
+    /**
+     * The search started last, the only one that may take a step
+     */
+    private I_SearchHandle currentSearch;
+    /**
+     * Operation counters of the current search, reset by solve()
+     */
+    protected int nodesGenerated;
+    protected int heapPushes;
+    protected int heapPops;
+    protected int decreaseKeys;
+    protected int reopenings;
+    protected int peakOpenSize;
     
     public Strategy(Solver solver) {
         this.tileWorld = solver.getTileWorld();
         this.grid = solver.getGrid();      
-        this.unsettledNodes = new PriorityQueue<Node>(grid.length * grid[1].length, this.getComparator());
+        this.unsettledNodes = new PriorityQueue<Node>(this.getOpenListCapacity(), this.getComparator());
+    }
+    
+    /**
+     * 
+     * Called by the constructor, before the fields of the subclass are set.
+     * 
+     * @return the initial capacity of the open list, the number of Nodes by default
+     */
+    protected int getOpenListCapacity() {
+        return grid.length * grid[1].length;
     }
     
     /**
@@ -56,50 +86,135 @@ public abstract class Strategy implements I_Cost {
      * @return the result
      */
     public AlgorithmResults solve() {
-        int nodesExpanded = 0;       
-        Node start = getStartNode();
-        Node end = getEndNode();
-        
-        setup(start, end);
-        
-        unsettledNodes.add(start);
-      
-        while(!unsettledNodes.isEmpty()) {
-            
-            Node current = unsettledNodes.poll();
-            
-            if(current.equals(end)) {
-                return processResults(current, nodesExpanded);
-            }
-            
-            for(Node other : current.getUnvisitedNeighbors()) {
-                       
-                unsettledNodes.remove(other);
-                int potentialCost = current.getTentativeCost() 
-                        + current.calculateCostTo(other);
-
-                if(other.getTentativeCost() >= potentialCost) {
-
-                    other.setTentativeCost(potentialCost);
-                    other.setPredecessor(current);
-
-                }
-                unsettledNodes.add(other);
-
-            }
-            
-            current.setVisited(true);
-            nodesExpanded++;
-        
+        I_SearchHandle search = start();
+        search.step(I_SearchHandle.NO_DEADLINE, I_SearchHandle.NO_LIMIT);
+        return search.getResults();
+    }
+    
+    /**
+     * 
+     * Start a search that runs in slices, see I_SearchHandle. The set up of the 
+     * grid is done here, the expansions in the slices.
+     * 
+     * @return the search
+     * @throws UnsupportedOperationException if the strategy cannot be sliced
+     */
+    public I_SearchHandle start() {
+        if(!isSliceable()) {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot run in slices");
+        }
+        return startSearch(new BestFirstSearch());
+    }
+    
+    /**
+     * 
+     * A strategy that overrides solve() with its own search either overrides 
+     * start() too, or returns false here.
+     * 
+     * @return true if start() runs the search in slices, false if only solve() can run it
+     */
+    public boolean isSliceable() {
+        return true;
+    }
+    
+    /**
+     * 
+     * Make a search the current search of the strategy and set it up.
+     * 
+     * @param search the search
+     * @return the search
+     */
+    final I_SearchHandle startSearch(Search search) {
+        currentSearch = search;
+        search.begin();
+        return search;
+    }
+    
+    /**
+     * 
+     * Check the connected components of the tile world, so that a search 
+     * between disconnected regions is rejected without expanding any Node.
+     * 
+     * @param start the start Node
+     * @param end the end/destination Node
+     * @return false if there is no path from start to end, true if there may be
+     */
+    protected boolean isReachable(Node start, Node end) {
+        ConnectedComponents components = tileWorld.getComponents();
+        return components == null || components.isConnected(
+                tileWorld.twoDimIndexToOneDimIndex(start.getX(), start.getY()),
+                tileWorld.twoDimIndexToOneDimIndex(end.getX(), end.getY()));
+    }
+    
+    /**
+     * 
+     * @return the result of a search that was rejected by isReachable()
+     */
+    protected AlgorithmResults unreachableResults() {
+        AlgorithmResults results = new AlgorithmResults(-1, 0);
+        collectCounters(results, 0);
+        return results;
+    }
+    
+    /**
+     * 
+     * Reset the operation counters
+     * 
+     */
+    protected void resetCounters() {
+        nodesGenerated = 0;
+        heapPushes = 0;
+        heapPops = 0;
+        decreaseKeys = 0;
+        reopenings = 0;
+        peakOpenSize = 0;
+    }
+    
+    /**
+     * 
+     * Commit a SearchEvent with the operation counters, if it is being recorded
+     * 
+     * @param event the event, begun before the search loop
+     * @param pathCost cost of the best path, -1 if not found
+     * @param nodesExpanded number of nodes expanded
+     */
+    protected void commitSearchEvent(SearchEvent event, int pathCost, int nodesExpanded) {
+        if(event.shouldCommit()) {
+            event.strategy = getClass().getSimpleName();
+            event.width = tileWorld.getWidth();
+            event.height = tileWorld.getHeight();
+            event.pathCost = pathCost;
+            event.nodesExpanded = nodesExpanded;
+            event.nodesGenerated = nodesGenerated;
+            event.heapPushes = heapPushes;
+            event.heapPops = heapPops;
+            event.peakOpenSize = peakOpenSize;
+            event.commit();
         }
-        return new AlgorithmResults(-1, nodesExpanded);
+    }
+    
+    /**
+     * 
+     * Copy the operation counters to the result
+     * 
+     * @param results the result
+     * @param closedSetSize number of Nodes in the closed set
+     */
+    protected void collectCounters(AlgorithmResults results, int closedSetSize) {
+        results.setNodesGenerated(nodesGenerated);
+        results.setHeapPushes(heapPushes);
+        results.setHeapPops(heapPops);
+        results.setDecreaseKeys(decreaseKeys);
+        results.setReopenings(reopenings);
+        results.setPeakOpenSize(peakOpenSize);
+        results.setClosedSetSize(closedSetSize);
     }
     
     /**
      * 
      * @return the start Node 
      */
-    private Node getStartNode() {
+    protected Node getStartNode() {
         return grid[tileWorld.findStartX()][tileWorld.findStartY()];
     }
     
@@ -107,7 +222,7 @@ public abstract class Strategy implements I_Cost {
      * 
      * @return the end/destination Node
      */
-    private Node getEndNode() {
+    protected Node getEndNode() {
         return grid[tileWorld.findEndX()][tileWorld.findEndY()];
     }
     
@@ -121,25 +236,123 @@ public abstract class Strategy implements I_Cost {
      * @param nodesExpanded number of nodes expanded
      * @return the result
      */
-    private AlgorithmResults processResults(Node end, int nodesExpanded) {
+    protected AlgorithmResults processResults(Node end, int nodesExpanded) {
+        
+        PathExtractionEvent event = new PathExtractionEvent();
+        event.begin();
         
         AlgorithmResults results = new AlgorithmResults();
-        List<Node> solutionPath = new ArrayList<Node>();        
-        Node node = end;
+        int pathLength = 0;
+        
+        for(Node node = end; node != null; node = node.getPredecessor()) {
+            pathLength++;
+        }
         
-        while(node != null) {
+        // fill from the back, so the path runs from start to end
+        int[] solutionPath = new int[pathLength];
+        int position = pathLength;
+        for(Node node = end; node != null; node = node.getPredecessor()) {
             node.drawAsVisited();
-            solutionPath.add(node);
-            node = node.getPredecessor();
+            solutionPath[--position] = tileWorld.twoDimIndexToOneDimIndex(node.getX(), node.getY());
         }
         
-        results.setSolutionPath((ArrayList<Node>)solutionPath);
+        if(event.shouldCommit()) {
+            event.strategy = getClass().getSimpleName();
+            event.pathLength = pathLength;
+            event.commit();
+        }
+        
+        results.setSolutionPath(solutionPath, tileWorld.getWidth());
         results.setBestPathCost(end.getTentativeCost());
         results.setNodesExpanded(nodesExpanded);
+        collectCounters(results, nodesExpanded);
+        notifyPathFound(solutionPath, end.getTentativeCost());
         
         return results;
     }
     
+    /**
+     * @param searchListener the listener of the following searches, null for none
+     */
+    public void setSearchListener(I_SearchListener searchListener) {
+        this.searchListener = searchListener;
+    }
+    
+    /**
+     * @return the listener of the searches, null if none
+     */
+    public I_SearchListener getSearchListener() {
+        return searchListener;
+    }
+    
+    /**
+     * 
+     * Tell the listener, if any, that a search starts
+     * 
+     * @param start the start Node
+     * @param end the end/destination Node
+     */
+    protected final void notifySearchStarted(Node start, Node end) {
+        if(searchListener != null) {
+            searchListener.searchStarted(start.getX(), start.getY(), end.getX(), end.getY());
+        }
+    }
+    
+    /**
+     * 
+     * Tell the listener, if any, that a Node is put on the open list
+     * 
+     * @param node the Node, with its new tentative cost
+     */
+    protected final void notifyOpened(Node node) {
+        if(searchListener != null) {
+            searchListener.nodeOpened(node.getX(), node.getY(), node.getTentativeCost());
+        }
+    }
+    
+    /**
+     * @see #notifyOpened(searcher.strategy.Node)
+     */
+    protected final void notifyOpened(int x, int y, int cost) {
+        if(searchListener != null) {
+            searchListener.nodeOpened(x, y, cost);
+        }
+    }
+    
+    /**
+     * 
+     * Tell the listener, if any, that a Node is expanded
+     * 
+     * @param node the Node
+     */
+    protected final void notifyClosed(Node node) {
+        if(searchListener != null) {
+            searchListener.nodeClosed(node.getX(), node.getY(), node.getTentativeCost());
+        }
+    }
+    
+    /**
+     * @see #notifyClosed(searcher.strategy.Node)
+     */
+    protected final void notifyClosed(int x, int y, int cost) {
+        if(searchListener != null) {
+            searchListener.nodeClosed(x, y, cost);
+        }
+    }
+    
+    /**
+     * 
+     * Tell the listener, if any, that the path is found
+     * 
+     * @param path one-dimensional indices of the tiles, from start to end
+     * @param cost the cost of the path
+     */
+    protected final void notifyPathFound(int[] path, int cost) {
+        if(searchListener != null) {
+            searchListener.pathFound(path, tileWorld.getWidth(), cost);
+        }
+    }
+    
     /**
      * 
      * Set the tentative cost of the start Node to 0.
@@ -149,7 +362,15 @@ public abstract class Strategy implements I_Cost {
      * @param start
      * @param end 
      */
-    private void setup(Node start, Node end) {
+    protected void setup(Node start, Node end) {
+        SetupEvent event = new SetupEvent();
+        event.begin();
+        
+        int width = grid.length;
+        if(heuristicField == null || heuristicField.length < width * grid[0].length) {
+            heuristicField = new int[width * grid[0].length];
+        }
+        calculateHeuristicField(end, heuristicField);
         
         for(int currentY = 0; currentY < grid[1].length; ++currentY) { // Iterate over Y-Axis
             
@@ -167,11 +388,29 @@ public abstract class Strategy implements I_Cost {
                     
                 }
                 
-                current.setHeuristicCost(NodeUtilities.calculateCustomHeuristic(current, end));
+                current.setHeuristicCost(heuristicField[currentY * width + currentX]);
 
             }
         }
         
+        if(event.shouldCommit()) {
+            event.strategy = getClass().getSimpleName();
+            event.width = tileWorld.getWidth();
+            event.height = tileWorld.getHeight();
+            event.commit();
+        }
+    }
+    
+    /**
+     * 
+     * Fill the heuristic value of every Node at once, with the grid kernels of 
+     * this JVM (see GridKernels).
+     * 
+     * @param end the end/destination Node
+     * @param field the heuristic values, indexed by y * width + x
+     */
+    protected void calculateHeuristicField(Node end, int[] field) {
+        GridKernels.get().octileField(grid.length, grid[0].length, end.getX(), end.getY(), field);
     }
     
     /**
@@ -180,4 +419,198 @@ public abstract class Strategy implements I_Cost {
      */
     protected abstract Comparator<Node> getComparator();
     
+    /**
+     * @return the tileWorld
+     */
+    protected I_TileWorld getTileWorld() {
+        return tileWorld;
+    }
+    
+    /**
+     * @return the grid
+     */
+    protected Node[][] getGrid() {
+        return grid;
+    }
+    
+    /**
+     * @return the open list
+     */
+    protected PriorityQueue<Node> getUnsettledNodes() {
+        return unsettledNodes;
+    }
+    
+    /**
+     * The state of a search between its slices
+     */
+    abstract class Search implements I_SearchHandle {
+        
+        private SearchStatus status = SearchStatus.RUNNING;
+        private AlgorithmResults results;
+        private long time;
+        protected int nodesExpanded;
+        
+        /**
+         * Called by start(), may finish the search right away
+         */
+        abstract void begin();
+        
+        /**
+         * 
+         * @param deadlineNanos value of System.nanoTime() at which to stop, NO_DEADLINE for none
+         * @param maxExpansions maximum number of Nodes to expand
+         * @return the results if the search is done, null if it is still running
+         */
+        abstract AlgorithmResults resume(long deadlineNanos, int maxExpansions);
+        
+        final void finish(AlgorithmResults results) {
+            results.setTime(time);
+            this.results = results;
+            this.status = results.getBestPathCost() < 0 ? SearchStatus.FAILED : SearchStatus.FOUND;
+        }
+        
+        @Override
+        public final SearchStatus step(int maxExpansions) {
+            return step(NO_DEADLINE, maxExpansions);
+        }
+        
+        @Override
+        public final SearchStatus stepUntil(long deadlineNanos) {
+            return step(deadlineNanos, NO_LIMIT);
+        }
+        
+        @Override
+        public final SearchStatus step(long deadlineNanos, int maxExpansions) {
+            if(status != SearchStatus.RUNNING) {
+                return status;
+            }
+            if(currentSearch != this) {
+                throw new IllegalStateException("Another search of the strategy was started");
+            }
+            
+            long timeStart = System.nanoTime();
+            AlgorithmResults done = resume(deadlineNanos, maxExpansions);
+            time += System.nanoTime() - timeStart;
+            if(done != null) {
+                finish(done);
+            }
+            return status;
+        }
+        
+        @Override
+        public final SearchStatus getStatus() {
+            return status;
+        }
+        
+        @Override
+        public final AlgorithmResults getResults() {
+            return results;
+        }
+        
+        @Override
+        public final int getNodesExpanded() {
+            return nodesExpanded;
+        }
+        
+        @Override
+        public final long getTime() {
+            return time;
+        }
+    }
+    
+    /**
+     * Best-first search on the open list, ordered by the Comparator of the strategy
+     */
+    private final class BestFirstSearch extends Search {
+        
+        private Node start;
+        private Node end;
+        private final SearchEvent event = new SearchEvent();
+        
+        @Override
+        void begin() {
+            start = getStartNode();
+            end = getEndNode();
+            
+            resetCounters();
+            if(!isReachable(start, end)) {
+                finish(unreachableResults());
+                return;
+            }
+            setup(start, end);
+            notifySearchStarted(start, end);
+            
+            event.begin();
+            
+            unsettledNodes.clear();
+            unsettledNodes.add(start);
+            heapPushes++;
+            peakOpenSize = 1;
+        }
+        
+        @Override
+        AlgorithmResults resume(long deadlineNanos, int maxExpansions) {
+            PriorityQueue<Node> unsettledNodes = Strategy.this.unsettledNodes;
+            int sliceExpansions = 0;
+            
+            while(!unsettledNodes.isEmpty()) {
+                
+                if(sliceExpansions >= maxExpansions 
+                        || (deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos >= 0)) {
+                    return null;
+                }
+                
+                Node current = unsettledNodes.poll();
+                heapPops++;
+                
+                if(current.equals(end)) {
+                    commitSearchEvent(event, current.getTentativeCost(), nodesExpanded);
+                    return processResults(current, nodesExpanded);
+                }
+                notifyClosed(current);
+                
+                for(int mask = current.getNeighborMask(); mask != 0; mask &= mask - 1) {
+                    
+                    int direction = Integer.numberOfTrailingZeros(mask);
+                    Node other = current.getNeighbor(direction);
+                    if(other.isVisited()) {
+                        continue;
+                    }
+                    
+                    nodesGenerated++;
+                    boolean open = unsettledNodes.remove(other);
+                    int potentialCost = current.getTentativeCost() 
+                            + current.getCostTo(direction);
+                    
+                    if(other.getTentativeCost() >= potentialCost) {
+                        
+                        if(open && other.getTentativeCost() > potentialCost) {
+                            decreaseKeys++;
+                        }
+                        other.setTentativeCost(potentialCost);
+                        other.setPredecessor(current);
+                        notifyOpened(other);
+                        
+                    }
+                    unsettledNodes.add(other);
+                    heapPushes++;
+                    
+                }
+                
+                if(unsettledNodes.size() > peakOpenSize) {
+                    peakOpenSize = unsettledNodes.size();
+                }
+                current.setVisited(true);
+                nodesExpanded++;
+                sliceExpansions++;
+            
+            }
+            
+            commitSearchEvent(event, -1, nodesExpanded);
+            AlgorithmResults results = new AlgorithmResults(-1, nodesExpanded);
+            collectCounters(results, nodesExpanded);
+            return results;
+        }
+    }
+    
 }
@@ -0,0 +1,223 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.trace;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import searcher.I_SearchListener;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Reads a trace written by a SearchTraceWriter and replays its searches to a 
+ * listener, in the order in which they were recorded: a TraceStatistics, a 
+ * TraceRenderer or any other I_SearchListener.
+ */
+public final class SearchTraceReader implements Closeable {
+    
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(SearchTraceWriter.BUFFER_SIZE);
+    private final int width;
+    private final int height;
+    private final String label;
+    private boolean endOfChannel;
+    
+    /**
+     * 
+     * @param channel the channel the trace is read from, which is closed by close()
+     * @throws IOException if the channel does not start with a trace header
+     */
+    public SearchTraceReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        buffer.limit(0);
+        
+        require(Integer.BYTES + Short.BYTES);
+        if(buffer.getInt() != SearchTraceWriter.MAGIC) {
+            throw new IOException("Not a search trace");
+        }
+        short version = buffer.getShort();
+        if(version != SearchTraceWriter.VERSION) {
+            throw new IOException("Unsupported search trace version: " + version);
+        }
+        
+        require(2 * Integer.BYTES + Short.BYTES);
+        width = buffer.getInt();
+        height = buffer.getInt();
+        byte[] labelBytes = new byte[buffer.getShort()];
+        require(labelBytes.length);
+        buffer.get(labelBytes);
+        label = new String(labelBytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * 
+     * @param file the file the trace is read from
+     * @return the reader
+     * @throws IOException 
+     */
+    public static SearchTraceReader open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            return new SearchTraceReader(channel);
+        } catch(IOException ioexp) {
+            channel.close();
+            throw ioexp;
+        }
+    }
+    
+    /**
+     * 
+     * Replay the rest of the trace.
+     * 
+     * @param listener the listener that gets the recorded events
+     * @return the number of records replayed
+     * @throws IOException if the trace can not be read or is damaged
+     */
+    public long replay(I_SearchListener listener) throws IOException {
+        long records = 0;
+        long previousIndex = 0;
+        
+        while(fill(SearchTraceWriter.MAX_RECORD_BYTES)) {
+            byte type = buffer.get();
+            
+            if(type == SearchTraceWriter.OPENED || type == SearchTraceWriter.CLOSED) {
+                long index = previousIndex + unzigzag(getVarLong());
+                int cost = (int) getVarLong();
+                if(type == SearchTraceWriter.OPENED) {
+                    listener.nodeOpened(getX(index), getY(index), cost);
+                } else {
+                    listener.nodeClosed(getX(index), getY(index), cost);
+                }
+                previousIndex = index;
+            } else if(type == SearchTraceWriter.START) {
+                long start = getVarLong();
+                long end = getVarLong();
+                listener.searchStarted(getX(start), getY(start), getX(end), getY(end));
+                previousIndex = start;
+            } else if(type == SearchTraceWriter.PATH) {
+                int cost = (int) getVarLong();
+                int[] path = new int[(int) getVarLong()];
+                long index = 0;
+                for(int position = 0; position < path.length; ++position) {
+                    fill(SearchTraceWriter.MAX_RECORD_BYTES);
+                    index += unzigzag(getVarLong());
+                    path[position] = (int) index;
+                }
+                listener.pathFound(path, width, cost);
+            } else {
+                throw new IOException("Damaged search trace, record type " + type);
+            }
+            records++;
+        }
+        return records;
+    }
+    
+    /**
+     * @return the width of the tile world
+     */
+    public int getWidth() {
+        return width;
+    }
+    
+    /**
+     * @return the height of the tile world
+     */
+    public int getHeight() {
+        return height;
+    }
+    
+    /**
+     * @return the description of the search
+     */
+    public String getLabel() {
+        return label;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    private int getX(long index) {
+        return (int) (index % width);
+    }
+    
+    private int getY(long index) {
+        return (int) (index / width);
+    }
+    
+    /**
+     * 
+     * Read from the channel until a number of bytes is buffered or the channel ends.
+     * 
+     * @param bytes the number of bytes
+     * @return false if nothing is left
+     * @throws IOException 
+     */
+    private boolean fill(int bytes) throws IOException {
+        if(buffer.remaining() < bytes && !endOfChannel) {
+            buffer.compact();
+            while(buffer.position() < bytes && !endOfChannel) {
+                endOfChannel = channel.read(buffer) < 0;
+            }
+            buffer.flip();
+        }
+        return buffer.hasRemaining();
+    }
+    
+    private void require(int bytes) throws IOException {
+        fill(bytes);
+        if(buffer.remaining() < bytes) {
+            throw new EOFException("Truncated search trace");
+        }
+    }
+    
+    private long getVarLong() throws IOException {
+        long value = 0;
+        for(int shift = 0; shift < Long.SIZE; shift += 7) {
+            if(!buffer.hasRemaining()) {
+                throw new EOFException("Truncated search trace");
+            }
+            byte part = buffer.get();
+            value |= (long) (part & 0x7F) << shift;
+            if(part >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Damaged search trace, varint too long");
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+}
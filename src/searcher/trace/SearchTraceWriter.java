@@ -0,0 +1,256 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.trace;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import searcher.I_SearchListener;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Records the searches of a Solver in a compact binary trace, through a buffer 
+ * that is written to a channel when it is full, so that a search can be replayed 
+ * exactly with a SearchTraceReader.
+ * 
+ * The trace starts with a header: MAGIC, VERSION, the width and height of the 
+ * tile world and a label. Then follow the records, each a type byte and varints:
+ * START with the indices of the start and end tiles, OPENED and CLOSED with the 
+ * difference from the index of the previous tile (zigzag encoded) and the cost, 
+ * and PATH with the cost, the length and the differences of the indices. Most 
+ * records take 3 to 5 bytes. A trace may hold more than one search.
+ * 
+ * The listener methods can not throw, so the first IOException is kept and 
+ * thrown by flush() and close(); later events are not written.
+ */
+public final class SearchTraceWriter implements I_SearchListener, Closeable {
+    
+    public static final int MAGIC = 0x50545243;
+    public static final short VERSION = 1;
+    static final byte START = 1;
+    static final byte OPENED = 2;
+    static final byte CLOSED = 3;
+    static final byte PATH = 4;
+    /**
+     * A type byte and two varints of at most 10 bytes
+     */
+    static final int MAX_RECORD_BYTES = 21;
+    static final int BUFFER_SIZE = 1 << 16;
+    
+    private final WritableByteChannel channel;
+    /**
+     * The records are put in the array, which is written through the buffer
+     */
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private int position;
+    private final int width;
+    private long previousIndex;
+    private long records;
+    private IOException error;
+    
+    /**
+     * 
+     * @param channel the channel the trace is written to, which is closed by close()
+     * @param width the width of the tile world
+     * @param height the height of the tile world
+     * @param label a description of the search, e.g. the world and the strategy
+     * @throws IOException 
+     */
+    public SearchTraceWriter(WritableByteChannel channel, int width, int height, String label) throws IOException {
+        this.channel = channel;
+        this.width = width;
+        
+        byte[] labelBytes = label.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(width);
+        buffer.putInt(height);
+        buffer.putShort((short) Math.min(labelBytes.length, Short.MAX_VALUE));
+        buffer.put(labelBytes, 0, Math.min(labelBytes.length, Short.MAX_VALUE));
+        position = buffer.position();
+        writeBuffer();
+    }
+    
+    /**
+     * 
+     * @param file the file the trace is written to, replaced if it exists
+     * @param width the width of the tile world
+     * @param height the height of the tile world
+     * @param label a description of the search
+     * @return the writer
+     * @throws IOException 
+     */
+    public static SearchTraceWriter open(File file, int width, int height, String label) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, 
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        return new SearchTraceWriter(channel, width, height, label);
+    }
+
+    @Override
+    public void searchStarted(int startX, int startY, int endX, int endY) {
+        if(!reserve(MAX_RECORD_BYTES)) {
+            return;
+        }
+        bytes[position++] = START;
+        putVarLong(toIndex(startX, startY));
+        putVarLong(toIndex(endX, endY));
+        previousIndex = toIndex(startX, startY);
+        records++;
+    }
+
+    @Override
+    public void nodeOpened(int x, int y, int cost) {
+        putTile(OPENED, x, y, cost);
+    }
+
+    @Override
+    public void nodeClosed(int x, int y, int cost) {
+        putTile(CLOSED, x, y, cost);
+    }
+
+    @Override
+    public void pathFound(int[] path, int width, int cost) {
+        if(!reserve(MAX_RECORD_BYTES)) {
+            return;
+        }
+        bytes[position++] = PATH;
+        putVarLong(cost);
+        putVarLong(path.length);
+        
+        long previous = 0;
+        for(int position = 0; position < path.length; ++position) {
+            long index = toIndex(path[position] % width, path[position] / width);
+            if(!reserve(MAX_RECORD_BYTES)) {
+                return;
+            }
+            putVarLong(zigzag(index - previous));
+            previous = index;
+        }
+        records++;
+    }
+    
+    /**
+     * @return the number of records written so far
+     */
+    public long getRecords() {
+        return records;
+    }
+    
+    /**
+     * 
+     * Write the buffered records to the channel.
+     * 
+     * @throws IOException the first error of writing the trace
+     */
+    public void flush() throws IOException {
+        if(error == null) {
+            try {
+                writeBuffer();
+            } catch(IOException ioexp) {
+                error = ioexp;
+            }
+        }
+        if(error != null) {
+            throw error;
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+    
+    private void putTile(byte type, int x, int y, int cost) {
+        if(!reserve(MAX_RECORD_BYTES)) {
+            return;
+        }
+        long index = toIndex(x, y);
+        bytes[position++] = type;
+        putVarLong(zigzag(index - previousIndex));
+        putVarLong(cost);
+        previousIndex = index;
+        records++;
+    }
+    
+    private long toIndex(int x, int y) {
+        return (long) y * width + x;
+    }
+    
+    /**
+     * 
+     * Make room for a number of bytes, writing the buffer if needed.
+     * 
+     * @param count the number of bytes
+     * @return false if the trace has failed
+     */
+    private boolean reserve(int count) {
+        if(position + count <= BUFFER_SIZE) {
+            return true;
+        }
+        if(error != null) {
+            return false;
+        }
+        try {
+            writeBuffer();
+            return true;
+        } catch(IOException ioexp) {
+            error = ioexp;
+            return false;
+        }
+    }
+    
+    private void writeBuffer() throws IOException {
+        buffer.limit(position).position(0);
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        position = 0;
+    }
+    
+    private void putVarLong(long value) {
+        while((value & ~0x7FL) != 0) {
+            bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+}
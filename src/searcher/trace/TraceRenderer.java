@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.trace;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+import searcher.I_SearchListener;
+import tileworld.I_TileWorld;
+import tileworld.TileType;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Renders the last search of a trace onto an image of its tile world, with one 
+ * pixel per tile: the open and closed tiles are tinted and the path is drawn on top.
+ */
+public final class TraceRenderer implements I_SearchListener {
+    
+    private static final int OPEN_COLOR = 0xFFA500;
+    private static final int CLOSED_COLOR = 0x6A5ACD;
+    private static final int PATH_COLOR = 0xFF00FF;
+    
+    private final BufferedImage image;
+    private final int[] pixels;
+    private final int[] tiles;
+    private final int width;
+    
+    /**
+     * 
+     * @param tileWorld the tile world of the trace
+     */
+    public TraceRenderer(I_TileWorld tileWorld) {
+        this(tileWorld.getWidth(), tileWorld.getHeight());
+        for(int y = 0; y < tileWorld.getHeight(); ++y) {
+            
+            for(int x = 0; x < width; ++x) {
+                tiles[y * width + x] = tileWorld.getTileType(x, y).getRgbColor() & 0xFFFFFF;
+            }
+        }
+        System.arraycopy(tiles, 0, pixels, 0, tiles.length);
+    }
+    
+    /**
+     * A renderer without tile world draws the search on roads.
+     * 
+     * @param width the width of the tile world of the trace
+     * @param height the height of the tile world of the trace
+     */
+    public TraceRenderer(int width, int height) {
+        this.width = width;
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        this.tiles = new int[width * height];
+        Arrays.fill(tiles, TileType.ROAD.getRgbColor() & 0xFFFFFF);
+        System.arraycopy(tiles, 0, pixels, 0, tiles.length);
+    }
+
+    @Override
+    public void searchStarted(int startX, int startY, int endX, int endY) {
+        System.arraycopy(tiles, 0, pixels, 0, tiles.length);
+    }
+
+    @Override
+    public void nodeOpened(int x, int y, int cost) {
+        int index = y * width + x;
+        if(pixels[index] == tiles[index]) {
+            pixels[index] = blend(tiles[index], OPEN_COLOR);
+        }
+    }
+
+    @Override
+    public void nodeClosed(int x, int y, int cost) {
+        int index = y * width + x;
+        pixels[index] = blend(tiles[index], CLOSED_COLOR);
+    }
+
+    @Override
+    public void pathFound(int[] path, int width, int cost) {
+        for(int index : path) {
+            pixels[(index / width) * this.width + index % width] = PATH_COLOR;
+        }
+    }
+    
+    /**
+     * @return the image, which changes with later events
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+    
+    /**
+     * 
+     * Write the image as png.
+     * 
+     * @param file the file
+     * @throws IOException 
+     */
+    public void write(File file) throws IOException {
+        ImageIO.write(image, "png", file);
+    }
+    
+    /**
+     * 
+     * @return the average of two RGB colors
+     */
+    private static int blend(int color, int tint) {
+        return ((color & 0xFEFEFE) >>> 1) + ((tint & 0xFEFEFE) >>> 1);
+    }
+    
+}
@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.trace;
+
+import java.io.File;
+import java.io.IOException;
+import searcher.I_SearchListener;
+import searcher.SearchListeners;
+import tileworld.I_TileWorld;
+import tileworld.TileWorld;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * The replay tool: prints the statistics of a trace and renders its last search.
+ */
+public final class TraceReplay {
+    
+    private TraceReplay() {
+    }
+    
+    /**
+     * 
+     * Entry point of the replay mode. Expected arguments:
+     * <trace> [-world file] [-image file]
+     * Without world the search is rendered on roads; without image it is not rendered.
+     * 
+     * @param args The command line options/arguments (without "replay").
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("A trace is expected");
+            printUsage();
+            return;
+        }
+        
+        String world = null;
+        String image = null;
+        for (int i = 1; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                System.out.println("Missing value for " + args[i]);
+                printUsage();
+                return;
+            } else if ("-world".equals(args[i])) {
+                world = args[i + 1];
+            } else if ("-image".equals(args[i])) {
+                image = args[i + 1];
+            } else {
+                System.out.println("Illegal argument: " + args[i]);
+                printUsage();
+                return;
+            }
+        }
+        
+        try {
+            SearchTraceReader reader = SearchTraceReader.open(new File(args[0]));
+            try {
+                TraceStatistics statistics = new TraceStatistics(reader.getWidth());
+                TraceRenderer renderer = null;
+                I_SearchListener listener = statistics;
+                
+                if (image != null) {
+                    renderer = world == null 
+                            ? new TraceRenderer(reader.getWidth(), reader.getHeight()) 
+                            : new TraceRenderer(loadWorld(world, reader));
+                    listener = new SearchListeners(statistics, renderer);
+                }
+                reader.replay(listener);
+                
+                System.out.println("Trace: " + reader.getLabel() + " (" + reader.getWidth() + "x" + reader.getHeight() + ")");
+                statistics.print(System.out);
+                if (renderer != null) {
+                    renderer.write(new File(image));
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException ioexp) {
+            System.err.println("Trace cannot be replayed: " + ioexp.getMessage());
+        }
+    }
+    
+    /**
+     * Prints on screen how to run the replay mode
+     */
+    private static void printUsage() {
+        System.out.println("Usage:");
+        System.out.println("  java -jar Search.jar replay <trace> [-world file] [-image file]");
+        System.out.println("Examples:");
+        System.out.println("  java -jar Search.jar replay traces/i1_A_STAR.trace -world input/i1.png -image i1_trace.png");
+    }
+    
+    private static I_TileWorld loadWorld(String file, SearchTraceReader reader) throws IOException {
+        I_TileWorld tileWorld = new TileWorld(new File(file));
+        if (tileWorld.getWidth() != reader.getWidth() || tileWorld.getHeight() != reader.getHeight()) {
+            throw new IOException("The size of " + file + " does not match the trace");
+        }
+        return tileWorld;
+    }
+    
+}
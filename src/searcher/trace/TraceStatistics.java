@@ -0,0 +1,185 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.trace;
+
+import java.io.PrintStream;
+import java.util.BitSet;
+import searcher.I_SearchListener;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Computes the statistics of the searches of a trace. The size of the open list 
+ * is reconstructed from the events: a tile is open from the first OPENED event 
+ * until its CLOSED event, which is exact for the open lists that keep a tile once.
+ */
+public final class TraceStatistics implements I_SearchListener {
+    
+    private final BitSet open = new BitSet();
+    private final BitSet closed = new BitSet();
+    private final int width;
+    private int openSize;
+    
+    private int searches;
+    private long expansions;
+    private long reexpansions;
+    private long relaxations;
+    private int peakOpenSize;
+    private int pathsFound;
+    private int pathCost = -1;
+    private int pathLength;
+    
+    /**
+     * 
+     * @param width the width of the tile world of the trace
+     */
+    public TraceStatistics(int width) {
+        this.width = width;
+    }
+
+    @Override
+    public void searchStarted(int startX, int startY, int endX, int endY) {
+        searches++;
+        open.clear();
+        closed.clear();
+        openSize = 0;
+        // the start is open before the first event
+        setOpen(startX, startY);
+    }
+
+    @Override
+    public void nodeOpened(int x, int y, int cost) {
+        relaxations++;
+        setOpen(x, y);
+    }
+
+    @Override
+    public void nodeClosed(int x, int y, int cost) {
+        expansions++;
+        int index = getIndex(x, y);
+        if(open.get(index)) {
+            open.clear(index);
+            openSize--;
+        }
+        if(closed.get(index)) {
+            reexpansions++;
+        }
+        closed.set(index);
+    }
+
+    @Override
+    public void pathFound(int[] path, int width, int cost) {
+        pathsFound++;
+        pathCost = cost;
+        pathLength = path.length;
+    }
+    
+    /**
+     * 
+     * Prints the statistics.
+     * 
+     * @param out the stream to print on
+     */
+    public void print(PrintStream out) {
+        out.println("#searches: " + searches);
+        out.println("#expansions: " + expansions);
+        out.println("#re-expansions: " + reexpansions);
+        out.println("#relaxations: " + relaxations);
+        out.println("#peak open list: " + peakOpenSize);
+        out.println("#paths found: " + pathsFound);
+        out.println("#path cost: " + pathCost);
+        out.println("#path length: " + pathLength + " cells");
+    }
+    
+    private void setOpen(int x, int y) {
+        int index = getIndex(x, y);
+        if(!open.get(index) && !closed.get(index)) {
+            open.set(index);
+            openSize++;
+            peakOpenSize = Math.max(peakOpenSize, openSize);
+        }
+    }
+    
+    private int getIndex(int x, int y) {
+        return y * width + x;
+    }
+    
+    /**
+     * @return the number of searches
+     */
+    public int getSearches() {
+        return searches;
+    }
+    
+    /**
+     * @return the number of CLOSED events
+     */
+    public long getExpansions() {
+        return expansions;
+    }
+    
+    /**
+     * @return the number of CLOSED events of tiles that were closed before in the same search
+     */
+    public long getReexpansions() {
+        return reexpansions;
+    }
+    
+    /**
+     * @return the number of OPENED events
+     */
+    public long getRelaxations() {
+        return relaxations;
+    }
+    
+    /**
+     * @return the largest reconstructed size of the open list
+     */
+    public int getPeakOpenSize() {
+        return peakOpenSize;
+    }
+    
+    /**
+     * @return the number of paths found
+     */
+    public int getPathsFound() {
+        return pathsFound;
+    }
+    
+    /**
+     * @return the cost of the last path found, -1 if none
+     */
+    public int getPathCost() {
+        return pathCost;
+    }
+    
+    /**
+     * @return the length in tiles of the last path found
+     */
+    public int getPathLength() {
+        return pathLength;
+    }
+    
+}
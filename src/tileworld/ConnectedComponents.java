@@ -0,0 +1,326 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package tileworld;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Connected components of the walkable tiles of a tile world. Tiles are connected
+ * like the Nodes of the Solver: straight and diagonally adjacent tiles that are not
+ * NONWALKABLE. Two tiles in different components can not reach each other, so
+ * such a query can be rejected without searching.
+ * 
+ * The labels are computed when the tile world is created and kept up to date by
+ * tileChanged(). A tile that becomes walkable merges the components around it 
+ * (union-find on the labels). A tile that becomes NONWALKABLE can only split its
+ * component when its walkable neighbours are not connected to each other directly;
+ * only then the labels are marked outdated and computed again on the next query.
+ */
+public final class ConnectedComponents implements I_TileListener {
+    
+    /**
+     * The component of a NONWALKABLE tile
+     */
+    public static final int NO_COMPONENT = -1;
+    /**
+     * The neighbours of a tile in clockwise order, starting at the top
+     */
+    private static final int[] RING_X = { 0, 1, 1, 1, 0, -1, -1, -1 };
+    private static final int[] RING_Y = { -1, -1, 0, 1, 1, 1, 0, -1 };
+    
+    private final I_TileWorld tileWorld;
+    private final int width;
+    private final int height;
+    /**
+     * The label of every tile (one-dimensional index), NO_COMPONENT if NONWALKABLE
+     */
+    private final int[] labels;
+    /**
+     * The union-find parent of every label
+     */
+    private int[] parents;
+    private int labelCount;
+    private int componentCount;
+    private boolean outdated;
+    
+    public ConnectedComponents(I_TileWorld tileWorld) {
+        this.tileWorld = tileWorld;
+        this.width = tileWorld.getWidth();
+        this.height = tileWorld.getHeight();
+        this.labels = new int[width * height];
+        this.parents = new int[16];
+        label();
+    }
+    
+    /**
+     * 
+     * Label all tiles with a flood fill per component.
+     * 
+     */
+    private void label() {
+        Arrays.fill(labels, NO_COMPONENT);
+        labelCount = 0;
+        componentCount = 0;
+        outdated = false;
+        
+        int[] queue = new int[labels.length];
+        for(int index = 0; index < labels.length; ++index) {
+            
+            if(labels[index] != NO_COMPONENT || !isWalkable(index % width, index / width)) {
+                continue;
+            }
+            
+            int label = newLabel();
+            int head = 0;
+            int tail = 0;
+            labels[index] = label;
+            queue[tail++] = index;
+            
+            while(head < tail) {
+                int current = queue[head++];
+                int x = current % width;
+                int y = current / width;
+                
+                for(int direction = 0; direction < RING_X.length; ++direction) {
+                    int otherX = x + RING_X[direction];
+                    int otherY = y + RING_Y[direction];
+                    int other = otherY * width + otherX;
+                    
+                    if(isWalkable(otherX, otherY) && labels[other] == NO_COMPONENT) {
+                        labels[other] = label;
+                        queue[tail++] = other;
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * 
+     * @return a new label, which is its own component
+     */
+    private int newLabel() {
+        if(labelCount == parents.length) {
+            parents = Arrays.copyOf(parents, parents.length * 2);
+        }
+        parents[labelCount] = labelCount;
+        componentCount++;
+        return labelCount++;
+    }
+    
+    /**
+     * 
+     * @param label a label
+     * @return the label representing the component of the label
+     */
+    private int find(int label) {
+        while(parents[label] != label) {
+            parents[label] = parents[parents[label]];
+            label = parents[label];
+        }
+        return label;
+    }
+    
+    /**
+     * 
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return true if the tile is inside the world and not NONWALKABLE
+     */
+    private boolean isWalkable(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height
+                && tileWorld.getTileType(x, y) != TileType.NONWALKABLE;
+    }
+    
+    @Override
+    public synchronized void tileChanged(I_TileWorld tileWorld, int x, int y, TileType oldType, TileType newType) {
+        boolean wasWalkable = oldType != TileType.NONWALKABLE;
+        boolean walkable = newType != TileType.NONWALKABLE;
+        if(outdated || wasWalkable == walkable) {
+            return;
+        }
+        
+        int index = y * width + x;
+        if(walkable) {
+            join(x, y, index);
+        } else {
+            labels[index] = NO_COMPONENT;
+            outdated = !isRingConnected(x, y);
+        }
+    }
+    
+    /**
+     * 
+     * Label a tile that became walkable, merging the components around it.
+     * 
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @param index The one-dimensional index of the tile.
+     */
+    private void join(int x, int y, int index) {
+        int label = NO_COMPONENT;
+        
+        for(int direction = 0; direction < RING_X.length; ++direction) {
+            int otherX = x + RING_X[direction];
+            int otherY = y + RING_Y[direction];
+            if(!isWalkable(otherX, otherY)) {
+                continue;
+            }
+            
+            int other = find(labels[otherY * width + otherX]);
+            if(label == NO_COMPONENT) {
+                label = other;
+            } else if(other != label) {
+                parents[other] = label;
+                componentCount--;
+            }
+        }
+        
+        labels[index] = label == NO_COMPONENT ? newLabel() : label;
+    }
+    
+    /**
+     * 
+     * Check if the walkable neighbours of a tile are connected without the tile: 
+     * neighbours next to each other in the ring are adjacent, and so are two 
+     * straight neighbours around a corner.
+     * 
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return true if removing the tile can not split its component
+     */
+    private boolean isRingConnected(int x, int y) {
+        int walkable = 0;
+        for(int direction = 0; direction < RING_X.length; ++direction) {
+            if(isWalkable(x + RING_X[direction], y + RING_Y[direction])) {
+                walkable |= 1 << direction;
+            }
+        }
+        if(walkable == 0) {
+            componentCount--;
+            return true;
+        }
+        
+        int reached = walkable & -walkable;
+        int previous = 0;
+        while(reached != previous) {
+            previous = reached;
+            int next = rotate(reached, 1) | rotate(reached, -1)
+                    | rotate(reached & 0x55, 2) | rotate(reached & 0x55, -2);
+            reached |= next & walkable;
+        }
+        return reached == walkable;
+    }
+    
+    /**
+     * 
+     * @param ring 8 bits, one per neighbour
+     * @param distance the number of positions to rotate clockwise
+     * @return the rotated bits
+     */
+    private static int rotate(int ring, int distance) {
+        distance = (distance + 8) & 7;
+        return ((ring << distance) | (ring >>> (8 - distance))) & 0xFF;
+    }
+    
+    /**
+     * 
+     * Compute the labels again if an edit may have split a component.
+     * 
+     */
+    private void update() {
+        if(outdated) {
+            label();
+        }
+    }
+    
+    /**
+     * 
+     * @param index The one-dimensional index of the tile.
+     * @return the component of the tile, NO_COMPONENT if it is NONWALKABLE
+     */
+    public synchronized int getComponent(int index) {
+        update();
+        int label = labels[index];
+        return label == NO_COMPONENT ? NO_COMPONENT : find(label);
+    }
+    
+    /**
+     * 
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return the component of the tile, NO_COMPONENT if it is NONWALKABLE
+     */
+    public int getComponent(int x, int y) {
+        return getComponent(y * width + x);
+    }
+    
+    /**
+     * 
+     * @param fromIndex The one-dimensional index of the first tile.
+     * @param toIndex The one-dimensional index of the second tile.
+     * @return true if a path between the tiles may exist, false if it can not
+     */
+    public synchronized boolean isConnected(int fromIndex, int toIndex) {
+        if(fromIndex == toIndex) {
+            return true;
+        }
+        
+        int from = getComponent(fromIndex);
+        return from != NO_COMPONENT && from == getComponent(toIndex);
+    }
+    
+    /**
+     * 
+     * Copy the component of every tile, by one-dimensional index, for bulk 
+     * reachability checks. Tiles with the same value are connected.
+     * 
+     * @param buffer array to copy to, used if it is large enough
+     * @return the components, NO_COMPONENT for NONWALKABLE tiles
+     */
+    public synchronized int[] getComponents(int[] buffer) {
+        update();
+        if(buffer == null || buffer.length < labels.length) {
+            buffer = new int[labels.length];
+        }
+        
+        for(int index = 0; index < labels.length; ++index) {
+            int label = labels[index];
+            buffer[index] = label == NO_COMPONENT ? NO_COMPONENT : find(label);
+        }
+        return buffer;
+    }
+    
+    /**
+     * @return the number of components
+     */
+    public synchronized int getComponentCount() {
+        update();
+        return componentCount;
+    }
+    
+}
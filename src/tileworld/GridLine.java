@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package tileworld;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Walks the tiles crossed by the straight line between the centers of two tiles.
+ * The walk uses exact integer arithmetic: the position on the line is a fraction
+ * getEntry() / getDenominator() of its length, so even very long lines do not 
+ * drift. A line passing exactly through a corner steps diagonally, like a 
+ * diagonal move of the searches.
+ */
+public final class GridLine {
+    
+    private final int endX;
+    private final int endY;
+    private final int stepX;
+    private final int stepY;
+    private final long incrementX;
+    private final long incrementY;
+    private final long denominator;
+    private long nextX;
+    private long nextY;
+    private long entry;
+    private int x;
+    private int y;
+    
+    public GridLine(int fromX, int fromY, int toX, int toY) {
+        long distanceX = Math.abs(toX - fromX);
+        long distanceY = Math.abs(toY - fromY);
+        
+        this.x = fromX;
+        this.y = fromY;
+        this.endX = toX;
+        this.endY = toY;
+        this.stepX = Integer.signum(toX - fromX);
+        this.stepY = Integer.signum(toY - fromY);
+        this.denominator = 2 * Math.max(1, distanceX) * Math.max(1, distanceY);
+        // the line leaves the first tile halfway a tile
+        this.incrementX = 2 * Math.max(1, distanceY);
+        this.incrementY = 2 * Math.max(1, distanceX);
+        this.nextX = distanceX == 0 ? Long.MAX_VALUE : incrementX / 2;
+        this.nextY = distanceY == 0 ? Long.MAX_VALUE : incrementY / 2;
+        this.entry = 0;
+    }
+    
+    /**
+     * 
+     * Move to the next tile on the line
+     * 
+     * @return false if the current tile is the last tile, true otherwise
+     */
+    public boolean next() {
+        if(x == endX && y == endY) {
+            return false;
+        }
+        
+        if(nextX == nextY) {
+            x += stepX;
+            y += stepY;
+            entry = nextX;
+            nextX += incrementX;
+            nextY += incrementY;
+        } else if(nextX < nextY) {
+            x += stepX;
+            entry = nextX;
+            nextX += incrementX;
+        } else {
+            y += stepY;
+            entry = nextY;
+            nextY += incrementY;
+        }
+        return true;
+    }
+    
+    /**
+     * @return the x of the current tile
+     */
+    public int getX() {
+        return x;
+    }
+    
+    /**
+     * @return the y of the current tile
+     */
+    public int getY() {
+        return y;
+    }
+    
+    /**
+     * @return where the line entered the current tile, as numerator of a fraction of its length
+     */
+    public long getEntry() {
+        return entry;
+    }
+    
+    /**
+     * @return the denominator of getEntry(), it also represents the end of the line
+     */
+    public long getDenominator() {
+        return denominator;
+    }
+    
+}
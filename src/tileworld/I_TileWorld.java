@@ -59,6 +59,13 @@ public interface I_TileWorld {
     int getHeight();
     
     int getSize();
+    
+    /**
+     * Gets the name of the tile world, used to identify it in metrics.
+     * 
+     * @return The file name it was loaded from, or its dimensions.
+     */
+    String getName();
 
     /**
      * Gets the tile type from a given tile.
@@ -78,6 +85,51 @@ public interface I_TileWorld {
      */
     void setTileType(int x, int y, TileType type);
     
+    /**
+     * Gets the version of the tile world. The version changes when the world is
+     * loaded and when incrementVersion() is called, not on every setTileType().
+     * 
+     * @return The version.
+     */
+    long getVersion();
+    
+    /**
+     * Starts a new version of the tile world, e.g. after a series of edits.
+     * Everything derived from an older version should be considered outdated.
+     */
+    void incrementVersion();
+    
+    /**
+     * Gets the snapshot of the tile world that was published by the last 
+     * incrementVersion(). The snapshot does not change when the world is edited 
+     * and can be read by other threads without locks.
+     * 
+     * @return The snapshot.
+     */
+    TileSnapshot getSnapshot();
+    
+    /**
+     * Gets the connected components of the walkable tiles, which are kept up 
+     * to date by setTileType().
+     * 
+     * @return The components, or null if the tile world could not be loaded.
+     */
+    ConnectedComponents getComponents();
+    
+    /**
+     * Adds a listener that is called whenever setTileType() changes a tile.
+     * 
+     * @param listener The listener.
+     */
+    void addTileListener(I_TileListener listener);
+    
+    /**
+     * Removes a listener added by addTileListener().
+     * 
+     * @param listener The listener.
+     */
+    void removeTileListener(I_TileListener listener);
+    
     /**
      * Sets the block size.
      * One block represents one pixel of the image.
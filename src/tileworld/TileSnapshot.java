@@ -0,0 +1,170 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package tileworld;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * An immutable version of a TileWorld, published by incrementVersion(). Threads 
+ * can search a snapshot without locks while the world is edited: the tiles are 
+ * kept in chunks of CHUNK_SIZE x CHUNK_SIZE tiles that the world copies before 
+ * its first edit after a snapshot, so a snapshot only costs a table of chunk 
+ * references and the chunks that are edited later.
+ * 
+ * overlay() gives a TileWorld on top of a snapshot, for "what-if" edits such as 
+ * blocking a tile and searching again, that copies only the chunks it edits.
+ */
+public final class TileSnapshot {
+    
+    static final int CHUNK_SHIFT = 6;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    /**
+     * The tile types by ordinal, as stored in the chunks
+     */
+    static final TileType[] TILE_TYPES = TileType.values();
+    
+    private final String name;
+    private final int width;
+    private final int height;
+    private final long version;
+    private final int chunksX;
+    private final byte[][] chunks;
+    
+    /**
+     * 
+     * @param name the name of the tile world
+     * @param width the width of the tile world
+     * @param height the height of the tile world
+     * @param version the version of the tile world
+     * @param chunks the chunks, row by row, which must not change any more; null if
+     * the tile world could not be loaded
+     */
+    TileSnapshot(String name, int width, int height, long version, byte[][] chunks) {
+        this.name = name;
+        this.width = width;
+        this.height = height;
+        this.version = version;
+        this.chunksX = getChunksX(width);
+        this.chunks = chunks;
+    }
+    
+    /**
+     * 
+     * @param width width of a tile world
+     * @return the number of chunks in a row
+     */
+    static int getChunksX(int width) {
+        return (width + CHUNK_MASK) >> CHUNK_SHIFT;
+    }
+    
+    /**
+     * 
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @param chunksX The number of chunks in a row.
+     * @return The index of the chunk of the tile.
+     */
+    static int getChunk(int x, int y, int chunksX) {
+        return (y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT);
+    }
+    
+    /**
+     * 
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return The index of the tile in its chunk.
+     */
+    static int getOffset(int x, int y) {
+        return (y & CHUNK_MASK) << CHUNK_SHIFT | (x & CHUNK_MASK);
+    }
+    
+    /**
+     * Gets the tile type from a given tile.
+     * 
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return The tile type. If the tile world could not be loaded UNKNOWN is returned.
+     */
+    public TileType getTileType(int x, int y) {
+        if(chunks == null) {
+            return TileType.UNKNOWN;
+        }
+        return TILE_TYPES[chunks[getChunk(x, y, chunksX)][getOffset(x, y)]];
+    }
+    
+    /**
+     * 
+     * @return a new tile world with the tiles of this snapshot, that copies a 
+     * chunk only when it edits it
+     */
+    public TileWorld overlay() {
+        return new TileWorld(this);
+    }
+    
+    /**
+     * 
+     * @return the chunks, shared with the tile worlds that may still copy them on write
+     */
+    byte[][] getChunks() {
+        return chunks;
+    }
+
+    /**
+     * @return the name of the tile world
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+    
+    /**
+     * @return the number of tiles
+     */
+    public int getSize() {
+        return width * height;
+    }
+
+    /**
+     * @return the version of the tile world when the snapshot was published
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+}
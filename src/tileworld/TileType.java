@@ -24,11 +24,13 @@ public enum TileType implements I_RgbColor, I_Cost {
     UNKNOWN(RGB_PINK, INFINITY, INFINITY);
     
     private final int rgbColor;
+    private final Color color;
     private final int cost;
     private final int diagonalCost;
 
     TileType(int rgbColor, int cost, int diagonalCost) {
         this.rgbColor = rgbColor;
+        this.color = new Color(rgbColor);
         this.cost = cost;
         this.diagonalCost = diagonalCost;
     }
@@ -46,7 +48,7 @@ public enum TileType implements I_RgbColor, I_Cost {
     }
     
     public Color getColor() {
-        return new Color(rgbColor);
+        return color;
     }
     
     /**
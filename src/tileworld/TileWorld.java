@@ -1,10 +1,18 @@
 package tileworld;
 
 import utilities.OSDetector;
+import utilities.events.LoadEvent;
+import utilities.events.SaveEvent;
+import utilities.metrics.LatencyHistogram;
+import utilities.metrics.MetricsRegistry;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import javax.imageio.IIOException;
 import javax.imageio.ImageIO;
 import javax.swing.JFrame;
@@ -32,12 +40,30 @@ public class TileWorld implements I_TileWorld {
     private static final int Y_BORDER = 38;
     private static final int NO_INDEX = -1;
     /**
-     * TileWorld attributes
+     * The START or END index is not known and has to be searched for
      */
-    private TileType[][] world = null;
+    private static final int UNKNOWN_INDEX = -2;
+    /**
+     * TileWorld attributes. The tiles are stored as TileType ordinals in chunks, 
+     * see TileSnapshot; a shared chunk is copied before it is edited.
+     */
+    private byte[][] chunks = null;
+    private boolean[] sharedChunks;
+    private int chunksX;
     private int width = 0;
     private int height = 0;
     private int blockSize = DEFAULT_BLOCK_SIZE;
+    private String name;
+    private volatile long version = 0;
+    private final List<I_TileListener> tileListeners = new CopyOnWriteArrayList<I_TileListener>();
+    private ConnectedComponents components;
+    private volatile TileSnapshot snapshot;
+    /**
+     * The indices of START and END, kept up to date by setTileType() so that 
+     * they are not searched for on every call of findStartIndex() and findEndIndex()
+     */
+    private volatile int startIndex = UNKNOWN_INDEX;
+    private volatile int endIndex = UNKNOWN_INDEX;
     /**
      * The directory where all tile world images that will be searched are stored
      */
@@ -52,14 +78,70 @@ public class TileWorld implements I_TileWorld {
      * @param fileName File name representing an image.
      */
     public TileWorld(String fileName) {
-        if(OSDetector.isWindows()) {
-            inputDir = "input\\";
-            outputDir = "output\\";
+        initDirectories();
+        load(fileName);
+    }
+
+    /**
+     * A TileWorld is created and initialized by providing a file.
+     * Unlike TileWorld(String) the file is not looked up in the input directory.
+     * @param file File representing an image.
+     */
+    public TileWorld(File file) {
+        initDirectories();
+        name = file.getName();
+        loadFile(file.getPath());
+        incrementVersion();
+    }
+
+    /**
+     * A TileWorld is created as a copy of another tile world.
+     * A TileWorld shares its chunks with the copy until either edits them, so 
+     * it must not be edited by another thread during the copy.
+     * @param other The tile world to be copied.
+     */
+    public TileWorld(I_TileWorld other) {
+        initDirectories();
+        width = other.getWidth();
+        height = other.getHeight();
+        name = other.getName();
+        if (other instanceof TileWorld) {
+            TileWorld source = (TileWorld) other;
+            chunksX = TileSnapshot.getChunksX(width);
+            chunks = source.shareChunks();
+            if (chunks != null) {
+                sharedChunks = new boolean[chunks.length];
+                Arrays.fill(sharedChunks, true);
+            }
         } else {
-            inputDir = "input/";
-            outputDir = "output/";
+            allocate();
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    setTile(x, y, other.getTileType(x, y));
+                }
+            }
         }
-        load(fileName);
+        publish();
+    }
+
+    /**
+     * A TileWorld is created on top of a snapshot, sharing its chunks until 
+     * they are edited.
+     * @param snapshot The snapshot.
+     */
+    public TileWorld(TileSnapshot snapshot) {
+        initDirectories();
+        width = snapshot.getWidth();
+        height = snapshot.getHeight();
+        name = snapshot.getName();
+        version = snapshot.getVersion();
+        if (snapshot.getChunks() != null) {
+            chunksX = TileSnapshot.getChunksX(width);
+            chunks = snapshot.getChunks().clone();
+            sharedChunks = new boolean[chunks.length];
+            Arrays.fill(sharedChunks, true);
+        }
+        this.snapshot = snapshot;
     }
 
     /**
@@ -70,19 +152,39 @@ public class TileWorld implements I_TileWorld {
     public TileWorld(int width, int height) {
         this.width = width;
         this.height = height;
-        world = new TileType[width][height];
+        allocate();
+        name = width + "x" + height;
+        initDirectories();
         clear();
+        publish();
+    }
+
+    /**
+     * Sets the input and output directory according to the file system.
+     */
+    private static void initDirectories() {
+        if(OSDetector.isWindows()) {
+            inputDir = "input\\";
+            outputDir = "output\\";
+        } else {
+            inputDir = "input/";
+            outputDir = "output/";
+        }
     }
 
     @Override
     public final void load(String fileName) {
-        fileName = inputDir + fileName;
-        BufferedImage image = readImage(fileName);
-        world = imageToWorld(image);
+        name = fileName;
+        loadFile(inputDir + fileName);
+        incrementVersion();
     }
 
     @Override
     public void save(String fileName) {
+        SaveEvent event = new SaveEvent();
+        event.begin();
+        long timeStart = System.nanoTime();
+        
         fileName = outputDir + fileName;
         BufferedImage image = worldToImage();
         if (image == null) {
@@ -90,25 +192,121 @@ public class TileWorld implements I_TileWorld {
         } else {
             writeImage(image, fileName);
         }
+        
+        recordLatency("save", System.nanoTime() - timeStart);
+        if (event.shouldCommit()) {
+            event.file = fileName;
+            event.width = width;
+            event.height = height;
+            event.commit();
+        }
+    }
+
+    /**
+     * Reads the tile world from a file, recording a LoadEvent.
+     * 
+     * @param fileName The path of the file.
+     */
+    private void loadFile(String fileName) {
+        LoadEvent event = new LoadEvent();
+        event.begin();
+        long timeStart = System.nanoTime();
+        
+        BufferedImage image = readImage(fileName);
+        synchronized (this) {
+            imageToWorld(image);
+            components = null;
+            startIndex = UNKNOWN_INDEX;
+            endIndex = UNKNOWN_INDEX;
+        }
+        
+        recordLatency("load", System.nanoTime() - timeStart);
+        if (event.shouldCommit()) {
+            event.file = fileName;
+            event.width = width;
+            event.height = height;
+            event.commit();
+        }
     }
 
     @Override
     public void paint(Graphics g) {
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                g.setColor(world[x][y].getColor());
+        // only the tiles inside the clip
+        Rectangle clip = g.getClipBounds();
+        int firstX = 0, firstY = 0, lastX = width, lastY = height;
+        if (clip != null) {
+            firstX = Math.max(0, clip.x / blockSize);
+            firstY = Math.max(0, clip.y / blockSize);
+            lastX = Math.min(width, (clip.x + clip.width + blockSize - 1) / blockSize);
+            lastY = Math.min(height, (clip.y + clip.height + blockSize - 1) / blockSize);
+        }
+        
+        for (int x = firstX; x < lastX; x++) {
+            for (int y = firstY; y < lastY; y++) {
+                g.setColor(getTileType(x, y).getColor());
                 g.fillRect(x * blockSize, y * blockSize, blockSize - 1, blockSize - 1);
             }
         }
     }
 
+    /**
+     * Records a latency in the default MetricsRegistry, for all worlds together 
+     * and, if metrics per world are enabled, for this world.
+     * 
+     * @param metric The name of the metric.
+     * @param nanos The latency in nanoseconds.
+     */
+    private void recordLatency(String metric, long nanos) {
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        metrics.histogram(metric).record(nanos);
+        LatencyHistogram worldLatency = metrics.worldHistogram(metric, name);
+        if (worldLatency != null) {
+            worldLatency.record(nanos);
+        }
+    }
+
     private void clear() {
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                world[x][y] = TileType.ROAD;
-            }
+        for (byte[] chunk : chunks) {
+            Arrays.fill(chunk, (byte) TileType.ROAD.ordinal());
         }
     }
+    
+    /**
+     * Allocates unshared chunks for width x height tiles.
+     */
+    private void allocate() {
+        chunksX = TileSnapshot.getChunksX(width);
+        chunks = new byte[chunksX * TileSnapshot.getChunksX(height)]
+                [TileSnapshot.CHUNK_SIZE * TileSnapshot.CHUNK_SIZE];
+        sharedChunks = new boolean[chunks.length];
+    }
+    
+    /**
+     * Sets a tile in unshared chunks, without notifying anyone.
+     */
+    private void setTile(int x, int y, TileType type) {
+        chunks[TileSnapshot.getChunk(x, y, chunksX)][TileSnapshot.getOffset(x, y)] = (byte) type.ordinal();
+    }
+    
+    /**
+     * Marks all chunks as shared, so that they are copied before the next edit.
+     * 
+     * @return A copy of the chunk table.
+     */
+    private synchronized byte[][] shareChunks() {
+        if (chunks == null) {
+            return null;
+        }
+        Arrays.fill(sharedChunks, true);
+        return chunks.clone();
+    }
+    
+    /**
+     * Publishes the tiles as the snapshot of the current version.
+     */
+    private void publish() {
+        snapshot = new TileSnapshot(name, width, height, version, shareChunks());
+    }
 
     @Override
     public int getWidth() {
@@ -125,20 +323,89 @@ public class TileWorld implements I_TileWorld {
         return width * height;
     }
 
+    @Override
+    public String getName() {
+        return name;
+    }
+
     @Override
     public TileType getTileType(int x, int y) {
-        if (world == null) {
+        if (chunks == null) {
             return TileType.UNKNOWN;
         } else {
-            return world[x][y];
+            return TileSnapshot.TILE_TYPES[chunks[TileSnapshot.getChunk(x, y, chunksX)][TileSnapshot.getOffset(x, y)]];
         }
     }
 
     @Override
     public void setTileType(int x, int y, TileType type) {
-        if (world != null) {
-            world[x][y] = type;
+        if (chunks != null) {
+            TileType oldType;
+            
+            synchronized (this) {
+                int chunk = TileSnapshot.getChunk(x, y, chunksX);
+                int offset = TileSnapshot.getOffset(x, y);
+                oldType = TileSnapshot.TILE_TYPES[chunks[chunk][offset]];
+                if (oldType == type) {
+                    return;
+                }
+                
+                if (sharedChunks[chunk]) {
+                    chunks[chunk] = chunks[chunk].clone();
+                    sharedChunks[chunk] = false;
+                }
+                chunks[chunk][offset] = (byte) type.ordinal();
+                
+                if (components != null) {
+                    components.tileChanged(this, x, y, oldType, type);
+                }
+                if (oldType == TileType.START || type == TileType.START) {
+                    startIndex = UNKNOWN_INDEX;
+                }
+                if (oldType == TileType.END || type == TileType.END) {
+                    endIndex = UNKNOWN_INDEX;
+                }
+            }
+            if (!tileListeners.isEmpty()) {
+                for (I_TileListener listener : tileListeners) {
+                    listener.tileChanged(this, x, y, oldType, type);
+                }
+            }
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public synchronized void incrementVersion() {
+        version++;
+        publish();
+    }
+
+    @Override
+    public TileSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public synchronized ConnectedComponents getComponents() {
+        if (components == null && chunks != null) {
+            components = new ConnectedComponents(this);
         }
+        return components;
+    }
+
+    @Override
+    public void addTileListener(I_TileListener listener) {
+        tileListeners.add(listener);
+    }
+
+    @Override
+    public void removeTileListener(I_TileListener listener) {
+        tileListeners.remove(listener);
     }
     
     @Override
@@ -192,7 +459,16 @@ public class TileWorld implements I_TileWorld {
      */
     @Override
     public int findStartIndex() {
-        return findIndexContainingType(TileType.START);
+        int index = startIndex;
+        if (index == UNKNOWN_INDEX) {
+            synchronized (this) {
+                if (startIndex == UNKNOWN_INDEX) {
+                    startIndex = findIndexContainingType(TileType.START);
+                }
+                index = startIndex;
+            }
+        }
+        return index;
     }
 
     /**
@@ -201,7 +477,16 @@ public class TileWorld implements I_TileWorld {
      */
     @Override
     public int findEndIndex() {
-        return findIndexContainingType(TileType.END);
+        int index = endIndex;
+        if (index == UNKNOWN_INDEX) {
+            synchronized (this) {
+                if (endIndex == UNKNOWN_INDEX) {
+                    endIndex = findIndexContainingType(TileType.END);
+                }
+                index = endIndex;
+            }
+        }
+        return index;
     }
     
     /**
@@ -301,32 +586,33 @@ public class TileWorld implements I_TileWorld {
 
     /**
      * Converts an image to a tile world.
-     * The attributes 'width' and 'height' are also set.
+     * The attributes 'width' and 'height' and the chunks are set. If the 
+     * image was null, the chunks are set to null.
      * 
      * @param image The image.
-     * @return The tile world. If the image was null, null is returned.
      */
-    private TileType[][] imageToWorld(BufferedImage image) {
+    private void imageToWorld(BufferedImage image) {
         if (image == null) {
-            return null;
+            chunks = null;
+            return;
         }
 
         width = image.getWidth();
         height = image.getHeight();
         int[] rgbWorld = image.getRGB(0, 0, width, height, null, 0, width);
 
-        TileType[][] tileWorld = new TileType[width][height];
+        allocate();
 
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
                 int index = twoDimIndexToOneDimIndex(x, y);
-                tileWorld[x][y] = TileType.rgbColorToTile(rgbWorld[index]);
-                if (tileWorld[x][y] == TileType.UNKNOWN) {
+                TileType type = TileType.rgbColorToTile(rgbWorld[index]);
+                setTile(x, y, type);
+                if (type == TileType.UNKNOWN) {
                     System.err.println("Location: " + index + " (" + x + "," + y + ")");
                 }
             }
         }
-        return tileWorld;
     }
 
     /**
@@ -335,7 +621,7 @@ public class TileWorld implements I_TileWorld {
      * @return The image. If an error occurred null is returned.
      */
     private BufferedImage worldToImage() {
-        if (world == null) {
+        if (chunks == null) {
             return null;
         }
 
@@ -345,7 +631,7 @@ public class TileWorld implements I_TileWorld {
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
                 int index = twoDimIndexToOneDimIndex(x, y);
-                rgbWorld[index] = world[x][y].getRgbColor();
+                rgbWorld[index] = getTileType(x, y).getRgbColor();
             }
         }
 
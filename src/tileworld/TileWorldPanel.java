@@ -1,44 +1,258 @@
 package tileworld;
 
+import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
 import javax.swing.JPanel;
 
 /**
  * TileWorldPanel is a javax.swing.JPanel for showing a tile world.
  * A tile world is represented by a two-dimensional array of tile types.
  * This class is inspired by a previous version by Gerke de Boer.
- * You don't need to edit this.
- * 
+ *
+ * The tiles are kept in an image with one pixel per tile, which is updated when
+ * a tile changes. Only the visible part of that image is drawn, scaled by the
+ * zoom, so a repaint costs as much as the panel has pixels, whatever the size
+ * of the world. Drag the mouse to pan, turn the wheel to zoom.
+ *
  * @author Dennis Breuker
  */
-public class TileWorldPanel extends JPanel {
+public class TileWorldPanel extends JPanel implements I_TileListener {
+
+    /**
+     * The largest initial size of the panel
+     */
+    private static final int MAX_WIDTH = 1200;
+    private static final int MAX_HEIGHT = 900;
+    /**
+     * The zoom (pixels per tile) is kept between these
+     */
+    private static final double MIN_ZOOM = 1.0 / 16;
+    private static final double MAX_ZOOM = 64;
+    private static final double WHEEL_ZOOM = 1.25;
+    /**
+     * From this zoom on the tiles are separated by grid lines, like blocks
+     */
+    private static final double GRID_ZOOM = 4;
+    private static final Color GRID_COLOR = new Color(0xEEEEEE);
 
     /**
      * The tile world that is to be shown.
      */
     I_TileWorld tileWorld;
+    /**
+     * The tiles, one pixel per tile.
+     */
+    private BufferedImage image;
+    private double zoom;
+    /**
+     * The position in pixels of the zoomed world at the top left of the panel.
+     */
+    private double offsetX;
+    private double offsetY;
 
     /**
-     * Constructs a TitleWorldPanel object. 
+     * Constructs a TitleWorldPanel object.
      * The size of the panel is set using the dimensions of the tile world.
      * The tile world is saved as an attribute.
-     * 
+     *
      * @param tileWorld The tile world to be shown.
      * @param blockSize The size of a tile on the screen.
      */
     public TileWorldPanel(I_TileWorld tileWorld, int blockSize) {
-        setSize(tileWorld.getWidth() * blockSize, tileWorld.getHeight() * blockSize);
+        setSize(Math.min(MAX_WIDTH, tileWorld.getWidth() * blockSize),
+                Math.min(MAX_HEIGHT, tileWorld.getHeight() * blockSize));
         this.tileWorld = tileWorld;
+        this.zoom = blockSize;
+        setBackground(GRID_COLOR);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            private int lastX;
+            private int lastY;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                lastX = e.getX();
+                lastY = e.getY();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                pan(lastX - e.getX(), lastY - e.getY());
+                lastX = e.getX();
+                lastY = e.getY();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoom(Math.pow(WHEEL_ZOOM, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
     }
 
     /**
-     * Paints the tile world on the graphics object.
-     * 
+     * Moves the view.
+     *
+     * @param dx The number of pixels to move to the right.
+     * @param dy The number of pixels to move down.
+     */
+    public void pan(int dx, int dy) {
+        offsetX += dx;
+        offsetY += dy;
+        repaint();
+    }
+
+    /**
+     * Zooms the view, keeping the tile at a given point of the panel in place.
+     *
+     * @param factor The factor to multiply the zoom with.
+     * @param anchorX The x-coordinate of the point in the panel.
+     * @param anchorY The y-coordinate of the point in the panel.
+     */
+    public void zoom(double factor, int anchorX, int anchorY) {
+        double newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+        offsetX = (offsetX + anchorX) * newZoom / zoom - anchorX;
+        offsetY = (offsetY + anchorY) * newZoom / zoom - anchorY;
+        zoom = newZoom;
+        repaint();
+    }
+
+    /**
+     * @return The number of pixels per tile.
+     */
+    public double getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Gets the tile at a point of the panel.
+     *
+     * @param panelX The x-coordinate of the point in the panel.
+     * @param panelY The y-coordinate of the point in the panel.
+     * @return The x-coordinate of the tile, which may be outside the world.
+     */
+    public int getTileX(int panelX) {
+        return (int) Math.floor((panelX + offsetX) / zoom);
+    }
+
+    /**
+     * @see #getTileX(int)
+     */
+    public int getTileY(int panelY) {
+        return (int) Math.floor((panelY + offsetY) / zoom);
+    }
+
+    /**
+     * Starts following the tile world, drawing all its tiles once.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        tileWorld.addTileListener(this);
+        refresh();
+    }
+
+    @Override
+    public void removeNotify() {
+        tileWorld.removeTileListener(this);
+        super.removeNotify();
+    }
+
+    /**
+     * Draws all tiles of the tile world in the image again.
+     */
+    public void refresh() {
+        int width = Math.max(1, tileWorld.getWidth());
+        int height = Math.max(1, tileWorld.getHeight());
+        BufferedImage tiles = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+        int[] row = new int[tileWorld.getWidth()];
+        for (int y = 0; y < tileWorld.getHeight(); y++) {
+            for (int x = 0; x < row.length; x++) {
+                row[x] = tileWorld.getTileType(x, y).getRgbColor();
+            }
+            tiles.setRGB(0, y, row.length, 1, row, 0, row.length);
+        }
+        image = tiles;
+        repaint();
+    }
+
+    /**
+     * Updates the tile in the image and repaints it. May be called by any thread.
+     */
+    @Override
+    public void tileChanged(I_TileWorld tileWorld, int x, int y, TileType oldType, TileType newType) {
+        BufferedImage tiles = image;
+        if (tiles == null || x >= tiles.getWidth() || y >= tiles.getHeight()) {
+            return;
+        }
+        tiles.setRGB(x, y, newType.getRgbColor());
+        repaint((int) Math.floor(x * zoom - offsetX), (int) Math.floor(y * zoom - offsetY),
+                (int) Math.ceil(zoom) + 1, (int) Math.ceil(zoom) + 1);
+    }
+
+    /**
+     * Paints the visible tiles of the tile world on the graphics object.
+     *
      * @param g The graphics object to be painted on.
      */
     @Override
-    public void paint(Graphics g) {
-        super.paint(g);
-        tileWorld.paint(g);
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        drawTiles(g, image, true);
+    }
+
+    /**
+     * Draws the visible part of an image with one pixel per tile, such as the
+     * tiles or an overlay of them.
+     *
+     * @param g The graphics object to be painted on.
+     * @param tiles The image, null to draw nothing.
+     * @param gridLines Whether the tiles are separated by grid lines, when zoomed in.
+     */
+    protected void drawTiles(Graphics g, BufferedImage tiles, boolean gridLines) {
+        if (tiles == null) {
+            return;
+        }
+
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int firstX = Math.max(0, getTileX(clip.x));
+        int firstY = Math.max(0, getTileY(clip.y));
+        int lastX = Math.min(tiles.getWidth(), getTileX(clip.x + clip.width) + 1);
+        int lastY = Math.min(tiles.getHeight(), getTileY(clip.y + clip.height) + 1);
+        if (firstX >= lastX || firstY >= lastY) {
+            return;
+        }
+
+        g.drawImage(tiles, toPanelX(firstX), toPanelY(firstY), toPanelX(lastX), toPanelY(lastY),
+                firstX, firstY, lastX, lastY, null);
+
+        if (gridLines && zoom >= GRID_ZOOM) {
+            g.setColor(GRID_COLOR);
+            for (int x = firstX + 1; x <= lastX; x++) {
+                g.drawLine(toPanelX(x) - 1, toPanelY(firstY), toPanelX(x) - 1, toPanelY(lastY) - 1);
+            }
+            for (int y = firstY + 1; y <= lastY; y++) {
+                g.drawLine(toPanelX(firstX), toPanelY(y) - 1, toPanelX(lastX) - 1, toPanelY(y) - 1);
+            }
+        }
+    }
+
+    private int toPanelX(int tileX) {
+        return (int) Math.round(tileX * zoom - offsetX);
+    }
+
+    private int toPanelY(int tileY) {
+        return (int) Math.round(tileY * zoom - offsetY);
     }
 }
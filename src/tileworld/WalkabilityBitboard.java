@@ -0,0 +1,153 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package tileworld;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Packed walkability of a tile world: one bit per tile, row by row, 64 tiles per 
+ * long. A tile is walkable if its cost is finite. Line of sight tests touch only 
+ * these bits, so they stay in cache even for large worlds.
+ */
+public final class WalkabilityBitboard implements I_Cost {
+    
+    private final int width;
+    private final int height;
+    private final long[] bits;
+    
+    public WalkabilityBitboard(I_TileWorld tileWorld) {
+        this.width = tileWorld.getWidth();
+        this.height = tileWorld.getHeight();
+        this.bits = new long[(int) (((long) width * height + 63) >>> 6)];
+        
+        for(int y = 0; y < height; ++y) {
+            
+            for(int x = 0; x < width; ++x) {
+                
+                if(tileWorld.getTileType(x, y).getCost() < INFINITY) {
+                    int index = y * width + x;
+                    bits[index >>> 6] |= 1L << index;
+                }
+            }
+        }
+    }
+    
+    /**
+     * 
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return true if the tile is walkable, false otherwise
+     */
+    public boolean isWalkable(int x, int y) {
+        int index = y * width + x;
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+    
+    /**
+     * 
+     * Set the walkability of a tile, e.g. after the tile world was edited.
+     * 
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @param walkable the walkability
+     */
+    public void setWalkable(int x, int y, boolean walkable) {
+        int index = y * width + x;
+        if(walkable) {
+            bits[index >>> 6] |= 1L << index;
+        } else {
+            bits[index >>> 6] &= ~(1L << index);
+        }
+    }
+    
+    /**
+     * 
+     * @param fromX x of the first tile
+     * @param fromY y of the first tile
+     * @param toX x of the second tile
+     * @param toY y of the second tile
+     * @return true if every tile on the GridLine between both tiles is walkable
+     */
+    public boolean hasLineOfSight(int fromX, int fromY, int toX, int toY) {
+        if(fromY == toY) {
+            return isRowWalkable(fromY, Math.min(fromX, toX), Math.max(fromX, toX));
+        }
+        
+        if(!isWalkable(fromX, fromY)) {
+            return false;
+        }
+        
+        GridLine line = new GridLine(fromX, fromY, toX, toY);
+        while(line.next()) {
+            if(!isWalkable(line.getX(), line.getY())) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 
+     * Test a horizontal run of tiles 64 at a time.
+     * 
+     * @param y the row
+     * @param fromX the first x
+     * @param toX the last x, at least fromX
+     * @return true if all tiles from fromX to toX are walkable
+     */
+    public boolean isRowWalkable(int y, int fromX, int toX) {
+        int first = y * width + fromX;
+        int last = y * width + toX;
+        
+        for(int word = first >>> 6; word <= last >>> 6; ++word) {
+            long mask = -1L;
+            if(word == first >>> 6) {
+                mask &= -1L << first;
+            }
+            if(word == last >>> 6) {
+                mask &= -1L >>> (63 - (last & 63));
+            }
+            if((bits[word] & mask) != mask) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+    
+    /**
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+    
+}
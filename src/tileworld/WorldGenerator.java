@@ -0,0 +1,406 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package tileworld;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import javax.imageio.ImageIO;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Generates tile worlds for benchmarks and stress tests. The same layout, size,
+ * seed and obstacle density always yield the same world. START and END are 
+ * placed automatically, near the top left and the bottom right corner, and END
+ * can always be reached from START, whatever the obstacle density.
+ * 
+ * The tiles are generated into a byte array (one TileType ordinal per tile, row 
+ * by row), so that even a 16384x16384 world can be written as an indexed png 
+ * without ever creating a TileWorld.
+ */
+public final class WorldGenerator {
+    
+    public enum Layout {
+        /**
+         * Random mix of all walkable terrain with obstacleDensity NONWALKABLE tiles
+         */
+        RANDOM_TERRAIN,
+        /**
+         * Perfect maze with corridors of one tile wide
+         */
+        MAZE,
+        /**
+         * Rooms of random terrain connected by road corridors
+         */
+        ROOMS,
+        /**
+         * Road with obstacleDensity NONWALKABLE tiles
+         */
+        OPEN_FIELD
+    }
+    
+    public static final int MIN_SIZE = 4;
+    public static final int MAX_SIZE = 16384;
+    
+    private static final TileType[] TERRAIN = { 
+        TileType.ROAD, TileType.SAND, TileType.WATER, TileType.MOUNTAIN };
+    private static final int MIN_ROOM_SIZE = 4;
+    private static final int MAX_ROOM_SIZE = 24;
+    
+    private final Layout layout;
+    private final int width;
+    private final int height;
+    private final long seed;
+    private double obstacleDensity = 0.2;
+    
+    /**
+     * 
+     * @param layout the kind of world
+     * @param width width of the world, between MIN_SIZE and MAX_SIZE
+     * @param height height of the world, between MIN_SIZE and MAX_SIZE
+     * @param seed the seed of the random generator
+     */
+    public WorldGenerator(Layout layout, int width, int height, long seed) {
+        if(width < MIN_SIZE || width > MAX_SIZE || height < MIN_SIZE || height > MAX_SIZE) {
+            throw new IllegalArgumentException("World size must be between " + MIN_SIZE 
+                    + " and " + MAX_SIZE + ": " + width + "x" + height);
+        }
+        this.layout = layout;
+        this.width = width;
+        this.height = height;
+        this.seed = seed;
+    }
+    
+    /**
+     * 
+     * Generate a world and write it as png. The world can be read by TileWorld.
+     * 
+     * Usage: java -cp Search.jar tileworld.WorldGenerator layout width height seed file.png [obstacleDensity]
+     * 
+     * @param args The command line options/arguments.
+     */
+    public static void main(String[] args) {
+        if(args.length < 5) {
+            System.out.println("Usage: java -cp Search.jar tileworld.WorldGenerator "
+                    + "<RANDOM_TERRAIN|MAZE|ROOMS|OPEN_FIELD> <width> <height> <seed> <file.png> [obstacleDensity]");
+            return;
+        }
+        
+        WorldGenerator generator = new WorldGenerator(Layout.valueOf(args[0].toUpperCase()), 
+                Integer.parseInt(args[1]), Integer.parseInt(args[2]), Long.parseLong(args[3]));
+        if(args.length > 5) {
+            generator.setObstacleDensity(Double.parseDouble(args[5]));
+        }
+        
+        try {
+            generator.writePng(new File(args[4]));
+        } catch(IOException ioexp) {
+            System.err.println("World cannot be written: " + ioexp.getMessage());
+        }
+    }
+    
+    /**
+     * 
+     * @return a new in-memory world
+     */
+    public TileWorld generate() {
+        byte[] tiles = generateTiles();
+        TileType[] types = TileType.values();
+        TileWorld world = new TileWorld(width, height);
+        
+        for(int y = 0; y < height; ++y) {
+            
+            for(int x = 0; x < width; ++x) {
+                world.setTileType(x, y, types[tiles[y * width + x]]);
+            }
+        }
+        world.incrementVersion();
+        return world;
+    }
+    
+    /**
+     * 
+     * Write a new world as indexed png (one byte per tile).
+     * 
+     * @param file the destination file
+     * @throws IOException 
+     */
+    public void writePng(File file) throws IOException {
+        TileType[] types = TileType.values();
+        byte[] red = new byte[types.length];
+        byte[] green = new byte[types.length];
+        byte[] blue = new byte[types.length];
+        
+        for(TileType type : types) {
+            red[type.ordinal()] = (byte) (type.getRgbColor() >> 16);
+            green[type.ordinal()] = (byte) (type.getRgbColor() >> 8);
+            blue[type.ordinal()] = (byte) type.getRgbColor();
+        }
+        
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED, 
+                new IndexColorModel(8, types.length, red, green, blue));
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        System.arraycopy(generateTiles(), 0, pixels, 0, pixels.length);
+        
+        if(!ImageIO.write(image, "png", file)) {
+            throw new IOException("No png writer available");
+        }
+    }
+    
+    /**
+     * 
+     * @return the tiles of a new world as TileType ordinals, row by row
+     */
+    private byte[] generateTiles() {
+        Random random = new Random(seed);
+        byte[] tiles = new byte[width * height];
+        
+        switch(layout) {
+            case RANDOM_TERRAIN:
+                fillRandom(tiles, random, TERRAIN);
+                break;
+            case OPEN_FIELD:
+                fillRandom(tiles, random, new TileType[] { TileType.ROAD });
+                break;
+            case MAZE:
+                carveMaze(tiles, random);
+                break;
+            case ROOMS:
+                carveRooms(tiles, random);
+                break;
+        }
+        return tiles;
+    }
+    
+    /**
+     * 
+     * Fill the world with random terrain and obstacles. START and END are
+     * placed in the corners, connected by a corridor: a random walk towards END
+     * that replaces the obstacles it crosses by terrain. The walk only clears 
+     * about obstacleDensity * (width + height) tiles, so the density hardly changes.
+     * 
+     * @param tiles the tiles
+     * @param random the random generator
+     * @param terrain the walkable tile types to choose from
+     */
+    private void fillRandom(byte[] tiles, Random random, TileType[] terrain) {
+        for(int index = 0; index < tiles.length; ++index) {
+            
+            if(random.nextDouble() < obstacleDensity) {
+                tiles[index] = (byte) TileType.NONWALKABLE.ordinal();
+            } else {
+                tiles[index] = (byte) terrain[random.nextInt(terrain.length)].ordinal();
+            }
+        }
+        
+        int x = 0;
+        int y = 0;
+        while(x < width - 1 || y < height - 1) {
+            // step right or down, more likely in the direction with more to go
+            int remainingX = width - 1 - x;
+            int remainingY = height - 1 - y;
+            if(random.nextInt(remainingX + remainingY) < remainingX) {
+                x++;
+            } else {
+                y++;
+            }
+            
+            int index = y * width + x;
+            if(tiles[index] == TileType.NONWALKABLE.ordinal()) {
+                tiles[index] = (byte) terrain[random.nextInt(terrain.length)].ordinal();
+            }
+        }
+        
+        tiles[0] = (byte) TileType.START.ordinal();
+        tiles[tiles.length - 1] = (byte) TileType.END.ordinal();
+    }
+    
+    /**
+     * 
+     * Carve a perfect maze using a randomized depth first search. Maze cells are
+     * the tiles with odd coordinates. Instead of a stack, the direction back to 
+     * the parent of every cell is stored, so backtracking needs no extra memory 
+     * besides one byte per cell. START and END are placed in the first and last cell.
+     * 
+     * @param tiles the tiles
+     * @param random the random generator
+     */
+    private void carveMaze(byte[] tiles, Random random) {
+        final int[] directionX = { 1, -1, 0, 0 };
+        final int[] directionY = { 0, 0, 1, -1 };
+        final byte unvisited = -1;
+        final byte root = 4;
+        int cellsX = (width - 1) / 2;
+        int cellsY = (height - 1) / 2;
+        byte[] parent = new byte[cellsX * cellsY];
+        int[] order = { 0, 1, 2, 3 };
+        
+        Arrays.fill(tiles, (byte) TileType.NONWALKABLE.ordinal());
+        Arrays.fill(parent, unvisited);
+        
+        int cellX = 0;
+        int cellY = 0;
+        parent[0] = root;
+        tiles[width + 1] = (byte) TileType.ROAD.ordinal();
+        
+        while(true) {
+            
+            // shuffle the directions
+            for(int i = order.length - 1; i > 0; --i) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+            
+            boolean moved = false;
+            for(int direction : order) {
+                int nextX = cellX + directionX[direction];
+                int nextY = cellY + directionY[direction];
+                
+                if(nextX < 0 || nextY < 0 || nextX >= cellsX || nextY >= cellsY 
+                        || parent[nextY * cellsX + nextX] != unvisited) {
+                    continue;
+                }
+                
+                // the direction back to the parent is the opposite direction
+                parent[nextY * cellsX + nextX] = (byte) (direction ^ 1);
+                tiles[(2 * cellY + 1 + directionY[direction]) * width + 2 * cellX + 1 + directionX[direction]] 
+                        = (byte) TileType.ROAD.ordinal();
+                tiles[(2 * nextY + 1) * width + 2 * nextX + 1] = (byte) TileType.ROAD.ordinal();
+                cellX = nextX;
+                cellY = nextY;
+                moved = true;
+                break;
+            }
+            
+            if(!moved) {
+                byte back = parent[cellY * cellsX + cellX];
+                if(back == root) {
+                    break;
+                }
+                cellX += directionX[back];
+                cellY += directionY[back];
+            }
+        }
+        
+        tiles[width + 1] = (byte) TileType.START.ordinal();
+        tiles[(2 * cellsY - 1) * width + 2 * cellsX - 1] = (byte) TileType.END.ordinal();
+    }
+    
+    /**
+     * 
+     * Place random rooms of random terrain, and connect every room to the
+     * previous one by an L-shaped road corridor, so all rooms are connected.
+     * START is placed in the center of the first room, END in the center of
+     * the room closest to the bottom right corner, or next to START if all 
+     * rooms have the same center.
+     * 
+     * @param tiles the tiles
+     * @param random the random generator
+     */
+    private void carveRooms(byte[] tiles, Random random) {
+        Arrays.fill(tiles, (byte) TileType.NONWALKABLE.ordinal());
+        
+        int maxRoomWidth = Math.min(MAX_ROOM_SIZE, width - 2);
+        int maxRoomHeight = Math.min(MAX_ROOM_SIZE, height - 2);
+        int minRoomWidth = Math.min(MIN_ROOM_SIZE, maxRoomWidth);
+        int minRoomHeight = Math.min(MIN_ROOM_SIZE, maxRoomHeight);
+        long averageArea = (long) (minRoomWidth + maxRoomWidth) * (minRoomHeight + maxRoomHeight) / 4;
+        // about a quarter of the world is covered by rooms
+        long rooms = Math.max(2, (long) width * height / (4 * averageArea));
+        
+        int startIndex = 0;
+        int endIndex = -1;
+        long endDistance = -1;
+        int previousX = -1;
+        int previousY = -1;
+        
+        for(long room = 0; room < rooms; ++room) {
+            int roomWidth = minRoomWidth + random.nextInt(maxRoomWidth - minRoomWidth + 1);
+            int roomHeight = minRoomHeight + random.nextInt(maxRoomHeight - minRoomHeight + 1);
+            int left = 1 + random.nextInt(width - roomWidth - 1);
+            int top = 1 + random.nextInt(height - roomHeight - 1);
+            byte terrain = (byte) TERRAIN[random.nextInt(TERRAIN.length)].ordinal();
+            
+            for(int y = top; y < top + roomHeight; ++y) {
+                Arrays.fill(tiles, y * width + left, y * width + left + roomWidth, terrain);
+            }
+            
+            int centerX = left + roomWidth / 2;
+            int centerY = top + roomHeight / 2;
+            if(previousX >= 0) {
+                
+                for(int x = Math.min(previousX, centerX); x <= Math.max(previousX, centerX); ++x) {
+                    tiles[previousY * width + x] = (byte) TileType.ROAD.ordinal();
+                }
+                for(int y = Math.min(previousY, centerY); y <= Math.max(previousY, centerY); ++y) {
+                    tiles[y * width + centerX] = (byte) TileType.ROAD.ordinal();
+                }
+                
+            } else {
+                startIndex = centerY * width + centerX;
+            }
+            
+            long distance = (long) centerX + centerY;
+            if(room > 0 && distance > endDistance && centerY * width + centerX != startIndex) {
+                endDistance = distance;
+                endIndex = centerY * width + centerX;
+            }
+            previousX = centerX;
+            previousY = centerY;
+        }
+        
+        if(endIndex < 0) {
+            // every room has the center of the first one: END next to START,
+            // rooms are at least two tiles wide so this is inside the first room
+            endIndex = startIndex - 1;
+        }
+        tiles[startIndex] = (byte) TileType.START.ordinal();
+        tiles[endIndex] = (byte) TileType.END.ordinal();
+    }
+    
+    /**
+     * @return the obstacleDensity
+     */
+    public double getObstacleDensity() {
+        return obstacleDensity;
+    }
+
+    /**
+     * The fraction (0..1) of NONWALKABLE tiles. Only used by RANDOM_TERRAIN and OPEN_FIELD.
+     * 
+     * @param obstacleDensity the obstacleDensity to set
+     */
+    public void setObstacleDensity(double obstacleDensity) {
+        this.obstacleDensity = obstacleDensity;
+    }
+    
+}
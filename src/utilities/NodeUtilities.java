@@ -84,12 +84,42 @@ public final class NodeUtilities {
      * @return Calculated heuristic value
      */
     public static int calculateCustomHeuristic(Node current, Node other) {
-        int distanceX = calculateDistance(other.getX(), current.getX());
-        int distanceY = calculateDistance(other.getY(), current.getY());
+        return calculateCustomHeuristic(current.getX(), current.getY(), other.getX(), other.getY());
+    }
+    
+    /**
+     * 
+     * The heuristic of calculateCustomHeuristic(Node, Node), for strategies that 
+     * keep their state in arrays instead of Nodes.
+     * 
+     * @param currentX x-coordinate of the current tile
+     * @param currentY y-coordinate of the current tile
+     * @param otherX x-coordinate of the other tile
+     * @param otherY y-coordinate of the other tile
+     * @return Calculated heuristic value
+     */
+    public static int calculateCustomHeuristic(int currentX, int currentY, int otherX, int otherY) {
+        int distanceX = calculateDistance(otherX, currentX);
+        int distanceY = calculateDistance(otherY, currentY);
         int distanceDiagonal = Math.min(distanceX, distanceY);  
         
         return distanceDiagonal * TileType.ROAD_DIAGONAL_COST 
                 + (distanceX + distanceY - 2 * distanceDiagonal) * TileType.ROAD_COST;    
     }
     
+    /**
+     * 
+     * Straight line distance, for strategies that are not bound to the 8 directions.
+     * 
+     * @param current Node
+     * @param other Node
+     * @return Calculated heuristic value
+     */
+    public static int calculateEuclideanHeuristic(Node current, Node other) {
+        int distanceX = calculateDistance(other.getX(), current.getX());
+        int distanceY = calculateDistance(other.getY(), current.getY());
+        
+        return (int) (Math.sqrt((double) distanceX * distanceX + (double) distanceY * distanceY) * TileType.ROAD_COST);
+    }
+    
 }
@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package utilities;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Off-heap memory addressed by long byte offsets, for search state that is too 
+ * large for arrays or that should not be traced by the garbage collector. The 
+ * memory is kept in pages of direct buffers, which are allocated when the arena 
+ * grows and kept for the next query, so a warm arena does not allocate at all.
+ * 
+ * Longs and ints must be aligned to their size, so that they never cross a page.
+ * An arena is not thread-safe.
+ */
+public final class OffHeapArena {
+    
+    /**
+     * Pages of 128 MiB
+     */
+    public static final int DEFAULT_PAGE_SHIFT = 27;
+    /**
+     * A direct buffer holds at most 2^31 - 1 bytes
+     */
+    private static final int MAX_PAGE_SHIFT = 30;
+    private static final int MIN_PAGE_SHIFT = 3;
+    
+    private final int pageShift;
+    private final long pageMask;
+    private ByteBuffer[] pages = new ByteBuffer[0];
+    
+    public OffHeapArena() {
+        this(DEFAULT_PAGE_SHIFT);
+    }
+    
+    /**
+     * 
+     * @param pageShift log2 of the size of a page in bytes, between 3 and 30
+     */
+    public OffHeapArena(int pageShift) {
+        if(pageShift < MIN_PAGE_SHIFT || pageShift > MAX_PAGE_SHIFT) {
+            throw new IllegalArgumentException("Page shift out of range: " + pageShift);
+        }
+        this.pageShift = pageShift;
+        this.pageMask = (1L << pageShift) - 1;
+    }
+    
+    /**
+     * Grows the arena to at least a number of bytes. New memory is zero.
+     * 
+     * @param bytes the number of bytes
+     */
+    public void ensureCapacity(long bytes) {
+        int pageCount = (int) ((bytes + pageMask) >>> pageShift);
+        if(pageCount <= pages.length) {
+            return;
+        }
+        
+        int oldCount = pages.length;
+        pages = Arrays.copyOf(pages, pageCount);
+        for(int page = oldCount; page < pageCount; ++page) {
+            pages[page] = ByteBuffer.allocateDirect(1 << pageShift).order(ByteOrder.nativeOrder());
+        }
+    }
+    
+    /**
+     * 
+     * @return the number of bytes that can be addressed
+     */
+    public long getCapacity() {
+        return (long) pages.length << pageShift;
+    }
+    
+    public long getLong(long offset) {
+        return pages[(int) (offset >>> pageShift)].getLong((int) (offset & pageMask));
+    }
+    
+    public void putLong(long offset, long value) {
+        pages[(int) (offset >>> pageShift)].putLong((int) (offset & pageMask), value);
+    }
+    
+    public int getInt(long offset) {
+        return pages[(int) (offset >>> pageShift)].getInt((int) (offset & pageMask));
+    }
+    
+    public void putInt(long offset, int value) {
+        pages[(int) (offset >>> pageShift)].putInt((int) (offset & pageMask), value);
+    }
+    
+    /**
+     * Sets every byte of the arena to zero.
+     */
+    public void clear() {
+        for(ByteBuffer page : pages) {
+            for(int offset = 0; offset < page.capacity(); offset += Long.BYTES) {
+                page.putLong(offset, 0L);
+            }
+        }
+    }
+    
+    /**
+     * Drops the pages. Their memory is returned when the garbage collector 
+     * has found the buffers unreachable.
+     */
+    public void release() {
+        pages = new ByteBuffer[0];
+    }
+    
+}
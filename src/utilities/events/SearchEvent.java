@@ -0,0 +1,72 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package utilities.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * The search loop of a Strategy, up to finding the end Node or exhausting the open list
+ */
+@Name("pathfinding.Search")
+@Label("Search")
+@Category("PathFinding")
+@Description("The search loop of a Strategy, up to finding the end Node or exhausting the open list")
+public final class SearchEvent extends Event {
+    
+    @Label("Strategy")
+    public String strategy;
+    
+    @Label("Width")
+    public int width;
+    
+    @Label("Height")
+    public int height;
+    
+    @Label("Path Cost")
+    @Description("Cost of the best path, -1 if no path exists")
+    public int pathCost;
+    
+    @Label("Nodes Expanded")
+    public int nodesExpanded;
+    
+    @Label("Nodes Generated")
+    public int nodesGenerated;
+    
+    @Label("Heap Pushes")
+    public int heapPushes;
+    
+    @Label("Heap Pops")
+    public int heapPops;
+    
+    @Label("Peak Open List Size")
+    public int peakOpenSize;
+    
+}
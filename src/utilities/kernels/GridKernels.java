@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package utilities.kernels;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Picks the grid kernels for this JVM. The Vector API kernels are used when the 
+ * jdk.incubator.vector module is present (--add-modules jdk.incubator.vector) 
+ * and vectors hold more than one int; otherwise, or with -Dpathfinding.vector=false,
+ * the scalar kernels are used.
+ */
+public final class GridKernels {
+    
+    /**
+     * System property that disables the Vector API kernels when false.
+     */
+    public static final String VECTOR_PROPERTY = "pathfinding.vector";
+    
+    private static final I_GridKernels SCALAR = new ScalarGridKernels();
+    private static final I_GridKernels VECTOR = loadVectorKernels();
+    
+    private static volatile boolean vectorEnabled = 
+            Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"));
+    
+    private GridKernels() {
+    }
+    
+    /**
+     * 
+     * @return the Vector API kernels, or null if this JVM can not run them
+     */
+    private static I_GridKernels loadVectorKernels() {
+        try {
+            Class<?> kernels = Class.forName("utilities.kernels.VectorGridKernels");
+            
+            if((Integer) kernels.getDeclaredMethod("getLanes").invoke(null) > 1) {
+                return (I_GridKernels) kernels.getDeclaredConstructor().newInstance();
+            }
+        } catch(LinkageError | ReflectiveOperationException ex) {
+            // jdk.incubator.vector not resolved, use the scalar kernels
+        }
+        
+        return null;
+    }
+    
+    /**
+     * 
+     * @return the Vector API kernels if available and enabled, the scalar kernels otherwise
+     */
+    public static I_GridKernels get() {
+        return vectorEnabled && VECTOR != null ? VECTOR : SCALAR;
+    }
+    
+    /**
+     * 
+     * @return the scalar kernels
+     */
+    public static I_GridKernels getScalar() {
+        return SCALAR;
+    }
+    
+    /**
+     * 
+     * @return true if this JVM can run the Vector API kernels
+     */
+    public static boolean isVectorAvailable() {
+        return VECTOR != null;
+    }
+    
+    /**
+     * 
+     * @return true if get() returns the Vector API kernels
+     */
+    public static boolean isVectorEnabled() {
+        return vectorEnabled && VECTOR != null;
+    }
+    
+    /**
+     * 
+     * @param enabled false to make get() return the scalar kernels, e.g. to compare them
+     */
+    public static void setVectorEnabled(boolean enabled) {
+        vectorEnabled = enabled;
+    }
+    
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package utilities.kernels;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Whole-grid kernels over row-major arrays: index y * width + x. 
+ * Every implementation gives identical results.
+ */
+public interface I_GridKernels {
+    
+    /**
+     * Computes the heuristic of NodeUtilities.calculateCustomHeuristic() from every
+     * tile to the goal.
+     * 
+     * @param width Width of the grid.
+     * @param height Height of the grid.
+     * @param goalX The x-coordinate of the goal.
+     * @param goalY The y-coordinate of the goal.
+     * @param field The heuristic of every tile, at least width * height long.
+     */
+    void octileField(int width, int height, int goalX, int goalY, int[] field);
+    
+    /**
+     * Computes the heuristic of NodeUtilities.calculateEuclideanHeuristic() from every
+     * tile to the goal.
+     * 
+     * @param width Width of the grid.
+     * @param height Height of the grid.
+     * @param goalX The x-coordinate of the goal.
+     * @param goalY The y-coordinate of the goal.
+     * @param field The heuristic of every tile, at least width * height long.
+     */
+    void euclideanField(int width, int height, int goalX, int goalY, int[] field);
+    
+    /**
+     * Computes the distance from every tile to the nearest blocked tile, moving 
+     * straight (ROAD_COST) and diagonally (ROAD_DIAGONAL_COST), with a forward 
+     * and a backward chamfer sweep.
+     * 
+     * @param blocked Whether a tile is blocked.
+     * @param width Width of the grid.
+     * @param height Height of the grid.
+     * @param field The distance of every tile, INFINITY if nothing is blocked.
+     */
+    void obstacleDistanceField(boolean[] blocked, int width, int height, int[] field);
+    
+    /**
+     * Looks up the cost of every tile.
+     * 
+     * @param tiles The index in the cost table of every tile, e.g. the TileType ordinal.
+     * @param costs The cost table.
+     * @param field The cost of every tile, at least as long as tiles.
+     */
+    void costField(int[] tiles, int[] costs, int[] field);
+    
+}
@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package utilities.kernels;
+
+import tileworld.I_Cost;
+import utilities.NodeUtilities;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * The kernels one tile at a time, for JVMs without the Vector API.
+ */
+public final class ScalarGridKernels implements I_GridKernels, I_Cost {
+
+    @Override
+    public void octileField(int width, int height, int goalX, int goalY, int[] field) {
+        for(int y = 0; y < height; ++y) {
+            int row = y * width;
+            
+            for(int x = 0; x < width; ++x) {
+                field[row + x] = NodeUtilities.calculateCustomHeuristic(x, y, goalX, goalY);
+            }
+        }
+    }
+
+    @Override
+    public void euclideanField(int width, int height, int goalX, int goalY, int[] field) {
+        for(int y = 0; y < height; ++y) {
+            int row = y * width;
+            double distanceY = y - goalY;
+            
+            for(int x = 0; x < width; ++x) {
+                double distanceX = x - goalX;
+                field[row + x] = (int) (Math.sqrt(distanceX * distanceX + distanceY * distanceY) * ROAD_COST);
+            }
+        }
+    }
+
+    @Override
+    public void obstacleDistanceField(boolean[] blocked, int width, int height, int[] field) {
+        for(int index = 0; index < width * height; ++index) {
+            field[index] = blocked[index] ? 0 : INFINITY;
+        }
+        
+        for(int x = 1; x < width; ++x) {
+            field[x] = Math.min(field[x], field[x - 1] + ROAD_COST);
+        }
+        for(int y = 1; y < height; ++y) {
+            sweepRow(field, width, y * width, (y - 1) * width);
+            for(int x = y * width + 1; x < (y + 1) * width; ++x) {
+                field[x] = Math.min(field[x], field[x - 1] + ROAD_COST);
+            }
+        }
+        
+        for(int x = height * width - 2; x >= (height - 1) * width; --x) {
+            field[x] = Math.min(field[x], field[x + 1] + ROAD_COST);
+        }
+        for(int y = height - 2; y >= 0; --y) {
+            sweepRow(field, width, y * width, (y + 1) * width);
+            for(int x = (y + 1) * width - 2; x >= y * width; --x) {
+                field[x] = Math.min(field[x], field[x + 1] + ROAD_COST);
+            }
+        }
+    }
+    
+    /**
+     * 
+     * Lower the distances of a row from the three tiles above or below each tile.
+     * 
+     * @param field the distances
+     * @param width width of the grid
+     * @param row index of the first tile of the row
+     * @param other index of the first tile of the row above or below
+     */
+    static void sweepRow(int[] field, int width, int row, int other) {
+        for(int x = 0; x < width; ++x) {
+            int distance = Math.min(field[row + x], field[other + x] + ROAD_COST);
+            if(x > 0) {
+                distance = Math.min(distance, field[other + x - 1] + ROAD_DIAGONAL_COST);
+            }
+            if(x < width - 1) {
+                distance = Math.min(distance, field[other + x + 1] + ROAD_DIAGONAL_COST);
+            }
+            field[row + x] = distance;
+        }
+    }
+
+    @Override
+    public void costField(int[] tiles, int[] costs, int[] field) {
+        for(int index = 0; index < tiles.length; ++index) {
+            field[index] = costs[tiles[index]];
+        }
+    }
+    
+}
@@ -0,0 +1,226 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package utilities.kernels;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+import tileworld.I_Cost;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * The kernels a vector of tiles at a time with the incubating Vector API 
+ * (jdk.incubator.vector), falling back to one tile at a time for the tail of 
+ * each row. Only loaded through GridKernels, so JVMs without the module never 
+ * link this class.
+ */
+final class VectorGridKernels implements I_GridKernels, I_Cost {
+    
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLE_SPECIES = DoubleVector.SPECIES_PREFERRED;
+    
+    /**
+     * Ints with as many lanes as DOUBLE_SPECIES, to convert the Euclidean distances.
+     */
+    private static final VectorSpecies<Integer> NARROW_INT_SPECIES = VectorSpecies.of(int.class, 
+            VectorShape.forBitSize(DOUBLE_SPECIES.vectorBitSize() / 2));
+    
+    private final IntVector intLanes;
+    private final DoubleVector doubleLanes;
+    
+    VectorGridKernels() {
+        int[] intOffsets = new int[INT_SPECIES.length()];
+        double[] doubleOffsets = new double[DOUBLE_SPECIES.length()];
+        
+        for(int lane = 0; lane < intOffsets.length; ++lane) {
+            intOffsets[lane] = lane;
+        }
+        for(int lane = 0; lane < doubleOffsets.length; ++lane) {
+            doubleOffsets[lane] = lane;
+        }
+        
+        intLanes = IntVector.fromArray(INT_SPECIES, intOffsets, 0);
+        doubleLanes = DoubleVector.fromArray(DOUBLE_SPECIES, doubleOffsets, 0);
+    }
+    
+    /**
+     * @return the number of ints in a vector
+     */
+    static int getLanes() {
+        return INT_SPECIES.length();
+    }
+
+    @Override
+    public void octileField(int width, int height, int goalX, int goalY, int[] field) {
+        int bound = INT_SPECIES.loopBound(width);
+        
+        for(int y = 0; y < height; ++y) {
+            int row = y * width;
+            int distanceY = Math.abs(y - goalY);
+            int x = 0;
+            
+            for(; x < bound; x += INT_SPECIES.length()) {
+                IntVector distanceX = intLanes.add(x - goalX).abs();
+                IntVector diagonal = distanceX.min(distanceY);
+                
+                diagonal.mul(ROAD_DIAGONAL_COST - 2 * ROAD_COST)
+                        .add(distanceX.add(distanceY).mul(ROAD_COST))
+                        .intoArray(field, row + x);
+            }
+            for(; x < width; ++x) {
+                int distanceX = Math.abs(x - goalX);
+                int diagonal = Math.min(distanceX, distanceY);
+                
+                field[row + x] = diagonal * (ROAD_DIAGONAL_COST - 2 * ROAD_COST) 
+                        + (distanceX + distanceY) * ROAD_COST;
+            }
+        }
+    }
+
+    @Override
+    public void euclideanField(int width, int height, int goalX, int goalY, int[] field) {
+        int bound = DOUBLE_SPECIES.loopBound(width);
+        
+        for(int y = 0; y < height; ++y) {
+            int row = y * width;
+            double distanceY = y - goalY;
+            double squareY = distanceY * distanceY;
+            int x = 0;
+            
+            // The squares are whole numbers well below 2^53, so the sums are exact 
+            // and the correctly rounded sqrt matches Math.sqrt() lane for lane.
+            for(; x < bound; x += DOUBLE_SPECIES.length()) {
+                DoubleVector distanceX = doubleLanes.add(x - goalX);
+                
+                distanceX.mul(distanceX)
+                        .add(squareY)
+                        .lanewise(VectorOperators.SQRT)
+                        .mul(ROAD_COST)
+                        .convertShape(VectorOperators.D2I, NARROW_INT_SPECIES, 0)
+                        .reinterpretAsInts()
+                        .intoArray(field, row + x);
+            }
+            for(; x < width; ++x) {
+                double distanceX = x - goalX;
+                
+                field[row + x] = (int) (Math.sqrt(distanceX * distanceX + squareY) * ROAD_COST);
+            }
+        }
+    }
+
+    @Override
+    public void obstacleDistanceField(boolean[] blocked, int width, int height, int[] field) {
+        int size = width * height;
+        int bound = INT_SPECIES.loopBound(size);
+        IntVector infinity = IntVector.broadcast(INT_SPECIES, INFINITY);
+        int index = 0;
+        
+        for(; index < bound; index += INT_SPECIES.length()) {
+            infinity.blend(0, VectorMask.fromArray(INT_SPECIES, blocked, index)).intoArray(field, index);
+        }
+        for(; index < size; ++index) {
+            field[index] = blocked[index] ? 0 : INFINITY;
+        }
+        
+        // The sweeps from the row above or below are independent per tile; only 
+        // the sweeps along a row carry a dependency and stay one tile at a time.
+        for(int x = 1; x < width; ++x) {
+            field[x] = Math.min(field[x], field[x - 1] + ROAD_COST);
+        }
+        for(int y = 1; y < height; ++y) {
+            sweepRow(field, width, y * width, (y - 1) * width);
+            for(int x = y * width + 1; x < (y + 1) * width; ++x) {
+                field[x] = Math.min(field[x], field[x - 1] + ROAD_COST);
+            }
+        }
+        
+        for(int x = size - 2; x >= (height - 1) * width; --x) {
+            field[x] = Math.min(field[x], field[x + 1] + ROAD_COST);
+        }
+        for(int y = height - 2; y >= 0; --y) {
+            sweepRow(field, width, y * width, (y + 1) * width);
+            for(int x = (y + 1) * width - 2; x >= y * width; --x) {
+                field[x] = Math.min(field[x], field[x + 1] + ROAD_COST);
+            }
+        }
+    }
+    
+    /**
+     * 
+     * Lower the distances of a row from the three tiles above or below each tile, 
+     * as ScalarGridKernels.sweepRow().
+     * 
+     * @param field the distances
+     * @param width width of the grid
+     * @param row index of the first tile of the row
+     * @param other index of the first tile of the row above or below
+     */
+    private static void sweepRow(int[] field, int width, int row, int other) {
+        if(width < INT_SPECIES.length() + 2) {
+            ScalarGridKernels.sweepRow(field, width, row, other);
+            return;
+        }
+        
+        int bound = 1 + INT_SPECIES.loopBound(width - 2);
+        
+        field[row] = Math.min(field[row], Math.min(field[other] + ROAD_COST, 
+                field[other + 1] + ROAD_DIAGONAL_COST));
+        
+        int x = 1;
+        for(; x < bound; x += INT_SPECIES.length()) {
+            IntVector.fromArray(INT_SPECIES, field, row + x)
+                    .min(IntVector.fromArray(INT_SPECIES, field, other + x).add(ROAD_COST))
+                    .min(IntVector.fromArray(INT_SPECIES, field, other + x - 1)
+                            .min(IntVector.fromArray(INT_SPECIES, field, other + x + 1))
+                            .add(ROAD_DIAGONAL_COST))
+                    .intoArray(field, row + x);
+        }
+        for(; x < width - 1; ++x) {
+            field[row + x] = Math.min(field[row + x], Math.min(field[other + x] + ROAD_COST, 
+                    Math.min(field[other + x - 1], field[other + x + 1]) + ROAD_DIAGONAL_COST));
+        }
+        
+        field[row + x] = Math.min(field[row + x], Math.min(field[other + x] + ROAD_COST, 
+                field[other + x - 1] + ROAD_DIAGONAL_COST));
+    }
+
+    @Override
+    public void costField(int[] tiles, int[] costs, int[] field) {
+        int bound = INT_SPECIES.loopBound(tiles.length);
+        int index = 0;
+        
+        for(; index < bound; index += INT_SPECIES.length()) {
+            IntVector.fromArray(INT_SPECIES, costs, 0, tiles, index).intoArray(field, index);
+        }
+        for(; index < tiles.length; ++index) {
+            field[index] = costs[tiles[index]];
+        }
+    }
+    
+}
@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package utilities.metrics;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Immutable copy of a LatencyHistogram. All values are in nanoseconds.
+ */
+public final class HistogramSnapshot {
+    
+    private final long count;
+    private final long p50;
+    private final long p99;
+    private final long p999;
+    private final long max;
+    private final double mean;
+    private final double throughput;
+    
+    public HistogramSnapshot(long count, long p50, long p99, long p999, long max, double mean, double throughput) {
+        this.count = count;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+        this.mean = mean;
+        this.throughput = throughput;
+    }
+
+    /**
+     * @return the count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the 50th percentile
+     */
+    public long getP50() {
+        return p50;
+    }
+
+    /**
+     * @return the 99th percentile
+     */
+    public long getP99() {
+        return p99;
+    }
+
+    /**
+     * @return the 99.9th percentile
+     */
+    public long getP999() {
+        return p999;
+    }
+
+    /**
+     * @return the max
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return the mean
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return values recorded per second since the histogram was created or reset
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d p50=%.3fms p99=%.3fms p999=%.3fms max=%.3fms mean=%.3fms throughput=%.1f/s", 
+                count, p50 / 1e6, p99 / 1e6, p999 / 1e6, max / 1e6, mean / 1e6, throughput);
+    }
+    
+}
@@ -0,0 +1,182 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package utilities.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * Lock-free latency histogram in the style of HdrHistogram. Values (nanoseconds)
+ * are counted in log-linear buckets: every power of two is split into 
+ * SUB_BUCKET_COUNT / 2 buckets of equal width, so a reported percentile is at most
+ * about 3% higher than the recorded value. Values below SUB_BUCKET_COUNT are 
+ * counted exactly. Values above MAX_TRACKABLE_VALUE are counted in the last bucket,
+ * the maximum is always exact.
+ * 
+ * record() only updates atomic primitives, so it never allocates and it can be
+ * called concurrently by any number of threads.
+ */
+public final class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    /**
+     * About 18 minutes in nanoseconds
+     */
+    public static final long MAX_TRACKABLE_VALUE = (1L << 40) - 1;
+    private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_VALUE) + 1;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+    private volatile long startNanos = System.nanoTime();
+    
+    /**
+     * 
+     * Record one value
+     * 
+     * @param value the value in nanoseconds, negative values are counted as 0
+     */
+    public void record(long value) {
+        if(value < 0) {
+            value = 0;
+        }
+        
+        counts.incrementAndGet(indexOf(Math.min(value, MAX_TRACKABLE_VALUE)));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(value);
+        
+        long max = maxValue.get();
+        while(value > max && !maxValue.compareAndSet(max, value)) {
+            max = maxValue.get();
+        }
+    }
+    
+    /**
+     * 
+     * @return a consistent enough copy of the histogram, with its percentiles
+     */
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long count = 0;
+        
+        for(int index = 0; index < BUCKET_COUNT; ++index) {
+            copy[index] = counts.get(index);
+            count += copy[index];
+        }
+        
+        long max = maxValue.get();
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        return new HistogramSnapshot(count, 
+                Math.min(max, valueAtPercentile(copy, count, 50.0)), 
+                Math.min(max, valueAtPercentile(copy, count, 99.0)), 
+                Math.min(max, valueAtPercentile(copy, count, 99.9)), 
+                max, 
+                count == 0 ? 0 : (double) totalValue.get() / count, 
+                elapsedSeconds > 0 ? count / elapsedSeconds : 0);
+    }
+    
+    /**
+     * 
+     * Clear all values and restart the throughput clock. Values recorded while
+     * resetting may be lost.
+     * 
+     */
+    public void reset() {
+        for(int index = 0; index < BUCKET_COUNT; ++index) {
+            counts.set(index, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        maxValue.set(0);
+        startNanos = System.nanoTime();
+    }
+    
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+    
+    /**
+     * 
+     * @param counts bucket counts
+     * @param count sum of the bucket counts
+     * @param percentile the percentile (0..100)
+     * @return highest value equivalent to the value at the percentile, 
+     * Long.MAX_VALUE if it is in the last bucket
+     */
+    private static long valueAtPercentile(long[] counts, long count, double percentile) {
+        if(count == 0) {
+            return 0;
+        }
+        
+        // percentile / 100 first would round e.g. 99.9% of 10000 up to a rank of 9991
+        long rank = Math.max(1, (long) Math.ceil(percentile * count / 100.0));
+        long seen = 0;
+        for(int index = 0; index < counts.length - 1; ++index) {
+            seen += counts[index];
+            if(seen >= rank) {
+                return highestEquivalentValue(index);
+            }
+        }
+        // the last bucket also counts the values above MAX_TRACKABLE_VALUE, up to the maximum
+        return Long.MAX_VALUE;
+    }
+    
+    /**
+     * 
+     * @param value the value (0..MAX_TRACKABLE_VALUE)
+     * @return index of the bucket containing the value
+     */
+    private static int indexOf(long value) {
+        if(value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // keep the SUB_BUCKET_BITS most significant bits
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift);
+    }
+    
+    /**
+     * 
+     * @param index index of a bucket
+     * @return the highest value counted in the bucket
+     */
+    private static long highestEquivalentValue(int index) {
+        if(index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        long subBucket = index - shift * SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+    
+}
@@ -0,0 +1,238 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package utilities.metrics;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * @author Kevin
+ * 
+ * In-process registry of latency histograms and counters, shared by all threads.
+ * Names are built with name(), e.g. "solve/AStar" for the solve latency of A*. 
+ * Nothing is ever removed but by clear(), so these names come from a bounded set, 
+ * such as the strategies.
+ * 
+ * Metrics per world, e.g. "solve/AStar/i1.png", are kept apart by 
+ * worldHistogram(): they are off by default, and once enabled with setMaxWorlds()
+ * only the worlds looked up most recently keep their histograms.
+ * 
+ * Looking up a histogram or counter builds its name and may create it, so hot 
+ * paths look them up once and keep the reference; recording is allocation-free.
+ */
+public final class MetricsRegistry {
+    
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+    
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<String, LatencyHistogram>();
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<String, LongAdder>();
+    /**
+     * The worlds with histograms, least recently looked up first, with the names of their histograms
+     */
+    private final LinkedHashMap<String, List<String>> worlds = new LinkedHashMap<String, List<String>>(16, 0.75f, true);
+    private int maxWorlds;
+    
+    /**
+     * 
+     * @return the registry used by the Solver and the TileWorld
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+    
+    /**
+     * 
+     * @param parts the parts of the name, e.g. metric, strategy and world
+     * @return the parts separated by slashes
+     */
+    public static String name(String... parts) {
+        StringBuilder name = new StringBuilder();
+        
+        for(String part : parts) {
+            if(name.length() > 0) {
+                name.append('/');
+            }
+            name.append(part);
+        }
+        return name.toString();
+    }
+    
+    /**
+     * 
+     * @param name name of the histogram
+     * @return the histogram, created if it did not exist
+     */
+    public LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        
+        if(histogram == null) {
+            histogram = new LatencyHistogram();
+            LatencyHistogram existing = histograms.putIfAbsent(name, histogram);
+            if(existing != null) {
+                histogram = existing;
+            }
+        }
+        return histogram;
+    }
+    
+    /**
+     * 
+     * Look up the histogram of a metric for one world. Its name is the name of
+     * the metric followed by the world. When more than maxWorlds worlds have 
+     * histograms, those of the least recently looked up world are removed.
+     * 
+     * @param name name of the metric, e.g. "solve/AStar"
+     * @param world name of the world
+     * @return the histogram, created if it did not exist; null if metrics per world are off
+     */
+    public synchronized LatencyHistogram worldHistogram(String name, String world) {
+        if(maxWorlds <= 0 || world == null) {
+            return null;
+        }
+        
+        List<String> names = worlds.get(world);
+        if(names == null) {
+            names = new ArrayList<String>();
+            worlds.put(world, names);
+        }
+        String worldName = name(name, world);
+        if(!names.contains(worldName)) {
+            names.add(worldName);
+        }
+        LatencyHistogram histogram = histogram(worldName);
+        evictWorlds();
+        return histogram;
+    }
+    
+    /**
+     * 
+     * Remove the histograms of the least recently looked up worlds, until at 
+     * most maxWorlds worlds have histograms.
+     * 
+     */
+    private void evictWorlds() {
+        Iterator<List<String>> eldest = worlds.values().iterator();
+        while(worlds.size() > maxWorlds) {
+            for(String name : eldest.next()) {
+                histograms.remove(name);
+            }
+            eldest.remove();
+        }
+    }
+    
+    /**
+     * @return the maximum number of worlds with histograms, 0 if metrics per world are off
+     */
+    public synchronized int getMaxWorlds() {
+        return maxWorlds;
+    }
+    
+    /**
+     * @param maxWorlds the maximum number of worlds with histograms, 0 (the default) to turn metrics per world off
+     */
+    public synchronized void setMaxWorlds(int maxWorlds) {
+        this.maxWorlds = Math.max(0, maxWorlds);
+        evictWorlds();
+    }
+    
+    /**
+     * 
+     * @param name name of the counter
+     * @return the counter, created if it did not exist
+     */
+    public LongAdder counter(String name) {
+        LongAdder counter = counters.get(name);
+        
+        if(counter == null) {
+            counter = new LongAdder();
+            LongAdder existing = counters.putIfAbsent(name, counter);
+            if(existing != null) {
+                counter = existing;
+            }
+        }
+        return counter;
+    }
+    
+    /**
+     * 
+     * @return snapshots of all histograms, sorted by name
+     */
+    public Map<String, HistogramSnapshot> snapshotHistograms() {
+        Map<String, HistogramSnapshot> snapshots = new TreeMap<String, HistogramSnapshot>();
+        
+        for(Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            snapshots.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return snapshots;
+    }
+    
+    /**
+     * 
+     * @return values of all counters, sorted by name
+     */
+    public Map<String, Long> snapshotCounters() {
+        Map<String, Long> snapshots = new TreeMap<String, Long>();
+        
+        for(Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            snapshots.put(entry.getKey(), entry.getValue().sum());
+        }
+        return snapshots;
+    }
+    
+    /**
+     * 
+     * Print all histograms and counters, sorted by name
+     * 
+     * @param out the stream to print to
+     */
+    public void printReport(PrintStream out) {
+        for(Map.Entry<String, HistogramSnapshot> entry : snapshotHistograms().entrySet()) {
+            out.println(entry.getKey() + " " + entry.getValue());
+        }
+        for(Map.Entry<String, Long> entry : snapshotCounters().entrySet()) {
+            out.println(entry.getKey() + " " + entry.getValue());
+        }
+    }
+    
+    /**
+     * 
+     * Remove all histograms and counters
+     * 
+     */
+    public synchronized void clear() {
+        histograms.clear();
+        counters.clear();
+        worlds.clear();
+    }
+    
+}
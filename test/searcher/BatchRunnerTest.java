@@ -0,0 +1,217 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.imageio.ImageIO;
+import org.junit.*;
+import static org.junit.Assert.*;
+import searcher.strategy.SearchStrategy;
+
+/**
+ *
+ * @author Kevin
+ */
+public class BatchRunnerTest {
+    
+    /**
+     * A file name that needs escaping in both formats
+     */
+    private static final String SPECIAL_NAME = "a,b \"c\" \\d.png";
+    
+    private static File directory;
+    
+    public BatchRunnerTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        directory = Files.createTempDirectory("batch").toFile();
+        File world = new File("input", "i1.png");
+        Files.copy(world.toPath(), new File(directory, SPECIAL_NAME).toPath());
+        Files.copy(world.toPath(), new File(directory, "plain.png").toPath());
+        // a world without START and END, which fails to search
+        ImageIO.write(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), "png", new File(directory, "nostart.png"));
+        Files.write(new File(directory, "notes.txt").toPath(), "not a world".getBytes("UTF-8"));
+        // a world that cannot be decoded
+        Files.write(new File(directory, "broken.png").toPath(), "not an image".getBytes("UTF-8"));
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        for(File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of findFiles method, of class BatchRunner.
+     */
+    @Test
+    public void testFindFiles() {
+        System.out.println("Batch runner Test find files");
+        
+        assertEquals("Files of directory do not match!", 
+                Arrays.asList(new File(directory, SPECIAL_NAME), new File(directory, "broken.png"), 
+                        new File(directory, "nostart.png"), new File(directory, "plain.png")), 
+                BatchRunner.findFiles(directory.getPath()));
+        assertEquals("Files of glob do not match!", Arrays.asList(new File(directory, "plain.png")), 
+                BatchRunner.findFiles(new File(directory, "p*.png").getPath()));
+        assertEquals("Files of glob do not match!", Arrays.asList(new File(directory, SPECIAL_NAME)), 
+                BatchRunner.findFiles(new File(directory, "a,b ?c? \\d.*").getPath()));
+        assertTrue("Files of glob do not match!", BatchRunner.findFiles(new File(directory, "*.jpg").getPath()).isEmpty());
+    }
+    
+    /**
+     * Test of run method, of class BatchRunner: the records of both formats 
+     * parse back to the worlds, and a world that fails has an ERROR record per
+     * strategy and does not stop the others.
+     */
+    @Test
+    public void testRun() throws IOException, InterruptedException {
+        System.out.println("Batch runner Test run");
+        
+        for(BatchResultWriter.Format format : BatchResultWriter.Format.values()) {
+            StringWriter out = new StringWriter();
+            BatchRunner runner = new BatchRunner(BatchRunner.findFiles(directory.getPath()), 
+                    Arrays.asList(SearchStrategy.A_STAR, SearchStrategy.DIJKSTRA), 2, new BatchResultWriter(out, format));
+            runner.run();
+            
+            List<String> lines = new ArrayList<String>(Arrays.asList(out.toString().split("\n")));
+            if(format == BatchResultWriter.Format.CSV) {
+                assertTrue("Header does not match!", lines.remove(0).startsWith("world,width,height,strategy,"));
+            }
+            assertEquals("Record count does not match!", 8, lines.size());
+            
+            List<String> worlds = new ArrayList<String>();
+            List<String> errors = new ArrayList<String>();
+            for(String line : lines) {
+                List<String> fields = format == BatchResultWriter.Format.CSV ? parseCsv(line) : parseJson(line);
+                assertEquals("Column count does not match!", 19, fields.size());
+                
+                if(BatchResultWriter.ERROR.equals(fields.get(17))) {
+                    errors.add(fields.get(0) + " " + fields.get(1) + " " + fields.get(3));
+                    assertFalse("Error is empty!", fields.get(18).isEmpty());
+                    assertEquals("Error record has a path cost!", format == BatchResultWriter.Format.CSV ? "" : "null", fields.get(5));
+                    continue;
+                }
+                worlds.add(fields.get(0));
+                assertEquals("Record does not match!", Arrays.asList("40", "30"), fields.subList(1, 3));
+                assertEquals("BestPathCost does not match!", "580", fields.get(5));
+                assertEquals("Status does not match!", "FOUND", fields.get(17));
+            }
+            assertEquals("Record count does not match!", 4, worlds.size());
+            assertTrue("World name is not escaped!", worlds.contains(new File(directory, SPECIAL_NAME).getPath()));
+            assertTrue("World name is not escaped!", worlds.contains(new File(directory, "plain.png").getPath()));
+            
+            String broken = new File(directory, "broken.png").getPath();
+            String nostart = new File(directory, "nostart.png").getPath();
+            Collections.sort(errors);
+            assertEquals("Errors do not match!", Arrays.asList(broken + " 0 A_STAR", broken + " 0 DIJKSTRA", 
+                    nostart + " 8 A_STAR", nostart + " 8 DIJKSTRA"), errors);
+        }
+    }
+    
+    /**
+     * @return the fields of a CSV line, with quoted fields unescaped
+     */
+    private static List<String> parseCsv(String line) {
+        List<String> fields = new ArrayList<String>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for(int i = 0; i < line.length(); ++i) {
+            char c = line.charAt(i);
+            if(quoted && c == '"') {
+                if(i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    ++i;
+                } else {
+                    quoted = false;
+                }
+            } else if(!quoted && c == '"') {
+                quoted = true;
+            } else if(!quoted && c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+    
+    /**
+     * @return the values of a flat JSON object, in order, with strings unescaped
+     */
+    private static List<String> parseJson(String line) {
+        List<String> values = new ArrayList<String>();
+        assertTrue("Record is not a JSON object!", line.startsWith("{\"") && line.endsWith("}"));
+        int i = 1;
+        while(line.charAt(i) != '}') {
+            i = line.indexOf("\":", i + 1) + 2; // the end of the key
+            StringBuilder value = new StringBuilder();
+            if(line.charAt(i) == '"') {
+                for(++i; line.charAt(i) != '"'; ++i) {
+                    char c = line.charAt(i);
+                    if(c == '\\') {
+                        c = line.charAt(++i);
+                        if(c == 'u') {
+                            c = (char) Integer.parseInt(line.substring(i + 1, i + 5), 16);
+                            i += 4;
+                        }
+                    }
+                    value.append(c);
+                }
+                ++i;
+            } else {
+                while(line.charAt(i) != ',' && line.charAt(i) != '}') {
+                    value.append(line.charAt(i++));
+                }
+            }
+            values.add(value.toString());
+            if(line.charAt(i) == ',') {
+                ++i;
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.*;
+import static org.junit.Assert.*;
+import searcher.strategy.SearchStrategy;
+import tileworld.I_TileWorld;
+import tileworld.TileWorld;
+import tileworld.WorldGenerator;
+
+/**
+ *
+ * @author Kevin
+ */
+public class DeltaSteppingTest {
+    
+    public DeltaSteppingTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of solve method, of class DeltaStepping: the cost of END is that of Dijkstra.
+     */
+    @Test
+    public void test1() {
+        System.out.println("Delta-stepping Test i1");
+        
+        I_TileWorld world = new TileWorld("i1.png");
+        AlgorithmResults expResult = new Solver(new TileWorld(world), SearchStrategy.DIJKSTRA).solve();
+        int[] result = new DeltaStepping(world).solve(world.findStartIndex());
+        
+        assertEquals("BestPathCost does not match!", expResult.getBestPathCost(), result[world.findEndIndex()]);
+    }
+    
+    /**
+     * Test of solve method, of class DeltaStepping: every cost is that of sequential Dijkstra.
+     */
+    @Test
+    public void testGeneratedWorlds() {
+        System.out.println("Delta-stepping Test generated worlds");
+        
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for(WorldGenerator.Layout layout : WorldGenerator.Layout.values()) {
+            TileWorld world = new WorldGenerator(layout, 200, 150, 42).generate();
+            
+            for(int delta : new int[] { 10, DeltaStepping.DEFAULT_DELTA, 1000 }) {
+                DeltaStepping deltaStepping = new DeltaStepping(world, pool, delta);
+                
+                assertArrayEquals("Costs do not match on " + layout + "!", 
+                        deltaStepping.solveSequential(world.findStartIndex()), 
+                        deltaStepping.solve(world.findStartIndex()));
+            }
+        }
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import searcher.strategy.SearchStrategy;
+import tileworld.I_Cost;
+import tileworld.TileType;
+import tileworld.TileWorld;
+import tileworld.WorldGenerator;
+import utilities.OffHeapArena;
+
+/**
+ *
+ * @author Kevin
+ */
+public class OffHeapSearchTest {
+    
+    public OffHeapSearchTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of solve method, of class OffHeapSearch.
+     */
+    @Test
+    public void test1() {
+        System.out.println("Off-heap search Test i1");
+        
+        TileWorld world = new TileWorld("i1.png");
+        OffHeapSearch search = new OffHeapSearch(world);
+        
+        assertEquals("BestPathCost does not match!", 580, 
+                search.solve(world.findStartX(), world.findStartY(), world.findEndX(), world.findEndY()));
+        long[] path = search.getPath();
+        assertEquals("Path does not start at START!", world.findStartIndex(), path[0]);
+        assertEquals("Path does not end at END!", world.findEndIndex(), path[path.length - 1]);
+    }
+    
+    /**
+     * Test of solve method, of class OffHeapSearch: the arenas are reused by 
+     * queries in both directions, over small pages, with the costs of Dijkstra.
+     */
+    @Test
+    public void testGeneratedWorlds() {
+        System.out.println("Off-heap search Test generated worlds");
+        
+        for(WorldGenerator.Layout layout : WorldGenerator.Layout.values()) {
+            TileWorld world = new WorldGenerator(layout, 200, 150, 42).generate();
+            int expResult = new Solver(new TileWorld(world), SearchStrategy.DIJKSTRA).solve().getBestPathCost();
+            if(expResult < 0) {
+                expResult = I_Cost.INFINITY;
+            }
+            
+            OffHeapSearch search = new OffHeapSearch(world.getSnapshot(), new OffHeapArena(12), new OffHeapArena(12));
+            // the reverse cost differs, as the cost of a tile is paid when it is entered
+            int reverse = search.solve(world.findEndX(), world.findEndY(), world.findStartX(), world.findStartY());
+            for(int query = 0; query < 3; ++query) {
+                assertEquals("BestPathCost does not match on " + layout + "!", expResult, 
+                        search.solve(world.findStartX(), world.findStartY(), world.findEndX(), world.findEndY()));
+                assertEquals("Reverse BestPathCost has changed on " + layout + "!", reverse, 
+                        search.solve(world.findEndX(), world.findEndY(), world.findStartX(), world.findStartY()));
+            }
+        }
+    }
+    
+    /**
+     * Test of setSnapshot method, of class OffHeapSearch: edits are searched 
+     * once they are published.
+     */
+    @Test
+    public void testSetSnapshot() {
+        System.out.println("Off-heap search Test set snapshot");
+        
+        TileWorld world = new TileWorld(50, 3);
+        OffHeapSearch search = new OffHeapSearch(world);
+        assertEquals("BestPathCost does not match!", 49 * TileType.ROAD.getCost(), search.solve(0, 1, 49, 1));
+        
+        for(int y = 0; y < world.getHeight(); ++y) {
+            world.setTileType(25, y, TileType.NONWALKABLE);
+        }
+        assertEquals("Unpublished edit is searched!", 49 * TileType.ROAD.getCost(), search.solve(0, 1, 49, 1));
+        
+        world.incrementVersion();
+        search.setSnapshot(world.getSnapshot());
+        assertEquals("Published edit is not searched!", I_Cost.INFINITY, search.solve(0, 1, 49, 1));
+        assertEquals("Path is not empty!", 0, search.getPath().length);
+    }
+    
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import searcher.strategy.SearchStrategy;
+import tileworld.TileType;
+import tileworld.TileWorld;
+
+/**
+ *
+ * @author Kevin
+ */
+public class PathCacheTest {
+    
+    public PathCacheTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    /**
+     * An open tile world with START at (2,5) and END at (20,5).
+     */
+    private static TileWorld createWorld() {
+        TileWorld tileWorld = new TileWorld(32, 24);
+        tileWorld.setTileType(2, 5, TileType.START);
+        tileWorld.setTileType(20, 5, TileType.END);
+        return tileWorld;
+    }
+
+    /**
+     * Test of solve method, of class PathCache: the second search is found in the cache.
+     */
+    @Test
+    public void testHit() {
+        System.out.println("Path cache Test hit");
+        
+        TileWorld tileWorld = createWorld();
+        PathCache cache = new PathCache(16, Long.MAX_VALUE);
+        AlgorithmResults first = cache.solve(tileWorld, SearchStrategy.A_STAR);
+        AlgorithmResults second = cache.solve(tileWorld, SearchStrategy.A_STAR);
+        
+        assertSame("Result is not cached!", first, second);
+        assertEquals("Hits do not match!", 1, cache.getHits());
+        assertEquals("Misses do not match!", 1, cache.getMisses());
+        assertEquals("BestPathCost does not match!", 180, first.getBestPathCost());
+        assertEquals("Tile world is drawn on!", TileType.ROAD, tileWorld.getTileType(10, 5));
+    }
+    
+    /**
+     * Test of tileChanged method, of class PathCache: an edit of a tile on the 
+     * path removes the result, also a tile between the waypoints of an any-angle path.
+     */
+    @Test
+    public void testInvalidation() {
+        System.out.println("Path cache Test invalidation");
+        
+        for(SearchStrategy strategy : new SearchStrategy[] { SearchStrategy.A_STAR, SearchStrategy.LAZY_THETA_STAR }) {
+            TileWorld tileWorld = createWorld();
+            PathCache cache = new PathCache(16, Long.MAX_VALUE);
+            AlgorithmResults first = cache.solve(tileWorld, strategy);
+            
+            tileWorld.setTileType(10, 5, TileType.NONWALKABLE);
+            assertEquals(strategy + " result is not removed!", 0, cache.size());
+            assertEquals(strategy + " invalidations do not match!", 1, cache.getInvalidations());
+            
+            AlgorithmResults second = cache.solve(tileWorld, strategy);
+            assertNotSame(strategy + " result is not searched again!", first, second);
+            assertEquals(strategy + " misses do not match!", 2, cache.getMisses());
+        }
+    }
+    
+    /**
+     * Test of tileChanged method, of class PathCache: an edit of a tile that is
+     * not on the path keeps the result.
+     */
+    @Test
+    public void testUnrelatedEdit() {
+        System.out.println("Path cache Test unrelated edit");
+        
+        for(SearchStrategy strategy : new SearchStrategy[] { SearchStrategy.A_STAR, SearchStrategy.LAZY_THETA_STAR }) {
+            TileWorld tileWorld = createWorld();
+            PathCache cache = new PathCache(16, Long.MAX_VALUE);
+            AlgorithmResults first = cache.solve(tileWorld, strategy);
+            
+            tileWorld.setTileType(10, 20, TileType.NONWALKABLE);
+            assertEquals(strategy + " result is removed!", 1, cache.size());
+            assertSame(strategy + " result is not cached!", first, cache.solve(tileWorld, strategy));
+            assertEquals(strategy + " invalidations do not match!", 0, cache.getInvalidations());
+        }
+    }
+    
+    /**
+     * Test of solve method, of class PathCache: the least recently used result is evicted.
+     */
+    @Test
+    public void testEviction() {
+        System.out.println("Path cache Test eviction");
+        
+        TileWorld tileWorld = createWorld();
+        PathCache cache = new PathCache(2, Long.MAX_VALUE);
+        AlgorithmResults aStar = cache.solve(tileWorld, SearchStrategy.A_STAR);
+        AlgorithmResults dijkstra = cache.solve(tileWorld, SearchStrategy.DIJKSTRA);
+        cache.solve(tileWorld, SearchStrategy.A_STAR);
+        cache.solve(tileWorld, SearchStrategy.GREEDY);
+        
+        assertEquals("Size does not match!", 2, cache.size());
+        assertEquals("Evictions do not match!", 1, cache.getEvictions());
+        assertSame("Recently used result is evicted!", aStar, cache.solve(tileWorld, SearchStrategy.A_STAR));
+        assertNotSame("Least recently used result is not evicted!", dijkstra, cache.solve(tileWorld, SearchStrategy.DIJKSTRA));
+    }
+    
+    /**
+     * Test of solve method, of class PathCache: the results of an older version are removed.
+     */
+    @Test
+    public void testVersion() {
+        System.out.println("Path cache Test version");
+        
+        TileWorld tileWorld = createWorld();
+        PathCache cache = new PathCache(16, Long.MAX_VALUE);
+        cache.solve(tileWorld, SearchStrategy.A_STAR);
+        cache.solve(tileWorld, SearchStrategy.DIJKSTRA);
+        
+        tileWorld.incrementVersion();
+        cache.solve(tileWorld, SearchStrategy.A_STAR);
+        
+        assertEquals("Size does not match!", 1, cache.size());
+        assertEquals("Invalidations do not match!", 2, cache.getInvalidations());
+    }
+    
+}
@@ -0,0 +1,161 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+import searcher.strategy.SearchStrategy;
+import tileworld.TileWorld;
+
+/**
+ *
+ * @author Kevin
+ */
+public class SearchEventBufferTest {
+    
+    public SearchEventBufferTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    /**
+     * Counts the events it is given
+     */
+    private static final class Recorder implements I_SearchListener {
+        
+        private int started;
+        private int opened;
+        private int closed;
+        private final List<int[]> paths = new ArrayList<int[]>();
+        private int pathCost = -1;
+
+        @Override
+        public void searchStarted(int startX, int startY, int endX, int endY) {
+            started++;
+        }
+
+        @Override
+        public void nodeOpened(int x, int y, int cost) {
+            opened++;
+        }
+
+        @Override
+        public void nodeClosed(int x, int y, int cost) {
+            closed++;
+        }
+
+        @Override
+        public void pathFound(int[] path, int width, int cost) {
+            paths.add(path);
+            pathCost = cost;
+        }
+        
+    }
+
+    /**
+     * Test of drain method, of class SearchEventBuffer: every strategy reports its 
+     * expansions and its path.
+     */
+    @Test
+    public void testStrategies() {
+        System.out.println("Search event buffer Test strategies");
+        
+        for(SearchStrategy strategy : new SearchStrategy[] { SearchStrategy.A_STAR, SearchStrategy.DIJKSTRA, 
+                SearchStrategy.FRINGE_SEARCH, SearchStrategy.LAZY_THETA_STAR, SearchStrategy.ARA_STAR, SearchStrategy.SMA_STAR }) {
+            SearchEventBuffer events = new SearchEventBuffer(1 << 20);
+            Solver solver = new Solver(new TileWorld("i1.png"), strategy);
+            solver.setSearchListener(events);
+            AlgorithmResults result = solver.solve();
+            
+            Recorder recorder = new Recorder();
+            while(events.drain(recorder, 1000) > 0) {
+            }
+            assertEquals("Start does not match on " + strategy + "!", 1, recorder.started);
+            assertEquals("Closed does not match on " + strategy + "!", result.getNodesExpanded(), recorder.closed);
+            assertTrue("Nothing is opened on " + strategy + "!", recorder.opened > 0);
+            assertEquals("Path is not found once on " + strategy + "!", 1, recorder.paths.size());
+            assertEquals("Path cost does not match on " + strategy + "!", result.getBestPathCost(), recorder.pathCost);
+            assertArrayEquals("Path does not match on " + strategy + "!", result.getSolutionPath(), recorder.paths.get(0));
+            assertEquals("Events are dropped on " + strategy + "!", 0, events.getDropped());
+        }
+    }
+    
+    /**
+     * Test of drain method, of class SearchEventBuffer: a full buffer drops events 
+     * instead of blocking the search, but not the path.
+     */
+    @Test
+    public void testOverflow() {
+        System.out.println("Search event buffer Test overflow");
+        
+        SearchEventBuffer events = new SearchEventBuffer(16);
+        Solver solver = new Solver(new TileWorld("i1.png"), SearchStrategy.DIJKSTRA);
+        solver.setSearchListener(events);
+        AlgorithmResults result = solver.solve();
+        
+        Recorder recorder = new Recorder();
+        assertEquals("Capacity does not match!", 16, events.drain(recorder, Integer.MAX_VALUE));
+        assertTrue("Events are not dropped!", events.getDropped() > 0);
+        assertEquals("Path is dropped!", result.getBestPathCost(), recorder.pathCost);
+        assertEquals("Buffer is not empty!", 0, events.drain(recorder, Integer.MAX_VALUE));
+    }
+    
+    /**
+     * Test of update method, of class SearchViewer.
+     */
+    @Test
+    public void testViewer() {
+        System.out.println("Search event buffer Test viewer");
+        
+        TileWorld world = new TileWorld("i1.png");
+        Solver solver = new Solver(world, SearchStrategy.A_STAR);
+        SearchEventBuffer events = new SearchEventBuffer();
+        SearchViewer viewer = new SearchViewer(world, 10, events);
+        solver.setSearchListener(events);
+        int[] path = solver.solve().getSolutionPath();
+        
+        assertTrue("Nothing is drawn!", viewer.update() > 0);
+        int end = path[path.length - 1];
+        assertNotEquals("Path is not drawn!", 0, 
+                viewer.getOverlayColor(end % world.getWidth(), end / world.getWidth()));
+        assertEquals("Events are drawn twice!", 0, viewer.update());
+    }
+    
+}
@@ -0,0 +1,211 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+import searcher.strategy.ARAStar;
+import searcher.strategy.SearchStrategy;
+import tileworld.TileSnapshot;
+import tileworld.TileType;
+import tileworld.TileWorld;
+
+/**
+ *
+ * @author Kevin
+ */
+public class SearchHandleTest {
+    
+    public SearchHandleTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * The strategies that run in slices, AUTO selects one of them
+     */
+    private static final SearchStrategy[] SLICEABLE = {SearchStrategy.A_STAR, SearchStrategy.DIJKSTRA, 
+        SearchStrategy.GREEDY, SearchStrategy.ARA_STAR, SearchStrategy.FRINGE_SEARCH, SearchStrategy.LAZY_THETA_STAR, 
+        SearchStrategy.AUTO};
+
+    /**
+     * Test of step method, of class I_SearchHandle: a search in slices finds 
+     * the same path as solve().
+     */
+    @Test
+    public void test1() {
+        System.out.println("Search handle Test i1");
+        
+        TileSnapshot snapshot = new TileWorld("i1.png").getSnapshot();
+        for(SearchStrategy strategy : SLICEABLE) {
+            AlgorithmResults expResult = new Solver(snapshot.overlay(), strategy).solve();
+            
+            I_SearchHandle search = new Solver(snapshot.overlay(), strategy).start();
+            int slices = 0;
+            while(search.step(50) == SearchStatus.RUNNING) {
+                assertNull("Results of a running search!", search.getResults());
+                assertTrue("Slice expands too much!", search.getNodesExpanded() <= ++slices * 50);
+            }
+            AlgorithmResults result = search.getResults();
+            
+            assertEquals("Status does not match!", SearchStatus.FOUND, search.getStatus());
+            assertEquals("BestPathCost does not match!", expResult.getBestPathCost(), result.getBestPathCost());
+            assertEquals("NodesExpanded does not match!", expResult.getNodesExpanded(), result.getNodesExpanded());
+            assertArrayEquals("Path does not match!", expResult.getSolutionPath(), result.getSolutionPath());
+            assertEquals("Strategy does not match!", expResult.getStrategy(), result.getStrategy());
+            assertEquals("Time does not match!", search.getTime(), result.getTime());
+        }
+    }
+    
+    /**
+     * Test of step method, of class I_SearchHandle: a slice of one expansion
+     * expands at most one Node.
+     */
+    @Test
+    public void testBudget() {
+        System.out.println("Search handle Test budget");
+        
+        TileSnapshot snapshot = new TileWorld("i1.png").getSnapshot();
+        for(SearchStrategy strategy : SLICEABLE) {
+            AlgorithmResults expResult = new Solver(snapshot.overlay(), strategy).solve();
+            I_SearchHandle search = new Solver(snapshot.overlay(), strategy).start();
+            int expanded = 0;
+            while(search.step(1) == SearchStatus.RUNNING) {
+                assertTrue(strategy + " slice expands too much!", search.getNodesExpanded() <= expanded + 1);
+                expanded = search.getNodesExpanded();
+            }
+            assertEquals(strategy + " BestPathCost does not match!", expResult.getBestPathCost(), search.getResults().getBestPathCost());
+        }
+        
+        // the budget of the whole ARA* search ends it, the budget of a slice does not
+        Solver solver = new Solver(snapshot.overlay(), SearchStrategy.ARA_STAR);
+        ((ARAStar) solver.getStrategy()).setMaxExpansions(100);
+        I_SearchHandle search = solver.start();
+        while(search.step(7) == SearchStatus.RUNNING) {
+        }
+        assertEquals("NodesExpanded does not match!", 100, search.getNodesExpanded());
+    }
+    
+    /**
+     * Test of stepUntil method, of class I_SearchHandle.
+     */
+    @Test
+    public void testDeadline() {
+        System.out.println("Search handle Test deadline");
+        
+        I_SearchHandle search = new Solver(new TileWorld("i1.png"), SearchStrategy.DIJKSTRA).start();
+        assertEquals("Search ran after its deadline!", SearchStatus.RUNNING, search.stepUntil(System.nanoTime()));
+        assertEquals("Search ran after its deadline!", 0, search.getNodesExpanded());
+        
+        while(search.stepUntil(System.nanoTime() + 100000) == SearchStatus.RUNNING) {
+        }
+        assertEquals("BestPathCost does not match!", 580, search.getResults().getBestPathCost());
+    }
+    
+    /**
+     * Test of start method, of class Solver: strategies that cannot run in slices
+     * are rejected, searches without a path fail, and a search ends when the 
+     * next one starts.
+     */
+    @Test
+    public void testStatus() {
+        System.out.println("Search handle Test status");
+        
+        for(SearchStrategy strategy : new SearchStrategy[] {SearchStrategy.IDA_STAR, SearchStrategy.SMA_STAR}) {
+            Solver solver = new Solver(new TileWorld("i1.png"), strategy);
+            try {
+                solver.start();
+                fail(strategy + " runs in slices!");
+            } catch(UnsupportedOperationException exc) {
+            }
+            assertTrue(strategy + " does not solve!", solver.solve().getBestPathCost() > 0);
+        }
+        
+        I_SearchHandle search;
+        TileWorld world = new TileWorld(20, 20);
+        for(int i = 0; i < 20; ++i) {
+            world.setTileType(10, i, TileType.NONWALKABLE);
+        }
+        world.setTileType(2, 2, TileType.START);
+        world.setTileType(17, 17, TileType.END);
+        search = new Solver(world, SearchStrategy.A_STAR).start();
+        while(search.step(10) == SearchStatus.RUNNING) {
+        }
+        assertEquals("Search does not fail!", SearchStatus.FAILED, search.getStatus());
+        assertEquals("BestPathCost does not match!", -1, search.getResults().getBestPathCost());
+        
+        Solver solver = new Solver(new TileWorld("i1.png"), SearchStrategy.A_STAR);
+        I_SearchHandle first = solver.start();
+        first.step(10);
+        solver.start();
+        try {
+            first.step(10);
+            fail("Ended search takes a step!");
+        } catch(IllegalStateException exc) {
+        }
+    }
+    
+    /**
+     * Test of tick method, of class SearchScheduler.
+     */
+    @Test
+    public void testScheduler() {
+        System.out.println("Search handle Test scheduler");
+        
+        TileSnapshot snapshot = new TileWorld("i1.png").getSnapshot();
+        SearchScheduler scheduler = new SearchScheduler(16);
+        for(int i = 0; i < 20; ++i) {
+            scheduler.submit(new Solver(snapshot.overlay(), SearchStrategy.A_STAR).start());
+        }
+        
+        List<I_SearchHandle> done = new ArrayList<I_SearchHandle>();
+        int ticks = 0;
+        while(scheduler.getRunningCount() > 0) {
+            assertTrue("Scheduler does not finish!", ++ticks < 100000);
+            scheduler.tick(200000, done);
+        }
+        
+        assertEquals("Done count does not match!", 20, done.size());
+        for(I_SearchHandle search : done) {
+            assertEquals("BestPathCost does not match!", 580, search.getResults().getBestPathCost());
+        }
+        assertTrue("Searches are not interleaved!", scheduler.getSlices() >= 20 * (done.get(0).getNodesExpanded() / 16));
+    }
+}
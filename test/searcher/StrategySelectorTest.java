@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+import searcher.strategy.SearchStrategy;
+import tileworld.TileWorld;
+import tileworld.WorldGenerator;
+
+/**
+ *
+ * @author Kevin
+ */
+public class StrategySelectorTest {
+    
+    public StrategySelectorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of AUTO: the Solver searches with the chosen strategy and records it.
+     */
+    @Test
+    public void test1() {
+        System.out.println("Strategy selector Test i1");
+        
+        Solver solver = new Solver(new TileWorld("i1.png"), SearchStrategy.AUTO);
+        AlgorithmResults result = solver.solve();
+        
+        assertEquals("BestPathCost does not match!", 580, result.getBestPathCost());
+        assertTrue("AUTO is not recorded!", result.isAutoSelected());
+        assertEquals("Strategy does not match!", solver.getSelectedStrategy(), result.getStrategy());
+        assertNotEquals("Strategy is not chosen!", SearchStrategy.AUTO, result.getStrategy());
+    }
+    
+    /**
+     * Test of select method, of class StrategySelector: the fastest candidate of 
+     * the profile class is chosen once the default strategy has been measured.
+     */
+    @Test
+    public void testSelect() {
+        System.out.println("Strategy selector Test select");
+        
+        StrategySelector selector = new StrategySelector();
+        WorldProfile maze = WorldProfile.of(new WorldGenerator(WorldGenerator.Layout.MAZE, 64, 64, 42).generate());
+        WorldProfile field = WorldProfile.of(new WorldGenerator(WorldGenerator.Layout.OPEN_FIELD, 600, 600, 42).generate());
+        assertNotEquals("Profile classes match!", maze.getProfileClass(), field.getProfileClass());
+        
+        selector.record(maze, SearchStrategy.A_STAR, 1000);
+        selector.record(maze, SearchStrategy.GREEDY, 1);
+        assertEquals("Unmeasured default is not chosen!", StrategySelector.DEFAULT_STRATEGY, selector.select(maze));
+        
+        selector.record(maze, StrategySelector.DEFAULT_STRATEGY, 3000);
+        selector.record(maze, StrategySelector.DEFAULT_STRATEGY, 1000);
+        assertEquals("Fastest strategy is not chosen!", SearchStrategy.A_STAR, selector.select(maze));
+        assertEquals("Other profile class is affected!", StrategySelector.DEFAULT_STRATEGY, selector.select(field));
+        
+        selector.clear();
+        assertEquals("Records are not cleared!", StrategySelector.DEFAULT_STRATEGY, selector.select(maze));
+    }
+    
+}
@@ -0,0 +1,209 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.cooperative;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.*;
+import static org.junit.Assert.*;
+import tileworld.ConnectedComponents;
+import tileworld.TileType;
+import tileworld.TileWorld;
+import tileworld.WorldGenerator;
+
+/**
+ *
+ * @author Kevin
+ */
+public class CooperativePlannerTest {
+    
+    public CooperativePlannerTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of class ReservationTable: a tile has one owner per time step, within the window.
+     */
+    @Test
+    public void testReservationTable() {
+        System.out.println("Cooperative planner Test reservation table");
+        
+        ReservationTable table = new ReservationTable(4, 2);
+        assertTrue("Free tile is not reserved!", table.reserve(7, 2, 0));
+        assertTrue("Own tile is not reserved!", table.reserve(7, 2, 0));
+        assertFalse("Reserved tile is reserved twice!", table.reserve(7, 2, 1));
+        assertEquals("Owner does not match!", 0, table.getOwner(7, 2));
+        assertEquals("Other time step is reserved!", ReservationTable.NO_AGENT, table.getOwner(7, 3));
+        
+        table.release(7, 2, 1);
+        assertEquals("Tile released by another agent!", 0, table.getOwner(7, 2));
+        table.release(7, 2, 0);
+        assertTrue("Released tile is not reserved!", table.reserve(7, 2, 1));
+        
+        table.advance(3);
+        assertEquals("Past time step is kept!", ReservationTable.NO_AGENT, table.getOwner(7, 2));
+        assertTrue("End of the window is not reserved!", table.reserve(7, 7, 0));
+    }
+    
+    /**
+     * Test of tick method: two agents pass in a corridor with one passing place.
+     */
+    @Test
+    public void testCorridor() {
+        System.out.println("Cooperative planner Test corridor");
+        
+        TileWorld world = new TileWorld(7, 3);
+        for(int x = 0; x < 7; ++x) {
+            world.setTileType(x, 0, x == 3 ? TileType.ROAD : TileType.NONWALKABLE);
+            world.setTileType(x, 2, TileType.NONWALKABLE);
+        }
+        
+        CooperativePlanner planner = new CooperativePlanner(world, 2, 8);
+        planner.addAgent(7, 13);
+        planner.addAgent(13, 7);
+        
+        run(planner, 40);
+        assertTrue("Agents do not reach their goals!", planner.isAtGoal(0) && planner.isAtGoal(1));
+    }
+    
+    /**
+     * Test of tick method: many agents on a generated world reach their goals without collisions.
+     */
+    @Test
+    public void testManyAgents() {
+        System.out.println("Cooperative planner Test many agents");
+        
+        WorldGenerator generator = new WorldGenerator(WorldGenerator.Layout.RANDOM_TERRAIN, 64, 64, 42);
+        generator.setObstacleDensity(0.2);
+        TileWorld world = generator.generate();
+        ConnectedComponents components = world.getComponents();
+        
+        CooperativePlanner planner = new CooperativePlanner(world, 200);
+        Random random = new Random(42);
+        Set<Integer> starts = new HashSet<Integer>();
+        Set<Integer> goals = new HashSet<Integer>();
+        while(planner.getAgentCount() < 200) {
+            int start = random.nextInt(world.getSize());
+            int goal = random.nextInt(world.getSize());
+            
+            if(components.getComponent(start) != ConnectedComponents.NO_COMPONENT 
+                    && components.isConnected(start, goal) && starts.add(start) && goals.add(goal)) {
+                planner.addAgent(start, goal);
+            }
+        }
+        
+        run(planner, 300);
+        int arrived = 0;
+        for(int agent = 0; agent < planner.getAgentCount(); ++agent) {
+            if(planner.isAtGoal(agent)) {
+                arrived++;
+            }
+        }
+        System.out.println(arrived + " of " + planner.getAgentCount() + " agents arrived");
+        assertTrue("Agents do not reach their goals!", arrived >= planner.getAgentCount() * 9 / 10);
+    }
+    
+    /**
+     * Test of setGoal method: agents that get a new goal every tick reserve new 
+     * tiles every tick, which the reservation table must hold.
+     */
+    @Test
+    public void testRetarget() {
+        System.out.println("Cooperative planner Test retarget");
+        
+        TileWorld world = new TileWorld(64, 64);
+        CooperativePlanner planner = new CooperativePlanner(world, 100);
+        Random random = new Random(42);
+        Set<Integer> starts = new HashSet<Integer>();
+        while(planner.getAgentCount() < 100) {
+            int start = random.nextInt(world.getSize());
+            
+            if(starts.add(start)) {
+                planner.addAgent(start, random.nextInt(world.getSize()));
+            }
+        }
+        
+        for(int tick = 0; tick < 100; ++tick) {
+            for(int agent = 0; agent < planner.getAgentCount(); ++agent) {
+                planner.setGoal(agent, random.nextInt(world.getSize()));
+            }
+            assertEquals("Agents are not planned!", 100, planner.tick(Long.MAX_VALUE));
+            
+            Set<Integer> occupied = new HashSet<Integer>();
+            for(int agent = 0; agent < planner.getAgentCount(); ++agent) {
+                assertTrue("Agents collide at time " + planner.getTime() + "!", occupied.add(planner.getPosition(agent)));
+            }
+        }
+    }
+    
+    /**
+     * 
+     * Run ticks without a budget, asserting that no two agents share a tile or swap tiles.
+     * 
+     * @param planner the planner
+     * @param ticks the number of ticks
+     */
+    private void run(CooperativePlanner planner, int ticks) {
+        int agents = planner.getAgentCount();
+        int[] previous = new int[agents];
+        
+        for(int tick = 0; tick < ticks; ++tick) {
+            Set<Integer> occupied = new HashSet<Integer>();
+            Set<Long> moves = new HashSet<Long>();
+            for(int agent = 0; agent < agents; ++agent) {
+                previous[agent] = planner.getPosition(agent);
+            }
+            
+            planner.tick(Long.MAX_VALUE);
+            for(int agent = 0; agent < agents; ++agent) {
+                int position = planner.getPosition(agent);
+                
+                assertTrue("Agents collide at time " + planner.getTime() + "!", occupied.add(position));
+                if(position != previous[agent]) {
+                    moves.add((long) previous[agent] << 32 | position);
+                    assertFalse("Agents swap at time " + planner.getTime() + "!", 
+                            moves.contains((long) position << 32 | previous[agent]));
+                }
+            }
+        }
+        assertEquals("Reservations conflict!", 0, planner.getConflicts());
+    }
+    
+}
@@ -0,0 +1,211 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.realtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+import searcher.OffHeapSearch;
+import tileworld.I_Cost;
+import tileworld.TileType;
+import tileworld.TileWorld;
+import tileworld.WorldGenerator;
+
+/**
+ *
+ * @author Kevin
+ */
+public class RealTimeAgentTest {
+    
+    public RealTimeAgentTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of step method, of class RealTimeAgent: repeated walks learn the 
+     * cheapest path, which a new agent on the same tables walks at once.
+     */
+    @Test
+    public void test1() {
+        System.out.println("Real-time agent Test i1");
+        
+        TileWorld world = new TileWorld("i1.png");
+        LearnedHeuristics heuristics = new LearnedHeuristics(world.getSnapshot());
+        RealTimeAgent agent = new RealTimeAgent(heuristics, 64);
+        
+        long pathCost = 0;
+        for(int trial = 0; trial < 30 && pathCost != 580; ++trial) {
+            pathCost = walk(agent, world);
+            assertTrue("Agent does not learn!", pathCost >= 580);
+        }
+        assertEquals("BestPathCost does not match!", 580, pathCost);
+        assertEquals("BestPathCost does not match!", 580, walk(new RealTimeAgent(heuristics, 64), world));
+        assertEquals("Goal count does not match!", 1, heuristics.getGoalCount());
+    }
+    
+    /**
+     * Test of step method, of class RealTimeAgent: a step expands at most the 
+     * lookahead, and the learned values never overestimate.
+     */
+    @Test
+    public void testLearnedHeuristics() {
+        System.out.println("Real-time agent Test learned heuristics");
+        
+        TileWorld world = new WorldGenerator(WorldGenerator.Layout.RANDOM_TERRAIN, 64, 64, 3).generate();
+        LearnedHeuristics heuristics = new LearnedHeuristics(world.getSnapshot());
+        for(int lookahead : new int[] {1, 4, 32}) {
+            RealTimeAgent agent = new RealTimeAgent(heuristics, lookahead);
+            agent.setPosition(world.findStartX(), world.findStartY());
+            agent.setGoal(world.findEndX(), world.findEndY());
+            while(agent.step()) {
+                assertTrue("Lookahead is exceeded!", agent.getExpansions() <= lookahead);
+            }
+            assertTrue("Agent does not reach the goal!", agent.isAtGoal());
+        }
+        
+        OffHeapSearch search = new OffHeapSearch(world);
+        LearnedHeuristics.Table table = heuristics.getTable(world.findEndIndex());
+        int learned = 0;
+        for(int index = 0; index < world.getWidth() * world.getHeight(); ++index) {
+            if(table.isLearned(index)) {
+                ++learned;
+                int cost = search.solve(index % world.getWidth(), index / world.getWidth(), 
+                        world.findEndX(), world.findEndY());
+                assertTrue("Learned value overestimates!", table.get(index) <= cost);
+            }
+        }
+        assertTrue("Nothing is learned!", learned > 0);
+    }
+    
+    /**
+     * Test of step method, of class RealTimeAgent: agents on several threads 
+     * share the table of their goal.
+     */
+    @Test
+    public void testSharedTable() throws InterruptedException {
+        System.out.println("Real-time agent Test shared table");
+        
+        final TileWorld world = new WorldGenerator(WorldGenerator.Layout.ROOMS, 128, 128, 5).generate();
+        final LearnedHeuristics heuristics = new LearnedHeuristics(world.getSnapshot());
+        final long[] pathCosts = new long[4];
+        List<Thread> threads = new ArrayList<Thread>();
+        for(int i = 0; i < pathCosts.length; ++i) {
+            final int agentIndex = i;
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    RealTimeAgent agent = new RealTimeAgent(heuristics, 16);
+                    for(int trial = 0; trial < 20; ++trial) {
+                        pathCosts[agentIndex] = walk(agent, world);
+                    }
+                }
+            });
+        }
+        for(Thread thread : threads) {
+            thread.start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        
+        int best = new OffHeapSearch(world).solve(world.findStartX(), world.findStartY(), world.findEndX(), world.findEndY());
+        for(long pathCost : pathCosts) {
+            assertTrue("Agent does not reach the goal!", pathCost >= best && pathCost < I_Cost.INFINITY);
+        }
+        assertEquals("Goal count does not match!", 1, heuristics.getGoalCount());
+    }
+    
+    /**
+     * Test of step method, of class RealTimeAgent: an agent walled off from its 
+     * goal learns that and stops, once a lookahead covers the tiles it can reach.
+     */
+    @Test
+    public void testUnreachable() {
+        System.out.println("Real-time agent Test unreachable");
+        
+        TileWorld world = new TileWorld(20, 20);
+        for(int i = 0; i < 20; ++i) {
+            world.setTileType(10, i, TileType.NONWALKABLE);
+        }
+        world.incrementVersion();
+        LearnedHeuristics heuristics = new LearnedHeuristics(world.getSnapshot());
+        RealTimeAgent agent = new RealTimeAgent(heuristics, 256);
+        agent.setPosition(2, 2);
+        agent.setGoal(17, 17);
+        
+        int steps = 0;
+        while(agent.step()) {
+            assertTrue("Agent does not stop!", ++steps < 100);
+        }
+        assertFalse("Agent reaches the goal!", agent.isAtGoal());
+        assertEquals("Unreachable goal is not learned!", I_Cost.INFINITY, 
+                heuristics.getTable(agent.getGoal()).get(agent.getPosition()));
+    }
+    
+    /**
+     * Test of raise method, of class LearnedHeuristics.Table.
+     */
+    @Test
+    public void testRaise() {
+        System.out.println("Real-time agent Test raise");
+        
+        LearnedHeuristics heuristics = new LearnedHeuristics(new TileWorld(100, 100).getSnapshot());
+        LearnedHeuristics.Table table = heuristics.getTable(0);
+        assertSame("Table is not shared!", table, heuristics.getTable(0));
+        assertEquals("Octile distance does not match!", 3 * 14 + 2 * 10, table.get(5 * 100 + 3));
+        
+        table.raise(5 * 100 + 3, 50);
+        assertFalse("Lower value is learned!", table.isLearned(5 * 100 + 3));
+        table.raise(5 * 100 + 3, 90);
+        table.raise(5 * 100 + 3, 70);
+        assertEquals("Learned value does not match!", 90, table.get(5 * 100 + 3));
+        
+        heuristics.clear();
+        assertNotSame("Table is not cleared!", table, heuristics.getTable(0));
+    }
+    
+    private static long walk(RealTimeAgent agent, TileWorld world) {
+        agent.setPosition(world.findStartX(), world.findStartY());
+        agent.setGoal(world.findEndX(), world.findEndY());
+        while(agent.step()) {
+        }
+        return agent.isAtGoal() ? agent.getPathCost() : I_Cost.INFINITY;
+    }
+}
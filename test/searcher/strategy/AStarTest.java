@@ -89,12 +89,35 @@ public class AStarTest {
         System.out.println("A* Test i3");  
         
         Solver solver = new Solver(new TileWorld("i3.png"), SearchStrategy.A_STAR);
-        AlgorithmResults expResult = new AlgorithmResults(-1, 1162);
+        AlgorithmResults expResult = new AlgorithmResults(-1, 0);
         AlgorithmResults result = solver.solve();
         
         print(result, expResult);
                 
         assertEquals("BestPathCost does not match!", expResult.getBestPathCost(), result.getBestPathCost());
+        assertEquals("Unreachable END was searched!", expResult.getNodesExpanded(), result.getNodesExpanded());
+    }
+    
+    /**
+     * Test of the solution path of class AStar: it runs from start to end.
+     */
+    @Test
+    public void testSolutionPath() {
+        System.out.println("A* Test i1 solution path");
+        
+        I_TileWorld world = new TileWorld("i1.png");
+        int startIndex = world.findStartIndex();
+        int endIndex = world.findEndIndex();
+        AlgorithmResults result = new Solver(world, SearchStrategy.A_STAR).solve();
+        int[] path = result.getSolutionPath();
+        
+        assertEquals("Path does not start at START!", startIndex, path[0]);
+        assertEquals("Path does not end at END!", endIndex, path[path.length - 1]);
+        assertEquals("PathLength does not match!", path.length, result.getPathLength());
+        
+        int[] buffer = new int[world.getSize()];
+        assertSame("Buffer is not reused!", buffer, result.getSolutionPath(buffer));
+        assertEquals("Buffer does not contain the path!", endIndex, buffer[path.length - 1]);
     }
     
     private void print(AlgorithmResults result, AlgorithmResults expResult) {
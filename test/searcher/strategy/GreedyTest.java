@@ -89,7 +89,7 @@ public class GreedyTest {
         System.out.println("A* Test i3");  
         
         Solver solver = new Solver(new TileWorld("i3.png"), SearchStrategy.GREEDY);
-        AlgorithmResults expResult = new AlgorithmResults(-1, 1162);
+        AlgorithmResults expResult = new AlgorithmResults(-1, 0);
         AlgorithmResults result = solver.solve();
         
         print(result, expResult);
@@ -0,0 +1,196 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package searcher.trace;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+import searcher.AlgorithmResults;
+import searcher.I_SearchListener;
+import searcher.SearchListeners;
+import searcher.Solver;
+import searcher.strategy.SearchStrategy;
+import tileworld.TileType;
+import tileworld.TileWorld;
+
+/**
+ *
+ * @author Kevin
+ */
+public class SearchTraceTest {
+    
+    public SearchTraceTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    /**
+     * Keeps the events it is given as text
+     */
+    private static final class Recorder implements I_SearchListener {
+        
+        private final List<String> events = new ArrayList<String>();
+
+        @Override
+        public void searchStarted(int startX, int startY, int endX, int endY) {
+            events.add("start " + startX + "," + startY + " " + endX + "," + endY);
+        }
+
+        @Override
+        public void nodeOpened(int x, int y, int cost) {
+            events.add("open " + x + "," + y + " " + cost);
+        }
+
+        @Override
+        public void nodeClosed(int x, int y, int cost) {
+            events.add("close " + x + "," + y + " " + cost);
+        }
+
+        @Override
+        public void pathFound(int[] path, int width, int cost) {
+            events.add("path " + Arrays.toString(path) + " " + width + " " + cost);
+        }
+        
+    }
+    
+    /**
+     * Record the searches of a strategy on i1, twice.
+     */
+    private static byte[] record(SearchStrategy strategy, I_SearchListener live) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TileWorld world = new TileWorld("i1.png");
+        SearchTraceWriter writer = new SearchTraceWriter(Channels.newChannel(out), 
+                world.getWidth(), world.getHeight(), "i1 " + strategy);
+        
+        for(int search = 0; search < 2; ++search) {
+            Solver solver = new Solver(world.getSnapshot().overlay(), strategy);
+            solver.setSearchListener(new SearchListeners(writer, live));
+            solver.solve();
+        }
+        writer.close();
+        return out.toByteArray();
+    }
+
+    /**
+     * Test of replay method, of class SearchTraceReader: every event is replayed 
+     * as it was recorded.
+     */
+    @Test
+    public void testReplay() throws IOException {
+        System.out.println("Search trace Test replay");
+        
+        for(SearchStrategy strategy : new SearchStrategy[] { SearchStrategy.A_STAR, 
+                SearchStrategy.FRINGE_SEARCH, SearchStrategy.ARA_STAR }) {
+            Recorder live = new Recorder();
+            byte[] trace = record(strategy, live);
+            
+            Recorder replayed = new Recorder();
+            SearchTraceReader reader = new SearchTraceReader(Channels.newChannel(new ByteArrayInputStream(trace)));
+            assertEquals("Label does not match!", "i1 " + strategy, reader.getLabel());
+            assertEquals("Records do not match on " + strategy + "!", live.events.size(), reader.replay(replayed));
+            assertEquals("Events do not match on " + strategy + "!", live.events, replayed.events);
+            reader.close();
+        }
+    }
+    
+    /**
+     * Test of TraceStatistics: the statistics of a replayed A* search are those 
+     * of the search.
+     */
+    @Test
+    public void testStatistics() throws IOException {
+        System.out.println("Search trace Test statistics");
+        
+        TileWorld world = new TileWorld("i1.png");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SearchTraceWriter writer = new SearchTraceWriter(Channels.newChannel(out), 
+                world.getWidth(), world.getHeight(), "i1");
+        Solver solver = new Solver(world, SearchStrategy.A_STAR);
+        solver.setSearchListener(writer);
+        AlgorithmResults result = solver.solve();
+        writer.close();
+        
+        SearchTraceReader reader = new SearchTraceReader(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+        TraceStatistics statistics = new TraceStatistics(reader.getWidth());
+        TraceRenderer renderer = new TraceRenderer(reader.getWidth(), reader.getHeight());
+        reader.replay(new SearchListeners(statistics, renderer));
+        
+        assertEquals("Searches do not match!", 1, statistics.getSearches());
+        assertEquals("Expansions do not match!", result.getNodesExpanded(), statistics.getExpansions());
+        assertEquals("Peak open list does not match!", result.getPeakOpenSize(), statistics.getPeakOpenSize());
+        assertEquals("BestPathCost does not match!", result.getBestPathCost(), statistics.getPathCost());
+        assertEquals("Path length does not match!", result.getPathLength(), statistics.getPathLength());
+        
+        int end = result.getSolutionPath()[result.getPathLength() - 1];
+        int endColor = renderer.getImage().getRGB(end % world.getWidth(), end / world.getWidth()) & 0xFFFFFF;
+        assertNotEquals("Path is not rendered!", TileType.ROAD.getRgbColor() & 0xFFFFFF, endColor);
+    }
+    
+    /**
+     * Test of replay method, of class SearchTraceReader: a damaged trace is rejected.
+     */
+    @Test
+    public void testTruncated() throws IOException {
+        System.out.println("Search trace Test truncated");
+        
+        byte[] trace = record(SearchStrategy.A_STAR, new Recorder());
+        byte[] truncated = Arrays.copyOf(trace, trace.length - 3);
+        
+        SearchTraceReader reader = new SearchTraceReader(Channels.newChannel(new ByteArrayInputStream(truncated)));
+        try {
+            reader.replay(new Recorder());
+            fail("Truncated trace is replayed!");
+        } catch(IOException ioexp) {
+            // expected
+        }
+        
+        try {
+            new SearchTraceReader(Channels.newChannel(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6 })));
+            fail("Not a trace is read!");
+        } catch(IOException ioexp) {
+            // expected
+        }
+    }
+    
+}
@@ -0,0 +1,236 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package tileworld;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Kevin
+ */
+public class ConnectedComponentsTest {
+    
+    public ConnectedComponentsTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    /**
+     * A 20x10 world split by a wall at x = 10 with a gap at y = 5.
+     */
+    private static TileWorld createWorld() {
+        TileWorld tileWorld = new TileWorld(20, 10);
+        for(int y = 0; y < 10; ++y) {
+            if(y != 5) {
+                tileWorld.setTileType(10, y, TileType.NONWALKABLE);
+            }
+        }
+        return tileWorld;
+    }
+
+    /**
+     * Test of tileChanged method, of class ConnectedComponents: closing the gap
+     * splits the component.
+     */
+    @Test
+    public void testSplit() {
+        System.out.println("Connected components Test split");
+        
+        TileWorld tileWorld = createWorld();
+        ConnectedComponents components = tileWorld.getComponents();
+        assertEquals("ComponentCount does not match!", 1, components.getComponentCount());
+        
+        tileWorld.setTileType(10, 5, TileType.NONWALKABLE);
+        assertEquals("ComponentCount does not match!", 2, components.getComponentCount());
+        assertFalse("Split sides are connected!", components.isConnected(0, 19));
+        assertMatches(tileWorld, components);
+    }
+    
+    /**
+     * Test of tileChanged method, of class ConnectedComponents: opening the wall
+     * merges two components.
+     */
+    @Test
+    public void testMerge() {
+        System.out.println("Connected components Test merge");
+        
+        TileWorld tileWorld = createWorld();
+        tileWorld.setTileType(10, 5, TileType.NONWALKABLE);
+        ConnectedComponents components = tileWorld.getComponents();
+        assertEquals("ComponentCount does not match!", 2, components.getComponentCount());
+        
+        tileWorld.setTileType(10, 2, TileType.SAND);
+        assertEquals("ComponentCount does not match!", 1, components.getComponentCount());
+        assertTrue("Merged sides are not connected!", components.isConnected(0, 19));
+        assertMatches(tileWorld, components);
+    }
+    
+    /**
+     * Test of tileChanged method, of class ConnectedComponents: blocking a tile
+     * whose neighbours stay connected, also only around a corner or diagonally, 
+     * does not split its component.
+     */
+    @Test
+    public void testRingConnected() {
+        System.out.println("Connected components Test ring connected");
+        
+        TileWorld tileWorld = createWorld();
+        ConnectedComponents components = tileWorld.getComponents();
+        
+        // open ground
+        tileWorld.setTileType(4, 4, TileType.NONWALKABLE);
+        assertMatches(tileWorld, components);
+        
+        // next to the wall, the neighbours are connected around the corner
+        tileWorld.setTileType(11, 2, TileType.NONWALKABLE);
+        assertMatches(tileWorld, components);
+        
+        // the gap is still reached diagonally
+        tileWorld.setTileType(9, 5, TileType.NONWALKABLE);
+        assertEquals("ComponentCount does not match!", 1, components.getComponentCount());
+        assertTrue("Sides are not connected!", components.isConnected(0, 19));
+        assertMatches(tileWorld, components);
+        
+        // an isolated tile disappears
+        tileWorld.setTileType(4, 5, TileType.NONWALKABLE);
+        tileWorld.setTileType(4, 3, TileType.NONWALKABLE);
+        tileWorld.setTileType(3, 3, TileType.NONWALKABLE);
+        tileWorld.setTileType(3, 4, TileType.NONWALKABLE);
+        tileWorld.setTileType(3, 5, TileType.NONWALKABLE);
+        tileWorld.setTileType(5, 3, TileType.NONWALKABLE);
+        tileWorld.setTileType(5, 4, TileType.NONWALKABLE);
+        tileWorld.setTileType(5, 5, TileType.NONWALKABLE);
+        tileWorld.setTileType(4, 4, TileType.ROAD);
+        assertEquals("ComponentCount does not match!", 2, components.getComponentCount());
+        tileWorld.setTileType(4, 4, TileType.NONWALKABLE);
+        assertMatches(tileWorld, components);
+    }
+    
+    /**
+     * Test of tileChanged method, of class ConnectedComponents: random edits of
+     * a generated world, checked against a fresh flood fill after every edit.
+     */
+    @Test
+    public void testRandomEdits() {
+        System.out.println("Connected components Test random edits");
+        
+        for(WorldGenerator.Layout layout : WorldGenerator.Layout.values()) {
+            TileWorld tileWorld = new WorldGenerator(layout, 40, 30, 3).generate();
+            ConnectedComponents components = tileWorld.getComponents();
+            Random random = new Random(11);
+            
+            for(int edit = 0; edit < 300; ++edit) {
+                int x = random.nextInt(40);
+                int y = random.nextInt(30);
+                boolean block = tileWorld.getTileType(x, y) != TileType.NONWALKABLE;
+                tileWorld.setTileType(x, y, block ? TileType.NONWALKABLE : TileType.ROAD);
+                assertMatches(tileWorld, components);
+            }
+        }
+    }
+    
+    /**
+     * Check that the components connect exactly the tiles that a fresh flood
+     * fill connects.
+     */
+    private static void assertMatches(TileWorld tileWorld, ConnectedComponents components) {
+        int[] expected = floodFill(tileWorld);
+        int[] actual = components.getComponents(null);
+        Map<Integer, Integer> expectedToActual = new HashMap<Integer, Integer>();
+        Map<Integer, Integer> actualToExpected = new HashMap<Integer, Integer>();
+        
+        for(int index = 0; index < expected.length; ++index) {
+            if(expected[index] == ConnectedComponents.NO_COMPONENT) {
+                assertEquals("NONWALKABLE tile has a component!", ConnectedComponents.NO_COMPONENT, actual[index]);
+                continue;
+            }
+            Integer mapped = expectedToActual.put(expected[index], actual[index]);
+            assertTrue("Connected tiles are in different components!", mapped == null || mapped == actual[index]);
+            mapped = actualToExpected.put(actual[index], expected[index]);
+            assertTrue("Disconnected tiles are in the same component!", mapped == null || mapped == expected[index]);
+        }
+        assertEquals("ComponentCount does not match!", expectedToActual.size(), components.getComponentCount());
+    }
+    
+    /**
+     * @return the component of every tile by a flood fill over the straight 
+     * and diagonal neighbours, NO_COMPONENT if NONWALKABLE
+     */
+    private static int[] floodFill(TileWorld tileWorld) {
+        int width = tileWorld.getWidth();
+        int height = tileWorld.getHeight();
+        int[] components = new int[width * height];
+        Arrays.fill(components, ConnectedComponents.NO_COMPONENT);
+        int[] queue = new int[components.length];
+        int count = 0;
+        
+        for(int index = 0; index < components.length; ++index) {
+            if(components[index] != ConnectedComponents.NO_COMPONENT 
+                    || tileWorld.getTileType(index % width, index / width) == TileType.NONWALKABLE) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            components[index] = count;
+            queue[tail++] = index;
+            while(head < tail) {
+                int current = queue[head++];
+                for(int dy = -1; dy <= 1; ++dy) {
+                    for(int dx = -1; dx <= 1; ++dx) {
+                        int x = current % width + dx;
+                        int y = current / width + dy;
+                        if(x >= 0 && y >= 0 && x < width && y < height 
+                                && components[y * width + x] == ConnectedComponents.NO_COMPONENT
+                                && tileWorld.getTileType(x, y) != TileType.NONWALKABLE) {
+                            components[y * width + x] = count;
+                            queue[tail++] = y * width + x;
+                        }
+                    }
+                }
+            }
+            count++;
+        }
+        return components;
+    }
+    
+}
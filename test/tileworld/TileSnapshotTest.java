@@ -0,0 +1,177 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package tileworld;
+
+import java.io.File;
+import org.junit.*;
+import static org.junit.Assert.*;
+import searcher.OffHeapSearch;
+import searcher.Solver;
+import searcher.strategy.SearchStrategy;
+
+/**
+ *
+ * @author Kevin
+ */
+public class TileSnapshotTest {
+    
+    public TileSnapshotTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of getSnapshot method, of class TileWorld: edits are published by 
+     * incrementVersion() and do not change older snapshots.
+     */
+    @Test
+    public void testSnapshot() {
+        System.out.println("Tile snapshot Test snapshot");
+        
+        TileWorld world = new TileWorld(100, 100);
+        TileSnapshot before = world.getSnapshot();
+        
+        world.setTileType(70, 5, TileType.WATER);
+        assertSame("Snapshot is published by an edit!", before, world.getSnapshot());
+        assertEquals("Edit is not visible!", TileType.WATER, world.getTileType(70, 5));
+        assertEquals("Snapshot has changed!", TileType.ROAD, before.getTileType(70, 5));
+        
+        world.incrementVersion();
+        TileSnapshot after = world.getSnapshot();
+        assertEquals("Version does not match!", world.getVersion(), after.getVersion());
+        assertEquals("Edit is not published!", TileType.WATER, after.getTileType(70, 5));
+        
+        world.setTileType(70, 5, TileType.SAND);
+        assertEquals("Published snapshot has changed!", TileType.WATER, after.getTileType(70, 5));
+        assertSame("Unedited chunk is not shared!", before.getChunks()[0], world.getSnapshot().getChunks()[0]);
+    }
+    
+    /**
+     * Test of getSnapshot method, of class TileWorld: a tile world loaded 
+     * through a File is published like one loaded by name.
+     */
+    @Test
+    public void testFile() {
+        System.out.println("Tile snapshot Test file");
+        
+        TileWorld byName = new TileWorld("i1.png");
+        TileWorld world = new TileWorld(new File("input", "i1.png"));
+        TileSnapshot snapshot = world.getSnapshot();
+        
+        assertNotNull("Snapshot is not published!", snapshot);
+        assertEquals("Version does not match!", byName.getVersion(), world.getVersion());
+        assertEquals("Version does not match!", world.getVersion(), snapshot.getVersion());
+        for (int x = 0; x < world.getWidth(); x++) {
+            for (int y = 0; y < world.getHeight(); y++) {
+                assertEquals("Snapshot does not match!", byName.getTileType(x, y), snapshot.getTileType(x, y));
+            }
+        }
+        
+        OffHeapSearch search = new OffHeapSearch(world);
+        assertEquals("BestPathCost does not match!", 580, search.solve(world.findStartX(), world.findStartY(), 
+                world.findEndX(), world.findEndY()));
+    }
+    
+    /**
+     * Test of overlay method, of class TileSnapshot: "what-if" edits, including 
+     * the path drawn by a search, do not change the tile world.
+     */
+    @Test
+    public void testOverlay() {
+        System.out.println("Tile snapshot Test overlay");
+        
+        TileWorld world = new TileWorld("i1.png");
+        TileSnapshot snapshot = world.getSnapshot();
+        assertEquals("BestPathCost does not match!", 580, new Solver(snapshot.overlay(), SearchStrategy.A_STAR).solve().getBestPathCost());
+        
+        TileWorld overlay = snapshot.overlay();
+        for (int x = 0; x < overlay.getWidth(); x++) {
+            for (int y = 0; y < overlay.getHeight(); y++) {
+                if (overlay.getTileType(x, y) == TileType.ROAD) {
+                    overlay.setTileType(x, y, TileType.MOUNTAIN);
+                }
+            }
+        }
+        assertTrue("Overlay edits are not searched!", new Solver(overlay, SearchStrategy.A_STAR).solve().getBestPathCost() > 580);
+        assertEquals("Tile world has changed!", 580, new Solver(world.getSnapshot().overlay(), SearchStrategy.A_STAR).solve().getBestPathCost());
+        assertEquals("Tile world has changed!", 580, new Solver(world, SearchStrategy.A_STAR).solve().getBestPathCost());
+    }
+    
+    /**
+     * Test of getSnapshot method, of class TileWorld: a reader never sees a 
+     * snapshot that is partly edited.
+     */
+    @Test
+    public void testConcurrentReader() throws InterruptedException {
+        System.out.println("Tile snapshot Test concurrent reader");
+        
+        final TileWorld world = new TileWorld(200, 200);
+        final boolean[] consistent = {true};
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 200; i++) {
+                    TileSnapshot snapshot = world.getSnapshot();
+                    TileType expected = snapshot.getTileType(0, 0);
+                    for (int x = 0; x < snapshot.getWidth(); x++) {
+                        for (int y = 0; y < snapshot.getHeight(); y++) {
+                            if (snapshot.getTileType(x, y) != expected) {
+                                consistent[0] = false;
+                            }
+                        }
+                    }
+                }
+            }
+        });
+        reader.start();
+        
+        TileType[] types = {TileType.SAND, TileType.WATER, TileType.ROAD};
+        for (int i = 0; i < 30; i++) {
+            for (int x = 0; x < world.getWidth(); x++) {
+                for (int y = 0; y < world.getHeight(); y++) {
+                    world.setTileType(x, y, types[i % types.length]);
+                }
+            }
+            world.incrementVersion();
+        }
+        reader.join();
+        
+        assertTrue("Reader has seen a partly edited snapshot!", consistent[0]);
+    }
+    
+}
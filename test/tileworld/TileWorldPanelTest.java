@@ -0,0 +1,113 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package tileworld;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Kevin
+ */
+public class TileWorldPanelTest {
+    
+    public TileWorldPanelTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    /**
+     * Paints the panel on an image of the size of the panel.
+     */
+    private static BufferedImage paint(TileWorldPanel panel) {
+        BufferedImage screen = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = screen.createGraphics();
+        g.setClip(0, 0, screen.getWidth(), screen.getHeight());
+        panel.paint(g);
+        g.dispose();
+        return screen;
+    }
+
+    /**
+     * Test of paint method, of class TileWorldPanel: edits are drawn, and the 
+     * panel does not grow with the tile world.
+     */
+    @Test
+    public void testPaint() {
+        System.out.println("Tile world panel Test paint");
+        
+        TileWorld world = new TileWorld(1000, 1000);
+        TileWorldPanel panel = new TileWorldPanel(world, 10);
+        panel.addNotify();
+        assertTrue("Panel is as large as the world!", panel.getWidth() < world.getWidth() * 10);
+        
+        world.setTileType(2, 3, TileType.WATER);
+        BufferedImage screen = paint(panel);
+        assertEquals("Edit is not drawn!", TileType.WATER.getRgbColor() & 0xFFFFFF, screen.getRGB(25, 35) & 0xFFFFFF);
+        assertEquals("Tile is not drawn!", TileType.ROAD.getRgbColor() & 0xFFFFFF, screen.getRGB(15, 35) & 0xFFFFFF);
+        
+        panel.removeNotify();
+        world.setTileType(2, 3, TileType.SAND);
+        assertEquals("Removed panel is updated!", TileType.WATER.getRgbColor() & 0xFFFFFF, paint(panel).getRGB(25, 35) & 0xFFFFFF);
+    }
+    
+    /**
+     * Test of pan and zoom methods, of class TileWorldPanel.
+     */
+    @Test
+    public void testPanZoom() {
+        System.out.println("Tile world panel Test pan zoom");
+        
+        TileWorld world = new TileWorld(100, 100);
+        world.setTileType(40, 50, TileType.MOUNTAIN);
+        TileWorldPanel panel = new TileWorldPanel(world, 10);
+        panel.addNotify();
+        
+        panel.zoom(2, 405, 505);
+        assertEquals("Zoom does not match!", 20, panel.getZoom(), 0.0);
+        assertEquals("Anchor tile has moved!", 40, panel.getTileX(405));
+        assertEquals("Anchor tile has moved!", 50, panel.getTileY(505));
+        
+        panel.pan(400, 500);
+        assertEquals("Pan does not match!", 40, panel.getTileX(5));
+        assertEquals("Tile is not drawn after pan!", TileType.MOUNTAIN.getRgbColor() & 0xFFFFFF, paint(panel).getRGB(5, 5) & 0xFFFFFF);
+    }
+    
+}
@@ -0,0 +1,156 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package tileworld;
+
+import java.util.ArrayDeque;
+import org.junit.*;
+import static org.junit.Assert.*;
+import searcher.strategy.Node;
+
+/**
+ *
+ * @author Kevin
+ */
+public class WorldGeneratorTest {
+    
+    public WorldGeneratorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of generate method, of class WorldGenerator: the same layout, size 
+     * and seed give the same world, another seed another world.
+     */
+    @Test
+    public void testDeterminism() {
+        System.out.println("World generator Test determinism");
+        
+        for(WorldGenerator.Layout layout : WorldGenerator.Layout.values()) {
+            TileWorld world = new WorldGenerator(layout, 64, 48, 7).generate();
+            TileWorld same = new WorldGenerator(layout, 64, 48, 7).generate();
+            TileWorld other = new WorldGenerator(layout, 64, 48, 8).generate();
+            
+            boolean differs = false;
+            for(int y = 0; y < 48; ++y) {
+                for(int x = 0; x < 64; ++x) {
+                    assertEquals(layout + " is not deterministic!", world.getTileType(x, y), same.getTileType(x, y));
+                    differs |= world.getTileType(x, y) != other.getTileType(x, y);
+                }
+            }
+            assertTrue(layout + " ignores the seed!", differs);
+        }
+    }
+    
+    /**
+     * Test of generate method, of class WorldGenerator: END is reachable from 
+     * START, by a breadth-first search over the tiles that can be entered.
+     */
+    @Test
+    public void testReachable() {
+        System.out.println("World generator Test reachable");
+        
+        for(WorldGenerator.Layout layout : WorldGenerator.Layout.values()) {
+            for(long seed = 1; seed <= 5; ++seed) {
+                TileWorld world = new WorldGenerator(layout, 57, 41, seed).generate();
+                assertTrue(layout + " " + seed + " has no START!", world.findStartIndex() >= 0);
+                assertTrue(layout + " " + seed + " has no END!", world.findEndIndex() >= 0);
+                assertTrue(layout + " " + seed + " has an unreachable END!", 
+                        isReachable(world, world.findStartIndex(), world.findEndIndex()));
+            }
+        }
+    }
+    
+    /**
+     * Test of generate method, of class WorldGenerator: END is reachable from
+     * START also with many obstacles and in rooms that all share one center.
+     */
+    @Test
+    public void testReachableDense() {
+        System.out.println("World generator Test reachable dense");
+        
+        for(WorldGenerator.Layout layout : new WorldGenerator.Layout[] {
+                WorldGenerator.Layout.RANDOM_TERRAIN, WorldGenerator.Layout.OPEN_FIELD}) {
+            for(double density : new double[] {0.6, 0.9, 1.0}) {
+                for(long seed = 1; seed <= 10; ++seed) {
+                    WorldGenerator generator = new WorldGenerator(layout, 40, 30, seed);
+                    generator.setObstacleDensity(density);
+                    assertSolvable(layout + " " + density + " " + seed, generator.generate());
+                }
+            }
+        }
+        
+        for(int size = WorldGenerator.MIN_SIZE; size <= 8; ++size) {
+            for(long seed = 1; seed <= 10; ++seed) {
+                assertSolvable("ROOMS " + size + " " + seed, 
+                        new WorldGenerator(WorldGenerator.Layout.ROOMS, size, size, seed).generate());
+            }
+        }
+    }
+    
+    private static void assertSolvable(String name, TileWorld world) {
+        assertTrue(name + " has no START!", world.findStartIndex() >= 0);
+        assertTrue(name + " has no END!", world.findEndIndex() >= 0);
+        assertTrue(name + " has an unreachable END!", 
+                isReachable(world, world.findStartIndex(), world.findEndIndex()));
+    }
+    
+    private static boolean isReachable(TileWorld world, int from, int to) {
+        int width = world.getWidth();
+        boolean[] seen = new boolean[world.getSize()];
+        ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        queue.add(from);
+        seen[from] = true;
+        while(!queue.isEmpty()) {
+            int index = queue.poll();
+            if(index == to) {
+                return true;
+            }
+            for(int direction = 0; direction < Node.DIRECTIONS; ++direction) {
+                int x = index % width + Node.getDirectionX(direction);
+                int y = index / width + Node.getDirectionY(direction);
+                if(x >= 0 && x < width && y >= 0 && y < world.getHeight() && !seen[y * width + x]
+                        && world.getTileType(x, y) != TileType.NONWALKABLE) {
+                    seen[y * width + x] = true;
+                    queue.add(y * width + x);
+                }
+            }
+        }
+        return false;
+    }
+}
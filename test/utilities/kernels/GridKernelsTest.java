@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package utilities.kernels;
+
+import java.util.Random;
+import org.junit.*;
+import static org.junit.Assert.*;
+import tileworld.I_Cost;
+import tileworld.TileType;
+import utilities.NodeUtilities;
+
+/**
+ *
+ * @author Kevin
+ */
+public class GridKernelsTest {
+    
+    /**
+     * Widths below, at and around multiples of the vector length
+     */
+    private static final int[] WIDTHS = { 1, 3, 7, 16, 17, 33, 64, 101 };
+    private static final int HEIGHT = 23;
+    
+    private final I_GridKernels scalar = GridKernels.getScalar();
+    private final I_GridKernels kernels = GridKernels.get();
+    
+    public GridKernelsTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        System.out.println("Grid kernels: " + (GridKernels.isVectorEnabled() ? "vector" : "scalar"));
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of octileField method: every value is that of NodeUtilities.calculateCustomHeuristic().
+     */
+    @Test
+    public void testOctileField() {
+        System.out.println("Grid kernels Test octile field");
+        
+        for(int width : WIDTHS) {
+            int goalX = width / 3;
+            int goalY = HEIGHT - 2;
+            int[] field = new int[width * HEIGHT];
+            
+            kernels.octileField(width, HEIGHT, goalX, goalY, field);
+            for(int index = 0; index < field.length; ++index) {
+                assertEquals("Heuristic does not match at width " + width + "!", 
+                        NodeUtilities.calculateCustomHeuristic(index % width, index / width, goalX, goalY), field[index]);
+            }
+        }
+    }
+    
+    /**
+     * Test of euclideanField method: the vector and scalar kernels match.
+     */
+    @Test
+    public void testEuclideanField() {
+        System.out.println("Grid kernels Test Euclidean field");
+        
+        for(int width : WIDTHS) {
+            int[] expResult = new int[width * HEIGHT];
+            int[] result = new int[width * HEIGHT];
+            
+            scalar.euclideanField(width, HEIGHT, width - 1, 4, expResult);
+            kernels.euclideanField(width, HEIGHT, width - 1, 4, result);
+            assertArrayEquals("Heuristics do not match at width " + width + "!", expResult, result);
+        }
+    }
+    
+    /**
+     * Test of obstacleDistanceField method: every value is the octile distance 
+     * to the nearest blocked tile.
+     */
+    @Test
+    public void testObstacleDistanceField() {
+        System.out.println("Grid kernels Test obstacle distance field");
+        
+        Random random = new Random(42);
+        for(int width : WIDTHS) {
+            boolean[] blocked = new boolean[width * HEIGHT];
+            int[] expResult = new int[width * HEIGHT];
+            int[] result = new int[width * HEIGHT];
+            
+            for(int index = 0; index < blocked.length; ++index) {
+                blocked[index] = random.nextInt(20) == 0;
+            }
+            for(int index = 0; index < blocked.length; ++index) {
+                expResult[index] = I_Cost.INFINITY;
+                
+                for(int other = 0; other < blocked.length; ++other) {
+                    if(blocked[other]) {
+                        expResult[index] = Math.min(expResult[index], NodeUtilities.calculateCustomHeuristic(
+                                index % width, index / width, other % width, other / width));
+                    }
+                }
+            }
+            
+            scalar.obstacleDistanceField(blocked, width, HEIGHT, result);
+            assertArrayEquals("Scalar distances do not match at width " + width + "!", expResult, result);
+            kernels.obstacleDistanceField(blocked, width, HEIGHT, result);
+            assertArrayEquals("Distances do not match at width " + width + "!", expResult, result);
+        }
+    }
+    
+    /**
+     * Test of costField method: every value is the cost of the TileType.
+     */
+    @Test
+    public void testCostField() {
+        System.out.println("Grid kernels Test cost field");
+        
+        Random random = new Random(42);
+        TileType[] types = TileType.values();
+        int[] costs = new int[types.length];
+        for(TileType type : types) {
+            costs[type.ordinal()] = type.getDiagonalCost();
+        }
+        
+        for(int width : WIDTHS) {
+            int[] tiles = new int[width * HEIGHT];
+            int[] result = new int[width * HEIGHT];
+            
+            for(int index = 0; index < tiles.length; ++index) {
+                tiles[index] = random.nextInt(types.length);
+            }
+            
+            kernels.costField(tiles, costs, result);
+            for(int index = 0; index < tiles.length; ++index) {
+                assertEquals("Cost does not match at width " + width + "!", types[tiles[index]].getDiagonalCost(), result[index]);
+            }
+        }
+    }
+    
+}
@@ -0,0 +1,198 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package utilities.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Kevin
+ */
+public class LatencyHistogramTest {
+    
+    /**
+     * The largest error of a reported percentile: one bucket of a power of two 
+     * split in 32 buckets
+     */
+    private static final double RESOLUTION = 1.0 / 32;
+    
+    public LatencyHistogramTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of snapshot method, of class LatencyHistogram: small values are 
+     * counted exactly.
+     */
+    @Test
+    public void testExact() {
+        System.out.println("Latency histogram Test exact");
+        
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(long value = 63; value >= 0; --value) {
+            histogram.record(value);
+        }
+        histogram.record(-5);
+        
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals("Count does not match!", 65, snapshot.getCount());
+        assertEquals("P50 does not match!", 31, snapshot.getP50());
+        assertEquals("P99 does not match!", 63, snapshot.getP99());
+        assertEquals("Max does not match!", 63, snapshot.getMax());
+        assertEquals("Mean does not match!", 2016.0 / 65, snapshot.getMean(), 1e-9);
+    }
+    
+    /**
+     * Test of snapshot method, of class LatencyHistogram: the percentiles of a 
+     * uniform distribution are at most one bucket too high.
+     */
+    @Test
+    public void testUniform() {
+        System.out.println("Latency histogram Test uniform");
+        
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(long value = 1; value <= 100000; ++value) {
+            histogram.record(value * 1000);
+        }
+        
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertWithinResolution("P50 does not match!", 50000L * 1000, snapshot.getP50());
+        assertWithinResolution("P99 does not match!", 99000L * 1000, snapshot.getP99());
+        assertWithinResolution("P99.9 does not match!", 99900L * 1000, snapshot.getP999());
+        assertEquals("Max does not match!", 100000L * 1000, snapshot.getMax());
+    }
+    
+    /**
+     * Test of snapshot method, of class LatencyHistogram: a few outliers only 
+     * show in the highest percentiles.
+     */
+    @Test
+    public void testOutliers() {
+        System.out.println("Latency histogram Test outliers");
+        
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(int i = 0; i < 9990; ++i) {
+            histogram.record(1000);
+        }
+        for(int i = 0; i < 10; ++i) {
+            histogram.record(5000000);
+        }
+        
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertWithinResolution("P50 does not match!", 1000, snapshot.getP50());
+        assertWithinResolution("P99 does not match!", 1000, snapshot.getP99());
+        assertWithinResolution("P99.9 does not match!", 1000, snapshot.getP999());
+        assertEquals("Max does not match!", 5000000, snapshot.getMax());
+        
+        for(int i = 0; i < 10; ++i) {
+            histogram.record(5000000);
+        }
+        assertEquals("P99.9 does not match!", 5000000, histogram.snapshot().getP999());
+    }
+    
+    /**
+     * Test of snapshot method, of class LatencyHistogram: values above 
+     * MAX_TRACKABLE_VALUE are reported up to the exact maximum, never lower.
+     */
+    @Test
+    public void testAboveMaximum() {
+        System.out.println("Latency histogram Test above maximum");
+        
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(int i = 0; i < 60; ++i) {
+            histogram.record(1000);
+        }
+        for(int i = 0; i < 50; ++i) {
+            histogram.record(LatencyHistogram.MAX_TRACKABLE_VALUE + 1000000L * i);
+        }
+        histogram.record(Long.MAX_VALUE / 4);
+        
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertWithinResolution("P50 does not match!", 1000, snapshot.getP50());
+        assertEquals("P99 does not match!", Long.MAX_VALUE / 4, snapshot.getP99());
+        assertEquals("Max does not match!", Long.MAX_VALUE / 4, snapshot.getMax());
+        
+        histogram.reset();
+        histogram.record(LatencyHistogram.MAX_TRACKABLE_VALUE * 8);
+        assertEquals("P50 does not match!", LatencyHistogram.MAX_TRACKABLE_VALUE * 8, histogram.snapshot().getP50());
+    }
+    
+    /**
+     * Test of record method, of class LatencyHistogram: no value is lost by 
+     * concurrent recording.
+     */
+    @Test
+    public void testConcurrent() throws InterruptedException {
+        System.out.println("Latency histogram Test concurrent");
+        
+        final LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<Thread>();
+        for(int i = 0; i < 4; ++i) {
+            final long value = 100 * (i + 1);
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    for(int j = 0; j < 100000; ++j) {
+                        histogram.record(value);
+                    }
+                }
+            });
+        }
+        for(Thread thread : threads) {
+            thread.start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals("Count does not match!", 400000, snapshot.getCount());
+        assertEquals("Count does not match!", 400000, histogram.getCount());
+        assertEquals("Max does not match!", 400, snapshot.getMax());
+        assertEquals("Mean does not match!", 250.0, snapshot.getMean(), 1e-9);
+    }
+    
+    private static void assertWithinResolution(String message, long expected, long actual) {
+        assertTrue(message + " expected " + expected + " but was " + actual, 
+                actual >= expected && actual <= expected + (long) Math.ceil(expected * RESOLUTION));
+    }
+}
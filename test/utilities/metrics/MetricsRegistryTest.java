@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2012 Kevin Haring <K.KevinHaring@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package utilities.metrics;
+
+import java.util.Map;
+import org.junit.*;
+import static org.junit.Assert.*;
+import searcher.Solver;
+import searcher.strategy.SearchStrategy;
+import tileworld.TileWorld;
+
+/**
+ *
+ * @author Kevin
+ */
+public class MetricsRegistryTest {
+    
+    public MetricsRegistryTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of worldHistogram method, of class MetricsRegistry: off by default, 
+     * and only the most recently looked up worlds keep their histograms.
+     */
+    @Test
+    public void testWorldHistogram() {
+        System.out.println("Metrics registry Test world histogram");
+        
+        MetricsRegistry registry = new MetricsRegistry();
+        assertNull("Metrics per world are on!", registry.worldHistogram("solve/AStar", "a.png"));
+        
+        registry.setMaxWorlds(2);
+        LatencyHistogram a = registry.worldHistogram("solve/AStar", "a.png");
+        registry.worldHistogram("solve/Dijkstra", "a.png");
+        registry.worldHistogram("solve/AStar", "b.png");
+        assertSame("Histogram is not shared!", a, registry.worldHistogram("solve/AStar", "a.png"));
+        registry.worldHistogram("solve/AStar", "c.png").record(5);
+        
+        Map<String, HistogramSnapshot> snapshots = registry.snapshotHistograms();
+        assertEquals("Histograms do not match!", 3, snapshots.size());
+        assertTrue("Recent world is evicted!", snapshots.containsKey("solve/AStar/a.png"));
+        assertTrue("Recent world is evicted!", snapshots.containsKey("solve/Dijkstra/a.png"));
+        assertTrue("Recent world is evicted!", snapshots.containsKey("solve/AStar/c.png"));
+        assertEquals("Count does not match!", 1, snapshots.get("solve/AStar/c.png").getCount());
+        
+        registry.setMaxWorlds(0);
+        assertTrue("Histograms are not removed!", registry.snapshotHistograms().isEmpty());
+    }
+    
+    /**
+     * Test of the metrics of the Solver and the TileWorld: the latencies are 
+     * recorded per strategy and, if enabled, per world.
+     */
+    @Test
+    public void testSolver() {
+        System.out.println("Metrics registry Test solver");
+        
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        registry.setMaxWorlds(4);
+        try {
+            new Solver(new TileWorld("i1.png"), SearchStrategy.A_STAR).solve();
+            
+            Map<String, HistogramSnapshot> snapshots = registry.snapshotHistograms();
+            assertTrue("Strategy latency is not recorded!", snapshots.get("solve/AStar").getCount() > 0);
+            assertTrue("World latency is not recorded!", snapshots.get("solve/AStar/i1.png").getCount() > 0);
+            assertTrue("World load latency is not recorded!", snapshots.get("load/i1.png").getCount() > 0);
+        } finally {
+            registry.setMaxWorlds(0);
+        }
+        assertFalse("World latency is not removed!", registry.snapshotHistograms().containsKey("solve/AStar/i1.png"));
+    }
+    
+}